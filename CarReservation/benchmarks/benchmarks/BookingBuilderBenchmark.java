@@ -0,0 +1,76 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import booking.structure.Booking;
+import booking.structure.BookingBuilder;
+import booking.structure.Lang;
+import person.structure.Person;
+import person.structure.PersonFactory;
+import resource.structure.Resource;
+
+// Kosten einer einzelnen Buchung: Aufbau über den Builder und Rendern, unabhängig vom Bestand
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BookingBuilderBenchmark {
+
+	@Param({ "DE", "EN" })
+	public Lang lang;
+
+	private Person person;
+	private Resource resource;
+	private Booking booking;
+	private final StringBuilder buffer = new StringBuilder(256);
+	private long next;
+
+	@Setup
+	public void setUp() {
+		person = PersonFactory.create("natural", "person0");
+		resource = new Resource("Resource0", 100.0);
+		booking = build("B0");
+	}
+
+	private Booking build(String id) {
+		return new BookingBuilder()
+				.id(id)
+				.person(person)
+				.resource(resource)
+				.price(resource.getPrice())
+				.lang(lang)
+				.build();
+	}
+
+	@Benchmark
+	public Booking buildBooking() {
+		return build("B" + next++);
+	}
+
+	@Benchmark
+	public String render() {
+		return booking.render();
+	}
+
+	// wie render(), aber in einen wiederverwendeten Puffer
+	@Benchmark
+	public int renderTo() throws Exception {
+		buffer.setLength(0);
+		booking.renderTo(buffer);
+		return buffer.length();
+	}
+}
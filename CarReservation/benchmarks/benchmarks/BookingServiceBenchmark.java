@@ -0,0 +1,161 @@
+package benchmarks;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import booking.behaviour.BookingService;
+import booking.structure.Booking;
+import booking.structure.BookingRequest;
+import person.behaviour.PersonService;
+import resource.behaviour.ResourceService;
+import resource.structure.Resource;
+
+// Messungen am BookingService bei wachsendem Bestand (ein Thread).
+// Ausführen (jmh-core und jmh-generator-annprocess im Classpath, src und benchmarks kompiliert):
+//   java -Xmx16g -cp <classpath> org.openjdk.jmh.Main BookingService
+// Einzelne Größen: -p size=10,100000
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx16g" })
+@Threads(1)
+public class BookingServiceBenchmark {
+
+	static final int PERSONS = 10;
+	static final int RESOURCES = 10;
+
+	@Param({ "10", "1000", "100000", "1000000", "10000000" })
+	public int size;
+
+	BookingService bookingService;
+	String[] ids;
+	private PrintStream stdout;
+
+	// jeder Thread legt eigene IDs an, damit sich create/delete nicht gegenseitig abweisen
+	@State(Scope.Thread)
+	public static class ThreadState {
+		private static final AtomicInteger THREADS = new AtomicInteger();
+
+		final String prefix = "T" + THREADS.incrementAndGet() + "-";
+		final SplittableRandom random = new SplittableRandom(prefix.hashCode());
+		long next;
+	}
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		// createBooking/deleteBooking schreiben auf System.out; das soll nicht mitgemessen werden
+		stdout = System.out;
+		System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+
+		PersonService personService = new PersonService();
+		ResourceService resourceService = new ResourceService();
+		for (int i = 0; i < PERSONS; i++)
+			personService.createPerson(i % 2 == 0 ? "natural" : "legal", "person" + i);
+		for (int i = 0; i < RESOURCES; i++)
+			resourceService.addResource(new Resource("Resource" + i, 100.0 + i));
+		bookingService = new BookingService(personService, resourceService);
+
+		ids = new String[size];
+		List<BookingRequest> batch = new ArrayList<>();
+		for (int i = 0; i < size; i++) {
+			ids[i] = "B" + i;
+			batch.add(new BookingRequest(i % 2 == 0 ? "DE" : "EN", ids[i], "person" + (i % PERSONS),
+					"Resource" + (i % RESOURCES)));
+			if (batch.size() == 100_000 || i == size - 1) {
+				bookingService.createBookings(batch);
+				batch.clear();
+			}
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		System.setOut(stdout);
+	}
+
+	// anlegen und wieder löschen, damit der Bestand konstant bleibt; enthält die Auflösung von Person und Resource
+	@Benchmark
+	public int createAndDelete(ThreadState t) {
+		String id = t.prefix + t.next++;
+		bookingService.createBooking("DE", id, "person" + (t.next % PERSONS), "Resource" + (t.next % RESOURCES));
+		bookingService.deleteBooking(id);
+		return bookingService.getBookingCount();
+	}
+
+	@Benchmark
+	public Booking lookupById(ThreadState t) {
+		return bookingService.getBookingById(ids[t.random.nextInt(size)]);
+	}
+
+	@Benchmark
+	public Booking lookupMissing(ThreadState t) {
+		return bookingService.getBookingById("missing-" + t.random.nextInt(size));
+	}
+
+	// eine Seite à 100 Buchungen ab zufälliger Position rendern
+	@Benchmark
+	public long exportPage(ThreadState t, Blackhole bh) throws Exception {
+		return bookingService.exportBookings(new BlackholeAppendable(bh), t.random.nextInt(size), 100);
+	}
+
+	// kompletter Export wie listBookings, skaliert linear mit dem Bestand
+	@Benchmark
+	public long exportAll(Blackhole bh) throws Exception {
+		return bookingService.exportBookings(new BlackholeAppendable(bh), 0, Integer.MAX_VALUE);
+	}
+
+	@Benchmark
+	public List<Booking> listAsCopy() {
+		return bookingService.getBookings();
+	}
+
+	// Appendable ohne Speicher: Zeichen gehen in den Blackhole, damit nichts wegoptimiert wird
+	static final class BlackholeAppendable implements Appendable {
+		private final Blackhole bh;
+
+		BlackholeAppendable(Blackhole bh) {
+			this.bh = bh;
+		}
+
+		@Override
+		public Appendable append(CharSequence csq) {
+			bh.consume(csq);
+			return this;
+		}
+
+		@Override
+		public Appendable append(CharSequence csq, int start, int end) {
+			bh.consume(csq);
+			return this;
+		}
+
+		@Override
+		public Appendable append(char c) {
+			bh.consume(c);
+			return this;
+		}
+	}
+}
@@ -0,0 +1,9 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Threads;
+
+// dieselben Messungen mit mehreren Threads auf einem gemeinsamen BookingService;
+// die Thread-Zahl lässt sich mit -t überschreiben (z.B. -t 16)
+@Threads(4)
+public class BookingServiceConcurrentBenchmark extends BookingServiceBenchmark {
+}
@@ -0,0 +1,64 @@
+package benchmarks;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import person.behaviour.PersonService;
+import person.structure.NaturalPerson;
+import person.structure.Person;
+
+// Präfixsuche (Autovervollständigung) im Personenverzeichnis; soll mit der Größe nur logarithmisch wachsen.
+// Ausführen wie BookingServiceBenchmark: java -cp <classpath> org.openjdk.jmh.Main PersonSearch
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PersonSearchBenchmark {
+
+	@Param({ "1000", "200000" })
+	public int size;
+
+	private PersonService personService;
+	private PrintStream stdout;
+	private int next;
+
+	@Setup
+	public void setUp() {
+		stdout = System.out;
+		System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+		personService = new PersonService();
+		List<Person> batch = new ArrayList<>(size);
+		for (int i = 0; i < size; i++)
+			batch.add(new NaturalPerson("p" + i));
+		personService.addPersons(batch);
+	}
+
+	@TearDown
+	public void tearDown() {
+		System.setOut(stdout);
+	}
+
+	// zehn Treffer zu wechselnden Präfixen
+	@Benchmark
+	public List<Person> findByPrefix() {
+		return personService.findPersonsByPrefix("p1" + (next++ % 100), 10);
+	}
+}
@@ -0,0 +1,88 @@
+package benchmarks;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import person.behaviour.PersonService;
+import person.structure.NaturalPerson;
+import person.structure.Person;
+import resource.behaviour.ResourceService;
+import resource.structure.Resource;
+
+// Auflösung von Person und Resource per Name, wie sie createBooking für jede Buchung macht.
+// persons: Größe des Personenverzeichnisses, die Flotte hat ein Zwanzigstel davon. Gesucht werden
+// zufällige Namen; ab PersonService.DEFAULT_HOT_CAPACITY Personen liegt ein Teil davon kalt in der Datei.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResolutionBenchmark {
+
+	@Param({ "1000", "100000" })
+	public int persons;
+
+	private PersonService personService;
+	private ResourceService resourceService;
+	private String[] personNames;
+	private String[] resourceNames;
+	private final SplittableRandom random = new SplittableRandom(5);
+	private PrintStream stdout;
+
+	@Setup
+	public void setUp() {
+		stdout = System.out;
+		System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+		personService = new PersonService();
+		resourceService = new ResourceService();
+		int resources = Math.max(1, persons / 20);
+		List<Person> batch = new ArrayList<>(persons);
+		personNames = new String[persons];
+		for (int i = 0; i < persons; i++) {
+			batch.add(new NaturalPerson("person" + i));
+			// andere Schreibweise, wie sie aus dem Client kommt
+			personNames[i] = "PERSON" + i;
+		}
+		personService.addPersons(batch);
+		List<Resource> fleet = new ArrayList<>(resources);
+		resourceNames = new String[resources];
+		for (int i = 0; i < resources; i++) {
+			fleet.add(new Resource("Resource" + i, 100.0 + i % 100));
+			resourceNames[i] = "resource" + i;
+		}
+		resourceService.addResources(fleet);
+	}
+
+	@TearDown
+	public void tearDown() {
+		System.setOut(stdout);
+	}
+
+	@Benchmark
+	public Person resolvePerson() {
+		return personService.findPersonByName(personNames[random.nextInt(personNames.length)]);
+	}
+
+	@Benchmark
+	public Resource resolveResource() {
+		return resourceService.getSelectedResource(resourceNames[random.nextInt(resourceNames.length)]);
+	}
+}
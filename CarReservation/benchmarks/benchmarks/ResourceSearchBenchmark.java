@@ -0,0 +1,97 @@
+package benchmarks;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import resource.behaviour.ResourceService;
+import resource.structure.Car;
+import resource.structure.ChildSeat;
+import resource.structure.Extra;
+import resource.structure.GeoPoint;
+import resource.structure.Resource;
+import resource.structure.ResourceClass;
+import resource.structure.SetTopBox;
+
+// Suchen in der Flotte über die Indizes des ResourceService; die Kosten sollen kaum mit der Größe wachsen.
+// Ausführen wie BookingServiceBenchmark: java -cp <classpath> org.openjdk.jmh.Main ResourceSearch
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResourceSearchBenchmark {
+
+	@Param({ "1000", "100000" })
+	public int size;
+
+	private ResourceService resourceService;
+	private PrintStream stdout;
+	private int next;
+
+	@Setup
+	public void setUp() {
+		stdout = System.out;
+		System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+		SplittableRandom random = new SplittableRandom(7);
+		List<Resource> fleet = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			Resource r = new Car("Car" + i, 20 + random.nextInt(400),
+					ResourceClass.values()[random.nextInt(ResourceClass.values().length)]);
+			if (random.nextInt(3) == 0)
+				r = new ChildSeat(r);
+			if (random.nextInt(4) == 0)
+				r = new SetTopBox(r);
+			fleet.add(r);
+		}
+		resourceService = new ResourceService();
+		resourceService.addResources(fleet);
+		// Deutschland etwa
+		for (Resource r : fleet)
+			resourceService.moveResource(r.getName(), new GeoPoint(47 + random.nextDouble() * 8, 6 + random.nextDouble() * 9));
+	}
+
+	@TearDown
+	public void tearDown() {
+		System.setOut(stdout);
+	}
+
+	// die 20 günstigsten Autos mit Set-Top-Box bis 80
+	@Benchmark
+	public List<Resource> cheapestWithExtra() {
+		return resourceService.findResources(null, EnumSet.of(Extra.SET_TOP_BOX), 80, 20);
+	}
+
+	// dasselbe, eingeschränkt auf eine Klasse und zwei Extras
+	@Benchmark
+	public List<Resource> cheapestInClass() {
+		return resourceService.findResources(ResourceClass.SUV, EnumSet.of(Extra.SET_TOP_BOX, Extra.CHILD_SEAT), 100,
+				20);
+	}
+
+	// die fünf nächsten Autos mit Set-Top-Box zu wechselnden Standorten (Standortgitter)
+	@Benchmark
+	public List<Resource> nearestWithExtra() {
+		int i = next++;
+		return resourceService.findNearest(new GeoPoint(47 + (i % 80) / 10.0, 6 + (i % 90) / 10.0), 5,
+				EnumSet.of(Extra.SET_TOP_BOX), null);
+	}
+}
@@ -1,17 +1,29 @@
 package CarReservationService;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneId;
 import java.util.Scanner;
+import java.util.concurrent.TimeUnit;
 
 import authentication.behaviour.AuthenticationClient;
 import authentication.behaviour.AuthenticationService;
+import availability.behaviour.AvailabilityService;
 import booking.behaviour.BookingClient;
+import booking.behaviour.BookingLog;
 import booking.behaviour.BookingService;
+import booking.behaviour.HoldService;
 import content.behaviour.ContentClient;
 import content.behaviour.ContentService;
 import payment.behaviour.PaymentClient;
 import payment.behaviour.PaymentService;
 import person.behaviour.PersonClient;
 import person.behaviour.PersonService;
+import pricing.behaviour.PricingService;
 import resource.behaviour.ResourceClient;
 import resource.behaviour.ResourceService;
 import statistics.behaviour.StatisticsClient;
@@ -24,12 +36,28 @@ public class CarReservationService {
 	private final ContentService contentService = new ContentService();
 	private final StatisticsService statisticsService = new StatisticsService();
 	private final AuthenticationService authService = new AuthenticationService(personService);
-	private final BookingService bookingService = new BookingService(personService, resourceService);
-	private final PaymentService paymentService = new PaymentService(bookingService);
+	// Buchungen werden unter data/bookings protokolliert und beim Start wiederhergestellt
+	private final BookingService bookingService = new BookingService(personService, resourceService, openBookingLog());
+	// unbezahlte Reservierungen verfallen nach 30 Minuten
+	private final HoldService holdService = new HoldService(bookingService, Duration.ofMinutes(30));
+	private final PaymentService paymentService = new PaymentService(bookingService, holdService);
+	// Belegung in Stunden-Slots ab heute, liefert auch die Auslastung für die Preise
+	private final AvailabilityService availabilityService = new AvailabilityService(bookingService, resourceService,
+			LocalDate.now().atStartOfDay(ZoneId.systemDefault()).toInstant(), Duration.ofHours(1));
+	// ohne Regeln gilt der Grundpreis; Regelsätze werden zur Laufzeit mit setRules aktiviert
+	private final PricingService pricingService = new PricingService(ZoneId.systemDefault(), availabilityService,
+			Clock.systemUTC());
 
 	private final Scanner scanner = new Scanner(System.in);
 
 	public void start() {
+		// Personen mit Buchungen werden nur mit Kaskade gelöscht
+		personService.addReferences(bookingService);
+		bookingService.setPricing(pricingService);
+		// Buchungen höchstens zwei Jahre im Voraus
+		bookingService.setHorizon(Duration.ofDays(730));
+		bookingService.startSnapshots(10, TimeUnit.MINUTES);
+		holdService.start();
 		while (true) {
 			System.out.println("\n=== Car Reservation Service ===");
 			System.out.println("1. Manage Persons");
@@ -67,6 +95,9 @@ public class CarReservationService {
 					new StatisticsClient(bookingService, statisticsService).start();
 					break;
 				case 8:
+					holdService.close();
+					bookingService.close();
+					personService.close();
 					System.out.println("Goodbye!");
 					return;
 				default:
@@ -78,6 +109,14 @@ public class CarReservationService {
 		}
 	}
 
+	private static BookingLog openBookingLog() {
+		try {
+			return BookingLog.open(Paths.get("data", "bookings"), 1);
+		} catch (IOException e) {
+			throw new UncheckedIOException("Booking log could not be opened", e);
+		}
+	}
+
 	private int readInt() {
 		int v = scanner.nextInt();
 		scanner.nextLine();
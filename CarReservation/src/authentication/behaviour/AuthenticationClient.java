@@ -1,6 +1,5 @@
 package authentication.behaviour;
 
-import java.util.List;
 import java.util.Scanner;
 import java.util.Stack;
 import authentication.structure.*;
@@ -228,20 +227,18 @@ public class AuthenticationClient {
 
 	// Listet alle Personen auf und ermöglicht die Authentifizierung einer ausgewählten Person.
 	private void listAndAuthenticateSubjects() {
-		List<Person> persons = personService.getAllPersons();
-
-		if (persons.isEmpty()) {
+		if (personService.getPersonCount() == 0) {
 			System.out.println("No persons available. Please manage persons in the person menu first.");
 			return;
 		}
 
 		System.out.println("\n--- Registered Persons (Subjects) ---");
-		for (Person p : persons) {
+		personService.getAllPersons().forEach(p -> {
 			String credentialInfo = (p.getCredential() != null)
 					? " (Registered Credential: " + p.getCredential().getType().name() + ")"
 					: " (No credentials registered)";
 			System.out.println("- " + p.getName() + credentialInfo);
-		}
+		});
 
 		System.out.print("\nDo you want to perform an authentication? (y/n): ");
 		if (!"y".equalsIgnoreCase(scanner.nextLine())) {
@@ -0,0 +1,335 @@
+package availability.behaviour;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.IntConsumer;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import availability.structure.OccupancyBitmap;
+import availability.structure.SlotCounter;
+import booking.behaviour.BookingService;
+import booking.structure.Booking;
+import booking.structure.BookingObserver;
+import booking.structure.RecurrenceRule;
+import booking.structure.RecurringBooking;
+import pricing.structure.UtilizationSource;
+import resource.behaviour.ResourceService;
+import resource.structure.Extra;
+import resource.structure.GeoPoint;
+import resource.structure.Resource;
+import resource.structure.ResourceClass;
+
+// Verfügbarkeitssuche über Zeiträume. Je Resource wird eine Belegungs-Bitmap geführt (ein Bit je Slot ab
+// origin, z.B. Stunden oder Tage), die über BookingObserver mit dem BookingService mitläuft. Bitmaps und
+// Zähler sind in Seiten aufgeteilt; eine einzelne Buchung weit in der Zukunft kostet nur ihre Seiten.
+// Ein Slot gilt als belegt, sobald eine Buchung ihn auch nur teilweise überdeckt; die Suche ist damit
+// auf Slot-Genauigkeit konservativ. Buchungen ohne Zeitraum belegen nichts.
+// Dauerbuchungen stehen nicht in der Bitmap (sie können Jahre überdecken); ihre Termine werden je Abfrage
+// nur für den angefragten Zeitraum berechnet.
+// Für die Auslastung wird je Fahrzeugklasse und Slot gezählt, wie viele Autos belegt sind; die Zähler
+// laufen beim Belegen und Freigeben der Bitmaps mit, eine Abfrage liest nur den Zähler des Slots. Dafür
+// werden die Termine einer Dauerbuchung beim Anlegen einmal in eine eigene Bitmap je Resource eingetragen;
+// ein Auto zählt je Slot einmal, egal ob Buchungen, Termine oder beides ihn belegen.
+public class AvailabilityService implements BookingObserver, UtilizationSource {
+
+	// ab so vielen Kandidaten wird parallel über die Resourcen gesucht
+	private static final int PARALLEL_THRESHOLD = 2048;
+
+	private final ResourceService resourceService;
+	private final Instant origin;
+	private final long slotMillis;
+	// Resource-Name (case-insensitive) -> Bitmap
+	private final ConcurrentHashMap<String, OccupancyBitmap> bitmaps = new ConcurrentHashMap<>();
+	// Resource-Name (case-insensitive) -> Dauerbuchungen
+	private final ConcurrentHashMap<String, List<RecurringBooking>> series = new ConcurrentHashMap<>();
+	// Resource-Name (case-insensitive) -> Termine der Dauerbuchungen, nur für die Auslastung; geändert wird
+	// sie wie die Zähler unter dem Lock der Bitmap derselben Resource
+	private final ConcurrentHashMap<String, OccupancyBitmap> seriesBitmaps = new ConcurrentHashMap<>();
+	// belegte Autos je Slot: je Klasse (Index: Ordinalzahl + 1, 0 = nicht klassifiziert) und insgesamt
+	private final SlotCounter[] busyByClass = new SlotCounter[ResourceClass.values().length + 1];
+	private final SlotCounter busyTotal = new SlotCounter();
+
+	public AvailabilityService(BookingService bookingService, ResourceService resourceService, Instant origin,
+			Duration slotLength) {
+		if (origin == null || slotLength == null || slotLength.isNegative() || slotLength.isZero())
+			throw new IllegalArgumentException("Invalid slot configuration: " + origin + ", " + slotLength);
+		this.resourceService = resourceService;
+		this.origin = origin;
+		this.slotMillis = slotLength.toMillis();
+		for (int i = 0; i < busyByClass.length; i++)
+			busyByClass[i] = new SlotCounter();
+		// meldet auch alle bereits vorhandenen Buchungen
+		bookingService.addObserver(this);
+	}
+
+	@Override
+	public void bookingCreated(Booking booking) {
+		if (!booking.hasPeriod() || booking.getResource() == null)
+			return;
+		String key = key(booking.getResource().getName());
+		SlotCounter busy = busyByClass[classIndex(booking.getResource())];
+		OccupancyBitmap bitmap = bitmaps.computeIfAbsent(key, k -> new OccupancyBitmap());
+		synchronized (bitmap) {
+			OccupancyBitmap recurring = seriesBitmaps.get(key);
+			bitmap.occupy(firstSlot(booking.getPickupTime()), endSlot(booking.getReturnTime()), slot -> {
+				// schon durch einen Termin gezählt
+				if (recurring == null || recurring.isFree(slot, slot + 1)) {
+					busy.increment(slot);
+					busyTotal.increment(slot);
+				}
+			});
+		}
+	}
+
+	@Override
+	public void bookingDeleted(Booking booking) {
+		if (!booking.hasPeriod() || booking.getResource() == null)
+			return;
+		String key = key(booking.getResource().getName());
+		OccupancyBitmap bitmap = bitmaps.get(key);
+		SlotCounter busy = busyByClass[classIndex(booking.getResource())];
+		if (bitmap == null)
+			return;
+		synchronized (bitmap) {
+			OccupancyBitmap recurring = seriesBitmaps.get(key);
+			bitmap.release(firstSlot(booking.getPickupTime()), endSlot(booking.getReturnTime()), slot -> {
+				// bleibt durch einen Termin belegt
+				if (recurring == null || recurring.isFree(slot, slot + 1)) {
+					busy.decrement(slot);
+					busyTotal.decrement(slot);
+				}
+			});
+		}
+	}
+
+	@Override
+	public void recurringBookingCreated(RecurringBooking booking) {
+		series.computeIfAbsent(key(booking.getResource().getName()), k -> new CopyOnWriteArrayList<>()).add(booking);
+		countSeries(booking, true);
+	}
+
+	@Override
+	public void recurringBookingDeleted(RecurringBooking booking) {
+		List<RecurringBooking> list = series.get(key(booking.getResource().getName()));
+		if (list != null)
+			list.remove(booking);
+		countSeries(booking, false);
+	}
+
+	// Termine der Dauerbuchung in die Auslastung eintragen (add) bzw. wieder austragen. Kostet einmal alle
+	// Termine; die Anzahl begrenzt der Buchungshorizont des BookingService.
+	private void countSeries(RecurringBooking booking, boolean add) {
+		String key = key(booking.getResource().getName());
+		SlotCounter busy = busyByClass[classIndex(booking.getResource())];
+		// die Bitmap der Buchungen dient als Lock der Resource, auch wenn sie leer bleibt
+		OccupancyBitmap bitmap = bitmaps.computeIfAbsent(key, k -> new OccupancyBitmap());
+		synchronized (bitmap) {
+			OccupancyBitmap recurring = add ? seriesBitmaps.computeIfAbsent(key, k -> new OccupancyBitmap())
+					: seriesBitmaps.get(key);
+			if (recurring == null)
+				return;
+			IntConsumer changed = slot -> {
+				// schon bzw. weiterhin durch eine Buchung gezählt
+				if (!bitmap.isFree(slot, slot + 1))
+					return;
+				if (add) {
+					busy.increment(slot);
+					busyTotal.increment(slot);
+				} else {
+					busy.decrement(slot);
+					busyTotal.decrement(slot);
+				}
+			};
+			RecurrenceRule rule = booking.getRule();
+			for (int i = 0; i < rule.count(); i++) {
+				int from = firstSlot(rule.pickupOf(i));
+				int to = endSlot(rule.returnOf(i));
+				if (add)
+					recurring.occupy(from, to, changed);
+				else
+					recurring.release(from, to, changed);
+			}
+		}
+	}
+
+	// true, wenn die Resource in keinem Slot von [from, to) gebucht ist
+	public boolean isAvailable(String resourceName, Instant from, Instant to) {
+		checkPeriod(from, to);
+		return isFree(key(resourceName), firstSlot(from), endSlot(to));
+	}
+
+	// alle Resourcen des ResourceService, die den Filter erfüllen und in [from, to) frei sind,
+	// z.B. findAvailable(from, to, r -> r.has(ChildSeat.class))
+	public List<Resource> findAvailable(Instant from, Instant to, Predicate<Resource> filter) {
+		checkPeriod(from, to);
+		List<Resource> candidates = new ArrayList<>();
+		for (Resource r : resourceService.getAllResources())
+			if (filter == null || filter.test(r))
+				candidates.add(r);
+		int first = firstSlot(from);
+		int end = endSlot(to);
+		Predicate<Resource> free = r -> isFree(key(r.getName()), first, end);
+		// Reihenfolge der Kandidaten bleibt auch parallel erhalten
+		return (candidates.size() >= PARALLEL_THRESHOLD ? candidates.parallelStream() : candidates.stream())
+				.filter(free).collect(Collectors.toList());
+	}
+
+	// die k nächsten Resourcen um 'at', die in [from, to) frei sind und alle angegebenen Extras haben;
+	// geprüft werden nur die Kandidaten, die die Umkreissuche des ResourceService erreicht
+	public List<Resource> findNearestAvailable(GeoPoint at, int k, Instant from, Instant to, Set<Extra> extras) {
+		checkPeriod(from, to);
+		int first = firstSlot(from);
+		int end = endSlot(to);
+		return resourceService.findNearest(at, k, extras, r -> isFree(key(r.getName()), first, end));
+	}
+
+	// Slots in [from, to), in denen alle genannten Resourcen frei sind. Bit i steht für den Slot ab
+	// getSlotStart(from) + i * Slotlänge.
+	public BitSet freeForAll(Collection<String> resourceNames, Instant from, Instant to) {
+		checkPeriod(from, to);
+		int first = firstSlot(from);
+		int end = endSlot(to);
+		long[] occupied = new long[wordCount(first, end)];
+		for (String name : resourceNames) {
+			OccupancyBitmap bitmap = bitmaps.get(key(name));
+			if (bitmap != null)
+				bitmap.orInto(occupied, first >>> 6);
+			orSeries(key(name), occupied, first, end);
+		}
+		return freeSlots(occupied, first, end);
+	}
+
+	// Slots in [from, to), in denen mindestens eine der genannten Resourcen frei ist
+	public BitSet freeForAny(Collection<String> resourceNames, Instant from, Instant to) {
+		checkPeriod(from, to);
+		if (resourceNames.isEmpty())
+			return new BitSet();
+		int first = firstSlot(from);
+		int end = endSlot(to);
+		long[] occupied = new long[wordCount(first, end)];
+		Arrays.fill(occupied, -1L);
+		for (String name : resourceNames) {
+			OccupancyBitmap bitmap = bitmaps.get(key(name));
+			List<RecurringBooking> recurring = series.get(key(name));
+			// nie gebuchte Resource: überall frei
+			if (bitmap == null && (recurring == null || recurring.isEmpty()))
+				return freeSlots(new long[occupied.length], first, end);
+			if (recurring == null || recurring.isEmpty()) {
+				bitmap.andInto(occupied, first >>> 6);
+				continue;
+			}
+			long[] own = new long[occupied.length];
+			if (bitmap != null)
+				bitmap.orInto(own, first >>> 6);
+			orSeries(key(name), own, first, end);
+			for (int i = 0; i < occupied.length; i++)
+				occupied[i] &= own[i];
+		}
+		return freeSlots(occupied, first, end);
+	}
+
+	// Anteil der belegten Resourcen derselben Klasse (ohne Klasse: aller Resourcen) im Slot von t, in Prozent;
+	// Quelle der Auslastung für den PricingService. Kostet einen Zählerzugriff, unabhängig von der Größe der
+	// Flotte und der Zahl der Dauerbuchungen.
+	@Override
+	public int utilizationPercent(Resource resource, Instant t) {
+		ResourceClass cls = resource.getResourceClass();
+		int fleet = cls == null ? resourceService.getResourceCount() : resourceService.getResourceCount(cls);
+		if (fleet <= 0)
+			return 0;
+		int slot = firstSlot(t);
+		int busy = (cls == null ? busyTotal : busyByClass[cls.ordinal() + 1]).get(slot);
+		return (int) (Math.min(busy, fleet) * 100L / fleet);
+	}
+
+	public Instant getSlotStart(Instant t) {
+		return origin.plusMillis(firstSlot(t) * slotMillis);
+	}
+
+	public Duration getSlotLength() {
+		return Duration.ofMillis(slotMillis);
+	}
+
+	private boolean isFree(String key, int first, int end) {
+		OccupancyBitmap bitmap = bitmaps.get(key);
+		if (bitmap != null && !bitmap.isFree(first, end))
+			return false;
+		List<RecurringBooking> recurring = series.get(key);
+		if (recurring == null)
+			return true;
+		Instant from = slotStart(first);
+		Instant to = slotStart(end);
+		for (RecurringBooking rb : recurring)
+			if (rb.getRule().firstOverlap(from, to) >= 0)
+				return false;
+		return true;
+	}
+
+	// Termine der Dauerbuchungen in [first, end) als belegte Slots eintragen; Bit 0 von words = Slot first & ~63
+	private void orSeries(String key, long[] words, int first, int end) {
+		List<RecurringBooking> recurring = series.get(key);
+		if (recurring == null)
+			return;
+		int offset = first & ~63;
+		for (RecurringBooking rb : recurring) {
+			for (var it = rb.getRule().occurrences(slotStart(first), slotStart(end)); it.hasNext();) {
+				int i = it.nextInt();
+				int from = Math.max(first, firstSlot(rb.getRule().pickupOf(i))) - offset;
+				int to = Math.min(end, endSlot(rb.getRule().returnOf(i))) - offset;
+				for (int slot = from; slot < to; slot++)
+					words[slot >>> 6] |= 1L << slot;
+			}
+		}
+	}
+
+	private Instant slotStart(int slot) {
+		return origin.plusMillis(slot * slotMillis);
+	}
+
+	// belegte Wörter invertieren und auf [first, end) zuschneiden, Bit 0 = Slot first
+	private static BitSet freeSlots(long[] occupied, int first, int end) {
+		for (int i = 0; i < occupied.length; i++)
+			occupied[i] = ~occupied[i];
+		int offset = first & ~63;
+		return BitSet.valueOf(occupied).get(first - offset, end - offset);
+	}
+
+	private static int wordCount(int first, int end) {
+		return end <= first ? 0 : ((end - 1) >>> 6) - (first >>> 6) + 1;
+	}
+
+	// Slot, in dem t liegt; Zeitpunkte vor origin zählen zum ersten Slot
+	private int firstSlot(Instant t) {
+		long ms = t.toEpochMilli() - origin.toEpochMilli();
+		return (int) Math.min(Integer.MAX_VALUE - 64, Math.max(0, Math.floorDiv(ms, slotMillis)));
+	}
+
+	// erster Slot hinter t (exklusiv); ein angebrochener Slot zählt mit
+	private int endSlot(Instant t) {
+		long ms = t.toEpochMilli() - origin.toEpochMilli();
+		return (int) Math.min(Integer.MAX_VALUE - 64, Math.max(0, -Math.floorDiv(-ms, slotMillis)));
+	}
+
+	private static void checkPeriod(Instant from, Instant to) {
+		if (from == null || to == null || !from.isBefore(to))
+			throw new IllegalArgumentException("Invalid period: " + from + " - " + to);
+	}
+
+	private static int classIndex(Resource r) {
+		return r.getResourceClass() == null ? 0 : r.getResourceClass().ordinal() + 1;
+	}
+
+	private static String key(String resourceName) {
+		return resourceName == null ? "" : resourceName.toLowerCase(Locale.ROOT);
+	}
+}
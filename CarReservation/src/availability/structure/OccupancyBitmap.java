@@ -0,0 +1,166 @@
+package availability.structure;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.IntConsumer;
+
+// Belegung einer Resource: ein Bit je Zeitslot (gesetzt = belegt), in long-Wörtern zu je 64 Slots.
+// Die Wörter liegen in Seiten zu 4096 Slots, die erst mit der ersten Belegung angelegt und mit der letzten
+// Freigabe wieder entfernt werden: der Speicher wächst mit den belegten Slots, nicht mit dem spätesten.
+// Ein Slot kann von mehreren Buchungen teilweise belegt sein (z.B. 10:00-10:30 und 10:30-11:00 im
+// Stunden-Slot 10:00); solche Mehrfachbelegungen werden in einer kleinen Map gezählt, damit das Bit
+// erst mit der letzten Buchung wieder frei wird.
+// Alle Methoden sind synchronisiert; Abfragen über viele Resourcen sperren jede Bitmap nur kurz.
+public final class OccupancyBitmap {
+
+	private static final int PAGE_SHIFT = 6;
+	private static final int PAGE_WORDS = 1 << PAGE_SHIFT;
+	// Seitennummer (Wort >>> PAGE_SHIFT) -> Wörter der Seite
+	private final Map<Integer, long[]> pages = new HashMap<>();
+	// Slot -> Anzahl Buchungen über 1 hinaus
+	private final Map<Integer, Integer> extraCounts = new HashMap<>();
+
+	// Slots [from, to) belegen
+	public void occupy(int from, int to) {
+		occupy(from, to, null);
+	}
+
+	// wie oben; changed (optional) erfährt jeden Slot, der dadurch von frei zu belegt wechselt
+	public synchronized void occupy(int from, int to, IntConsumer changed) {
+		if (from >= to)
+			return;
+		long[] page = null;
+		for (int w = from >>> 6; w <= (to - 1) >>> 6; w++) {
+			int i = w & (PAGE_WORDS - 1);
+			if (page == null || i == 0)
+				page = pages.computeIfAbsent(w >>> PAGE_SHIFT, k -> new long[PAGE_WORDS]);
+			long mask = mask(w, from, to);
+			// schon belegte Slots zählen, alle übrigen nur per Bit
+			long taken = page[i] & mask;
+			while (taken != 0) {
+				extraCounts.merge((w << 6) + Long.numberOfTrailingZeros(taken), 1, Integer::sum);
+				taken &= taken - 1;
+			}
+			if (changed != null)
+				forEachBit(mask & ~page[i], w, changed);
+			page[i] |= mask;
+		}
+	}
+
+	// Slots [from, to) freigeben
+	public void release(int from, int to) {
+		release(from, to, null);
+	}
+
+	// wie oben; changed (optional) erfährt jeden Slot, der dadurch wieder frei wird
+	public synchronized void release(int from, int to, IntConsumer changed) {
+		if (from >= to)
+			return;
+		int last = (to - 1) >>> 6;
+		for (int w = from >>> 6; w <= last; w++) {
+			long[] page = pages.get(w >>> PAGE_SHIFT);
+			if (page == null) {
+				// ganze Seite frei
+				w |= PAGE_WORDS - 1;
+				continue;
+			}
+			int i = w & (PAGE_WORDS - 1);
+			long mask = mask(w, from, to);
+			if (!extraCounts.isEmpty()) {
+				long bits = page[i] & mask;
+				while (bits != 0) {
+					int slot = (w << 6) + Long.numberOfTrailingZeros(bits);
+					bits &= bits - 1;
+					Integer extra = extraCounts.get(slot);
+					if (extra == null)
+						continue;
+					// Slot bleibt durch eine andere Buchung belegt
+					if (extra == 1)
+						extraCounts.remove(slot);
+					else
+						extraCounts.put(slot, extra - 1);
+					mask &= ~(1L << slot);
+				}
+			}
+			if (changed != null)
+				forEachBit(mask & page[i], w, changed);
+			page[i] &= ~mask;
+			// leere Seite am Seitenende bzw. nach dem letzten Wort entfernen
+			if ((i == PAGE_WORDS - 1 || w == last) && isEmpty(page))
+				pages.remove(w >>> PAGE_SHIFT);
+		}
+	}
+
+	private static boolean isEmpty(long[] page) {
+		for (long word : page)
+			if (word != 0)
+				return false;
+		return true;
+	}
+
+	// true, wenn kein Slot in [from, to) belegt ist; Wort für Wort mit Randmasken
+	public synchronized boolean isFree(int from, int to) {
+		if (from >= to)
+			return true;
+		int last = (to - 1) >>> 6;
+		for (int w = from >>> 6; w <= last; w++) {
+			long[] page = pages.get(w >>> PAGE_SHIFT);
+			if (page == null)
+				w |= PAGE_WORDS - 1;
+			else if ((page[w & (PAGE_WORDS - 1)] & mask(w, from, to)) != 0)
+				return false;
+		}
+		return true;
+	}
+
+	private static void forEachBit(long bits, int w, IntConsumer action) {
+		while (bits != 0) {
+			action.accept((w << 6) + Long.numberOfTrailingZeros(bits));
+			bits &= bits - 1;
+		}
+	}
+
+	// Bits des Wortes w, die in [from, to) liegen
+	private static long mask(int w, int from, int to) {
+		long mask = -1L;
+		if (w == from >>> 6)
+			mask &= -1L << from;
+		if (w == (to - 1) >>> 6)
+			mask &= -1L >>> (63 - ((to - 1) & 63));
+		return mask;
+	}
+
+	// Wörter firstWord .. firstWord + acc.length - 1 in acc hineinodern (Slot belegt bei irgendeiner Resource)
+	public synchronized void orInto(long[] acc, int firstWord) {
+		for (int i = 0; i < acc.length; i++) {
+			int w = firstWord + i;
+			long[] page = pages.get(w >>> PAGE_SHIFT);
+			if (page == null)
+				i += PAGE_WORDS - 1 - (w & (PAGE_WORDS - 1));
+			else
+				acc[i] |= page[w & (PAGE_WORDS - 1)];
+		}
+	}
+
+	// Wörter in acc hineinunden (Slot belegt bei allen Resourcen); fehlende Wörter sind frei
+	public synchronized void andInto(long[] acc, int firstWord) {
+		for (int i = 0; i < acc.length; i++) {
+			int w = firstWord + i;
+			long[] page = pages.get(w >>> PAGE_SHIFT);
+			acc[i] &= page == null ? 0L : page[w & (PAGE_WORDS - 1)];
+		}
+	}
+
+	public synchronized int cardinality() {
+		int n = 0;
+		for (long[] page : pages.values())
+			for (long w : page)
+				n += Long.bitCount(w);
+		return n;
+	}
+
+	// angelegte Seiten, für Tests und Speicherabschätzungen (je Seite 64 Wörter)
+	public synchronized int pageCount() {
+		return pages.size();
+	}
+}
@@ -0,0 +1,40 @@
+package availability.structure;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Zähler je Slot (z.B. belegte Autos einer Fahrzeugklasse); ein Lesezugriff kostet einen Map- und einen
+// Feldzugriff. Die Zähler liegen in Seiten zu 1024 Slots, die erst beim ersten Zählen angelegt und beim
+// letzten Herunterzählen wieder entfernt werden; der Speicher wächst mit den gezählten Slots.
+public final class SlotCounter {
+
+	private static final int PAGE_SHIFT = 10;
+	private static final int PAGE_SIZE = 1 << PAGE_SHIFT;
+
+	// Seitennummer -> Zähler der Seite; Index PAGE_SIZE hält die Summe der Seite
+	private final Map<Integer, int[]> pages = new HashMap<>();
+
+	public synchronized void increment(int slot) {
+		int[] page = pages.computeIfAbsent(slot >>> PAGE_SHIFT, k -> new int[PAGE_SIZE + 1]);
+		page[slot & (PAGE_SIZE - 1)]++;
+		page[PAGE_SIZE]++;
+	}
+
+	public synchronized void decrement(int slot) {
+		int[] page = pages.get(slot >>> PAGE_SHIFT);
+		if (page == null || page[slot & (PAGE_SIZE - 1)] == 0)
+			return;
+		page[slot & (PAGE_SIZE - 1)]--;
+		if (--page[PAGE_SIZE] == 0)
+			pages.remove(slot >>> PAGE_SHIFT);
+	}
+
+	public synchronized int get(int slot) {
+		int[] page = pages.get(slot >>> PAGE_SHIFT);
+		return page == null ? 0 : page[slot & (PAGE_SIZE - 1)];
+	}
+
+	public synchronized int pageCount() {
+		return pages.size();
+	}
+}
@@ -1,5 +1,9 @@
 package booking.behaviour;
 
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
 import java.util.Scanner;
 
 import booking.structure.Booking;
@@ -17,21 +21,29 @@ public class BookingClient {
 	private static final class CreateCommand implements Command {
 		private final BookingService bookingService;
 		private final String language;
-		private final String bookingId;
+		// null: wird beim ersten Ausführen generiert und für Undo/Redo behalten
+		private String bookingId;
 		private final String personName;
 		private final String resourceName;
+		private final Instant pickupTime;
+		private final Instant returnTime;
 
 		public CreateCommand(BookingService bookingService, String language, String bookingId, String personName,
-				String resourceName) {
+				String resourceName, Instant pickupTime, Instant returnTime) {
 			this.bookingService = bookingService;
 			this.language = language;
 			this.bookingId = bookingId;
 			this.personName = personName;
 			this.resourceName = resourceName;
+			this.pickupTime = pickupTime;
+			this.returnTime = returnTime;
 		}
 
 		public void execute() {
-			bookingService.createBooking(language, bookingId, personName, resourceName);
+			if (bookingId == null)
+				bookingId = bookingService.createBooking(language, personName, resourceName, pickupTime, returnTime);
+			else
+				bookingService.createBooking(language, bookingId, personName, resourceName, pickupTime, returnTime);
 		}
 
 		public void undo() {
@@ -46,6 +58,8 @@ public class BookingClient {
 		private String snapLanguage;
 		private String snapPersonName;
 		private String snapResourceName;
+		private Instant snapPickupTime;
+		private Instant snapReturnTime;
 		
 		public DeleteCommand(BookingService bookingService, String bookingId) {
 			this.bookingService = bookingService;
@@ -59,12 +73,15 @@ public class BookingClient {
 			this.snapLanguage = b.header().startsWith("Booking") ? "EN" : "DE";
 			this.snapPersonName = b.getPerson().getName();
 			this.snapResourceName = b.getResource().getName();
+			this.snapPickupTime = b.getPickupTime();
+			this.snapReturnTime = b.getReturnTime();
 			
 			bookingService.deleteBooking(bookingId);
 		}
 
 		public void undo() {
-			bookingService.createBooking(snapLanguage, bookingId, snapPersonName, snapResourceName);
+			bookingService.createBooking(snapLanguage, bookingId, snapPersonName, snapResourceName, snapPickupTime,
+					snapReturnTime);
 		}
 	}
 
@@ -181,8 +198,10 @@ public class BookingClient {
 		// Map auf "EN" oder "DE"
 		String langCode = language.toLowerCase().startsWith("e") ? "EN" : "DE";
 
-		System.out.println("Enter booking ID: ");
-		String bookingId = scanner.nextLine();
+		System.out.println("Enter booking ID (empty to generate one): ");
+		String bookingId = scanner.nextLine().trim();
+		if (bookingId.isEmpty())
+			bookingId = null;
 
 		System.out.println("Enter person name: ");
 		String personName = scanner.nextLine();
@@ -190,7 +209,27 @@ public class BookingClient {
 		System.out.println("Enter car name: ");
 		String resourceName = scanner.nextLine();
 
-		history.execute(new CreateCommand(bookingSrvce, langCode, bookingId, personName, resourceName));
+		System.out.println("Enter pickup time (yyyy-MM-ddTHH:mm, empty for none): ");
+		Instant pickupTime = readTime();
+		Instant returnTime = null;
+		if (pickupTime != null) {
+			System.out.println("Enter return time (yyyy-MM-ddTHH:mm): ");
+			returnTime = readTime();
+		}
+
+		history.execute(new CreateCommand(bookingSrvce, langCode, bookingId, personName, resourceName, pickupTime,
+				returnTime));
+	}
+
+	private Instant readTime() {
+		String line = scanner.nextLine().trim();
+		if (line.isEmpty())
+			return null;
+		try {
+			return LocalDateTime.parse(line).atZone(ZoneId.systemDefault()).toInstant();
+		} catch (DateTimeParseException e) {
+			throw new IllegalArgumentException("Invalid date/time: " + line);
+		}
 	}
 
 	private void deleteBooking() {
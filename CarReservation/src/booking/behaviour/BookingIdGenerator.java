@@ -0,0 +1,112 @@
+package booking.behaviour;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+// Erzeugt Buchungs-IDs im Snowflake-Schema: 41 Bit Millisekunden seit EPOCH, 10 Bit Knoten, 12 Bit Folgenummer.
+// Ohne Lock (CAS auf dem letzten Zeitstempel/Folgenummer-Paar), streng monoton je Knoten, auch wenn die
+// Uhr zurückspringt oder mehr als 4096 IDs pro Millisekunde angefordert werden: dann wird auf die nächste
+// Millisekunde vorgegriffen statt zu warten.
+// Die ID wird als 19-stellige Dezimalzahl mit führenden Nullen dargestellt, damit die Zeichenketten
+// genauso sortieren wie die Zahlen.
+public final class BookingIdGenerator {
+
+	// 2024-01-01T00:00:00Z, reicht mit 41 Bit bis ins Jahr 2093
+	public static final long EPOCH = 1704067200000L;
+	public static final int NODE_BITS = 10;
+	public static final int SEQUENCE_BITS = 12;
+	public static final int MAX_NODE = (1 << NODE_BITS) - 1;
+	private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+	private static final int ID_LENGTH = 19;
+
+	private final int node;
+	private final LongSupplier clock;
+	// zuletzt vergebenes Paar (Millisekunden seit EPOCH << SEQUENCE_BITS | Folgenummer)
+	private final AtomicLong last = new AtomicLong();
+
+	public BookingIdGenerator(int node) {
+		this(node, System::currentTimeMillis);
+	}
+
+	public BookingIdGenerator(int node, LongSupplier clock) {
+		if (node < 0 || node > MAX_NODE)
+			throw new IllegalArgumentException("Node must be between 0 and " + MAX_NODE + ": " + node);
+		this.node = node;
+		this.clock = clock;
+	}
+
+	public long nextLong() {
+		while (true) {
+			long prev = last.get();
+			long now = clock.getAsLong() - EPOCH;
+			long next;
+			if (now > (prev >>> SEQUENCE_BITS))
+				next = now << SEQUENCE_BITS;
+			else
+				// gleiche Millisekunde oder Uhr zurückgesprungen: Folgenummer erhöhen, ein Überlauf
+				// zählt automatisch in die Millisekunde hinein
+				next = prev + 1;
+			if (last.compareAndSet(prev, next)) {
+				long millis = next >>> SEQUENCE_BITS;
+				return (millis << (NODE_BITS + SEQUENCE_BITS)) | ((long) node << SEQUENCE_BITS) | (next & SEQUENCE_MASK);
+			}
+		}
+	}
+
+	// nach einem Neustart: alle weiteren IDs liegen über id, falls id von diesem Knoten stammt. Sonst könnte
+	// eine Uhr, die hinter vorgegriffene Millisekunden oder zurückgesprungen ist, vergebene IDs wiederholen.
+	public void advanceTo(long id) {
+		if (id < 0 || ((id >>> SEQUENCE_BITS) & MAX_NODE) != node)
+			return;
+		long pair = ((id >>> (NODE_BITS + SEQUENCE_BITS)) << SEQUENCE_BITS) | (id & SEQUENCE_MASK);
+		long prev;
+		while ((prev = last.get()) < pair && !last.compareAndSet(prev, pair))
+			;
+	}
+
+	public String nextId() {
+		return format(nextLong());
+	}
+
+	public int getNode() {
+		return node;
+	}
+
+	public static String format(long id) {
+		String digits = Long.toString(id);
+		if (digits.length() >= ID_LENGTH)
+			return digits;
+		StringBuilder sb = new StringBuilder(ID_LENGTH);
+		for (int i = digits.length(); i < ID_LENGTH; i++)
+			sb.append('0');
+		return sb.append(digits).toString();
+	}
+
+	// Zahlenwert einer generierten ID, -1 wenn die Zeichenkette nicht diese Form hat. Ob die ID wirklich
+	// generiert wurde, lässt sich daran nicht erkennen: auch eine importierte ID kann 19 Ziffern haben.
+	public static long parse(String id) {
+		if (id == null || id.length() != ID_LENGTH)
+			return -1;
+		long value = 0;
+		for (int i = 0; i < ID_LENGTH; i++) {
+			char c = id.charAt(i);
+			if (c < '0' || c > '9')
+				return -1;
+			value = value * 10 + (c - '0');
+			if (value < 0)
+				return -1;
+		}
+		return value;
+	}
+
+	public static Instant timestampOf(long id) {
+		return Instant.ofEpochMilli((id >>> (NODE_BITS + SEQUENCE_BITS)) + EPOCH);
+	}
+
+	// kleinste ID, die zum Zeitpunkt t erzeugt worden sein kann (für Bereichsabfragen)
+	public static long lowestIdAt(Instant t) {
+		long millis = Math.min(Math.max(0, t.toEpochMilli() - EPOCH), (1L << 41) - 1);
+		return millis << (NODE_BITS + SEQUENCE_BITS);
+	}
+}
@@ -0,0 +1,539 @@
+package booking.behaviour;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+import java.util.zip.CRC32;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import booking.structure.Booking;
+import booking.structure.EnglishBooking;
+import booking.structure.Lang;
+import booking.structure.RecurrenceRule;
+import booking.structure.RecurringBooking;
+import person.structure.LegalPerson;
+
+// Append-only Write-Ahead-Log für Anlegen und Löschen von Buchungen, aufgeteilt in Segmente
+// (bookings-<n>.wal) in einem Verzeichnis, plus komprimierte Snapshots (bookings-<n>.snap).
+// Snapshot n enthält den Bestand beim Wechsel auf Segment n; ältere Segmente und Snapshots werden
+// danach gelöscht. Beim Start wird der neueste Snapshot geladen und nur der Rest ab Segment n abgespielt.
+//
+// Satzformat (big endian):
+//   int  Länge der Nutzdaten
+//   int  CRC32 der Nutzdaten
+//   byte Typ (CREATE / DELETE / END / SERIES)
+//   CREATE: id, lang, personTyp, personName, resourceName, price, pickup, return, Resourcenpreis
+//           (im lang-Byte steht Bit 1 für "ID von BookingIdGenerator vergeben")
+//   DELETE: id (Einzel- oder Dauerbuchung)
+//   SERIES: id, lang, personTyp, personName, resourceName, price, Zeitzone, erste Abholung (Ortszeit),
+//           long Dauer in ms, int Intervall in Tagen, long Enddatum (Epoch-Tag), Resourcenpreis
+// Resourcenpreis: double, Resource.getPrice() ohne Preisregeln; fehlt in älteren Sätzen und wird dann als
+// NaN gemeldet.
+// Strings: unsigned short Länge + UTF-8, Zeitpunkte: long Sekunden + int Nanos (Long.MIN_VALUE = keiner),
+// Ortszeiten wie Zeitpunkte, aber als UTC gelesen.
+// Ein unvollständiger oder beschädigter Satz am Ende des letzten Segments (Absturz während des Schreibens)
+// wird beim Replay abgeschnitten. Snapshots enden mit einem END-Satz, ohne ihn gelten sie als unvollständig.
+public final class BookingLog implements Closeable {
+
+	// Empfänger beim Wiedereinspielen; bekommt die Felder direkt, ohne Objekt-Deserialisierung
+	public interface ReplayHandler {
+		void created(String bookingId, boolean generatedId, Lang lang, boolean legalPerson, String personName,
+				String resourceName, double resourcePrice, double price, Instant pickupTime, Instant returnTime);
+
+		void recurringCreated(String bookingId, Lang lang, boolean legalPerson, String personName,
+				String resourceName, double resourcePrice, double price, RecurrenceRule rule);
+
+		void deleted(String bookingId);
+	}
+
+	private static final byte CREATE = 1;
+	private static final byte DELETE = 2;
+	private static final byte END = 3;
+	private static final byte SERIES = 4;
+	// Ergebnis von Decoder.dispatch
+	private static final int RECORD = 0;
+	private static final int INVALID = -1;
+
+	private static final int HEADER = 8;
+	private static final int MAX_RECORD = 1 << 20;
+	// Größe eines gemappten Fensters beim Replay
+	private static final long MAP_WINDOW = 256L << 20;
+	private static final int IO_BUFFER = 1 << 16;
+	private static final String PREFIX = "bookings-";
+	private static final String SEGMENT_SUFFIX = ".wal";
+	private static final String SNAPSHOT_SUFFIX = ".snap";
+
+	private final Path dir;
+	private final int syncEvery;
+	private final Encoder encoder = new Encoder();
+	private FileChannel channel;
+	private long segment;
+	private int unsynced = 0;
+	// Schreibposition ist erst nach dem ersten Durchlauf über die Dateien bekannt
+	private boolean replayed = false;
+
+	private BookingLog(Path dir, int syncEvery) {
+		this.dir = dir;
+		this.syncEvery = syncEvery;
+	}
+
+	// syncEvery: nach so vielen Sätzen wird force() aufgerufen; 1 = jeder Satz, 0 = nur bei sync()/close()
+	public static BookingLog open(Path dir, int syncEvery) throws IOException {
+		if (syncEvery < 0)
+			throw new IllegalArgumentException("syncEvery must not be negative");
+		Files.createDirectories(dir);
+		return new BookingLog(dir, syncEvery);
+	}
+
+	public Path getDirectory() {
+		return dir;
+	}
+
+	// Nummer des Segments, in das gerade geschrieben wird
+	public synchronized long getSegment() {
+		return segment;
+	}
+
+	// lädt den neuesten Snapshot, spielt alle Segmente ab dessen Nummer in Schreibreihenfolge ab,
+	// schneidet einen beschädigten Rest am Ende ab und öffnet das letzte Segment zum Anhängen. Nur einmal möglich.
+	public synchronized void replay(ReplayHandler handler) throws IOException {
+		if (replayed)
+			throw new IllegalStateException("Booking log has already been replayed");
+		TreeMap<Long, Path> segments = list(SEGMENT_SUFFIX);
+		TreeMap<Long, Path> snapshots = list(SNAPSHOT_SUFFIX);
+		Decoder decoder = new Decoder();
+		long next = 0;
+		if (!snapshots.isEmpty()) {
+			next = snapshots.lastKey();
+			readSnapshot(snapshots.lastEntry().getValue(), handler, decoder);
+		}
+		long last = next;
+		for (Map.Entry<Long, Path> e : segments.tailMap(next, true).entrySet()) {
+			if (e.getKey() != next)
+				throw new IOException("Booking log segment " + file(next, SEGMENT_SUFFIX) + " is missing");
+			try (FileChannel ch = FileChannel.open(e.getValue(), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+				long valid = scan(ch, handler, decoder);
+				if (valid < ch.size()) {
+					// nur das letzte Segment darf einen abgebrochenen Satz enthalten
+					if (!e.getKey().equals(segments.lastKey()))
+						throw new IOException("Booking log segment " + e.getValue() + " is corrupt");
+					ch.truncate(valid);
+				}
+			}
+			last = next++;
+		}
+		openSegment(last);
+		replayed = true;
+	}
+
+	public synchronized void appendCreate(Booking b, boolean generatedId) throws IOException {
+		write(encoder.create(b, generatedId));
+	}
+
+	public synchronized void appendSeries(RecurringBooking rb) throws IOException {
+		write(encoder.series(rb));
+	}
+
+	public synchronized void appendDelete(String bookingId) throws IOException {
+		write(encoder.delete(bookingId));
+	}
+
+	// beginnt ein neues Segment und liefert dessen Nummer; alles davor kann durch einen Snapshot
+	// mit dieser Nummer ersetzt werden
+	public synchronized long roll() throws IOException {
+		ensureReplayed();
+		sync();
+		channel.close();
+		openSegment(segment + 1);
+		return segment;
+	}
+
+	// schreibt den Bestand komprimiert als Snapshot für Segment 'upTo' (siehe roll()) und löscht danach
+	// alle älteren Segmente und Snapshots. Hält den Log-Monitor nicht, Schreiber laufen weiter.
+	// generatedIds: welche Buchungen eine generierte ID haben (wie bei appendCreate)
+	public void writeSnapshot(long upTo, Iterable<Booking> bookings, Predicate<String> generatedIds,
+			Iterable<RecurringBooking> series) throws IOException {
+		Path target = file(upTo, SNAPSHOT_SUFFIX);
+		Path tmp = dir.resolve(target.getFileName() + ".tmp");
+		Encoder enc = new Encoder();
+		try (OutputStream out = new GZIPOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp), IO_BUFFER),
+				IO_BUFFER)) {
+			for (Booking b : bookings) {
+				ByteBuffer rec = enc.create(b, generatedIds.test(b.getBookingId()));
+				out.write(rec.array(), 0, rec.limit());
+			}
+			for (RecurringBooking rb : series) {
+				ByteBuffer rec = enc.series(rb);
+				out.write(rec.array(), 0, rec.limit());
+			}
+			ByteBuffer end = enc.end();
+			out.write(end.array(), 0, end.limit());
+		}
+		try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+			ch.force(true);
+		}
+		Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+		compact(upTo);
+	}
+
+	public synchronized void sync() throws IOException {
+		if (unsynced > 0 && channel != null) {
+			channel.force(false);
+			unsynced = 0;
+		}
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		if (channel != null && channel.isOpen()) {
+			sync();
+			channel.close();
+		}
+	}
+
+	// ---- Dateien ----
+
+	private Path file(long n, String suffix) {
+		return dir.resolve(String.format("%s%010d%s", PREFIX, n, suffix));
+	}
+
+	private TreeMap<Long, Path> list(String suffix) throws IOException {
+		TreeMap<Long, Path> out = new TreeMap<>();
+		try (DirectoryStream<Path> ds = Files.newDirectoryStream(dir, PREFIX + "*" + suffix)) {
+			for (Path p : ds) {
+				String name = p.getFileName().toString();
+				try {
+					out.put(Long.parseLong(name.substring(PREFIX.length(), name.length() - suffix.length())), p);
+				} catch (NumberFormatException e) {
+					// fremde Datei, ignorieren
+				}
+			}
+		}
+		return out;
+	}
+
+	private void openSegment(long n) throws IOException {
+		FileChannel ch = FileChannel.open(file(n, SEGMENT_SUFFIX), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+		ch.position(ch.size());
+		channel = ch;
+		segment = n;
+	}
+
+	// Segmente und Snapshots, die vollständig im Snapshot 'upTo' enthalten sind, entfernen
+	private void compact(long upTo) throws IOException {
+		for (Path p : list(SEGMENT_SUFFIX).headMap(upTo, false).values())
+			Files.deleteIfExists(p);
+		for (Path p : list(SNAPSHOT_SUFFIX).headMap(upTo, false).values())
+			Files.deleteIfExists(p);
+	}
+
+	private void ensureReplayed() throws IOException {
+		if (replayed)
+			return;
+		replay(new ReplayHandler() {
+			@Override
+			public void created(String bookingId, boolean generatedId, Lang lang, boolean legalPerson,
+					String personName, String resourceName, double resourcePrice, double price, Instant pickupTime,
+					Instant returnTime) {
+			}
+
+			@Override
+			public void recurringCreated(String bookingId, Lang lang, boolean legalPerson, String personName,
+					String resourceName, double resourcePrice, double price, RecurrenceRule rule) {
+			}
+
+			@Override
+			public void deleted(String bookingId) {
+			}
+		});
+	}
+
+	// ---- Schreiben ----
+
+	private void write(ByteBuffer rec) throws IOException {
+		ensureReplayed();
+		while (rec.hasRemaining())
+			channel.write(rec);
+		unsynced++;
+		if (syncEvery > 0 && unsynced >= syncEvery)
+			sync();
+	}
+
+	// baut gerahmte Sätze in einem wiederverwendeten Puffer
+	private static final class Encoder {
+		private final CRC32 crc = new CRC32();
+		private ByteBuffer buf = ByteBuffer.allocate(256);
+
+		ByteBuffer create(Booking b, boolean generatedId) {
+			begin(CREATE);
+			putString(b.getBookingId());
+			ensure(2);
+			buf.put((byte) ((b instanceof EnglishBooking ? 1 : 0) | (generatedId ? 2 : 0)));
+			buf.put((byte) (b.getPerson() instanceof LegalPerson ? 1 : 0));
+			putString(b.getPerson().getName());
+			putString(b.getResource().getName());
+			ensure(8 + 2 * 12 + 8);
+			buf.putDouble(b.getPrice());
+			putInstant(b.getPickupTime());
+			putInstant(b.getReturnTime());
+			buf.putDouble(b.getResource().getPrice());
+			return finish();
+		}
+
+		ByteBuffer series(RecurringBooking rb) {
+			RecurrenceRule rule = rb.getRule();
+			begin(SERIES);
+			putString(rb.getBookingId());
+			ensure(2);
+			buf.put((byte) (rb.getLang() == Lang.EN ? 1 : 0));
+			buf.put((byte) (rb.getPerson() instanceof LegalPerson ? 1 : 0));
+			putString(rb.getPerson().getName());
+			putString(rb.getResource().getName());
+			ensure(8);
+			buf.putDouble(rb.getPrice());
+			putString(rule.getZone().getId());
+			ensure(12 + 8 + 4 + 8 + 8);
+			putInstant(rule.getFirstPickup().toInstant(ZoneOffset.UTC));
+			buf.putLong(rule.getLength().toMillis());
+			buf.putInt(rule.getIntervalDays());
+			buf.putLong(rule.getUntil().toEpochDay());
+			buf.putDouble(rb.getResource().getPrice());
+			return finish();
+		}
+
+		ByteBuffer delete(String bookingId) {
+			begin(DELETE);
+			putString(bookingId);
+			return finish();
+		}
+
+		ByteBuffer end() {
+			begin(END);
+			return finish();
+		}
+
+		private void begin(byte type) {
+			buf.clear();
+			buf.position(HEADER);
+			buf.put(type);
+		}
+
+		private ByteBuffer finish() {
+			int payload = buf.position() - HEADER;
+			crc.reset();
+			crc.update(buf.array(), HEADER, payload);
+			buf.putInt(0, payload);
+			buf.putInt(4, (int) crc.getValue());
+			buf.flip();
+			return buf;
+		}
+
+		private void ensure(int bytes) {
+			if (buf.remaining() >= bytes)
+				return;
+			int needed = buf.position() + bytes;
+			if (needed > MAX_RECORD + HEADER)
+				throw new IllegalArgumentException("Booking log record too large");
+			ByteBuffer bigger = ByteBuffer.allocate(Math.max(buf.capacity() * 2, needed));
+			buf.flip();
+			bigger.put(buf);
+			buf = bigger;
+		}
+
+		private void putString(String s) {
+			byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+			if (bytes.length > 0xFFFF)
+				throw new IllegalArgumentException("String too long for booking log: " + s.length());
+			ensure(2 + bytes.length);
+			buf.putShort((short) bytes.length);
+			buf.put(bytes);
+		}
+
+		private void putInstant(Instant t) {
+			buf.putLong(t == null ? Long.MIN_VALUE : t.getEpochSecond());
+			buf.putInt(t == null ? 0 : t.getNano());
+		}
+	}
+
+	// ---- Lesen ----
+
+	// liest ein Segment über Memory-Mapping; liefert die Position hinter dem letzten gültigen Satz
+	private static long scan(FileChannel ch, ReplayHandler handler, Decoder decoder) throws IOException {
+		long size = ch.size();
+		long pos = 0;
+		CRC32 check = new CRC32();
+		while (pos + HEADER <= size) {
+			long windowLen = Math.min(MAP_WINDOW, size - pos);
+			MappedByteBuffer map = ch.map(FileChannel.MapMode.READ_ONLY, pos, windowLen);
+			int consumed = 0;
+			while (map.remaining() >= HEADER) {
+				int start = map.position();
+				int len = map.getInt();
+				int sum = map.getInt();
+				if (len <= 0 || len > MAX_RECORD)
+					return pos + start;
+				if (map.remaining() < len) {
+					// Satz ragt über das Fenster hinaus oder ist am Dateiende abgeschnitten
+					if (pos + start + HEADER + len > size)
+						return pos + start;
+					map.position(start);
+					break;
+				}
+				check.reset();
+				ByteBuffer payload = map.slice();
+				payload.limit(len);
+				check.update(payload.duplicate());
+				if ((int) check.getValue() != sum)
+					return pos + start;
+				try {
+					if (decoder.dispatch(payload, handler) != RECORD)
+						return pos + start;
+				} catch (BufferUnderflowException e) {
+					return pos + start;
+				}
+				map.position(start + HEADER + len);
+				consumed = map.position();
+			}
+			if (consumed == 0)
+				return pos;
+			pos += consumed;
+		}
+		return pos;
+	}
+
+	// liest einen Snapshot vollständig; ohne END-Satz oder mit falscher Prüfsumme ist er unbrauchbar
+	private static void readSnapshot(Path file, ReplayHandler handler, Decoder decoder) throws IOException {
+		CRC32 check = new CRC32();
+		byte[] record = new byte[256];
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+				new GZIPInputStream(Files.newInputStream(file), IO_BUFFER), IO_BUFFER))) {
+			while (true) {
+				int len = in.readInt();
+				int sum = in.readInt();
+				if (len <= 0 || len > MAX_RECORD)
+					throw new IOException("Booking snapshot " + file + " is corrupt");
+				if (record.length < len)
+					record = new byte[Math.max(len, record.length * 2)];
+				in.readFully(record, 0, len);
+				check.reset();
+				check.update(record, 0, len);
+				if ((int) check.getValue() != sum)
+					throw new IOException("Booking snapshot " + file + " is corrupt");
+				int result = decoder.dispatch(ByteBuffer.wrap(record, 0, len), handler);
+				if (result == END)
+					return;
+				if (result != RECORD)
+					throw new IOException("Booking snapshot " + file + " is corrupt");
+			}
+		} catch (EOFException | BufferUnderflowException e) {
+			throw new IOException("Booking snapshot " + file + " is incomplete", e);
+		}
+	}
+
+	// dekodiert Sätze mit einem wiederverwendeten Puffer für Strings. Personen- und Resourcennamen
+	// wiederholen sich ständig und kommen aus einem kleinen Cache, statt je Satz neu angelegt zu werden.
+	private static final class Decoder {
+		private static final int CACHE_SIZE = 4096;
+		private byte[] scratch = new byte[256];
+		private final byte[][] cachedBytes = new byte[CACHE_SIZE][];
+		private final String[] cachedStrings = new String[CACHE_SIZE];
+
+		// RECORD nach Weitergabe an den Handler, END am Snapshot-Ende, INVALID bei unbekanntem Typ
+		int dispatch(ByteBuffer in, ReplayHandler handler) {
+			byte type = in.get();
+			if (type == END)
+				return END;
+			if (type != CREATE && type != DELETE && type != SERIES)
+				return INVALID;
+			String id = string(in);
+			if (type == DELETE) {
+				handler.deleted(id);
+				return RECORD;
+			}
+			byte flags = in.get();
+			Lang lang = (flags & 1) != 0 ? Lang.EN : Lang.DE;
+			boolean generatedId = (flags & 2) != 0;
+			boolean legal = in.get() == 1;
+			String personName = name(in);
+			String resourceName = name(in);
+			double price = in.getDouble();
+			if (type == SERIES) {
+				ZoneId zone = ZoneId.of(name(in));
+				LocalDateTime first = LocalDateTime.ofInstant(getInstant(in), ZoneOffset.UTC);
+				Duration length = Duration.ofMillis(in.getLong());
+				int interval = in.getInt();
+				LocalDate until = LocalDate.ofEpochDay(in.getLong());
+				handler.recurringCreated(id, lang, legal, personName, resourceName, resourcePrice(in), price,
+						new RecurrenceRule(first.atZone(zone), length, interval, until));
+				return RECORD;
+			}
+			Instant pickup = getInstant(in);
+			Instant ret = getInstant(in);
+			handler.created(id, generatedId, lang, legal, personName, resourceName, resourcePrice(in), price, pickup,
+					ret);
+			return RECORD;
+		}
+
+		// Resourcenpreis am Satzende, NaN bei älteren Sätzen ohne dieses Feld
+		private static double resourcePrice(ByteBuffer in) {
+			return in.remaining() >= 8 ? in.getDouble() : Double.NaN;
+		}
+
+		private String name(ByteBuffer in) {
+			int len = in.getShort() & 0xFFFF;
+			if (scratch.length < len)
+				scratch = new byte[Math.max(len, scratch.length * 2)];
+			in.get(scratch, 0, len);
+			int h = len;
+			for (int i = 0; i < len; i++)
+				h = 31 * h + scratch[i];
+			int slot = (h ^ (h >>> 16)) & (CACHE_SIZE - 1);
+			byte[] cached = cachedBytes[slot];
+			if (cached != null && Arrays.equals(cached, 0, cached.length, scratch, 0, len))
+				return cachedStrings[slot];
+			String s = new String(scratch, 0, len, StandardCharsets.UTF_8);
+			cachedBytes[slot] = Arrays.copyOf(scratch, len);
+			cachedStrings[slot] = s;
+			return s;
+		}
+
+		private String string(ByteBuffer in) {
+			int len = in.getShort() & 0xFFFF;
+			if (scratch.length < len)
+				scratch = new byte[Math.max(len, scratch.length * 2)];
+			in.get(scratch, 0, len);
+			return new String(scratch, 0, len, StandardCharsets.UTF_8);
+		}
+
+		private static Instant getInstant(ByteBuffer in) {
+			long sec = in.getLong();
+			int nano = in.getInt();
+			return sec == Long.MIN_VALUE ? null : Instant.ofEpochSecond(sec, nano);
+		}
+	}
+}
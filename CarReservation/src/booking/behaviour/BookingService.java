@@ -1,61 +1,522 @@
 package booking.behaviour;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.WritableByteChannel;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+
 import booking.structure.Booking;
+import booking.structure.BookingBatchResult;
 import booking.structure.BookingBuilder;
+import booking.structure.BookingIndex;
+import booking.structure.BookingObserver;
+import booking.structure.BookingRequest;
+import booking.structure.EnglishBooking;
 import booking.structure.Lang;
+import booking.structure.RecurrenceRule;
+import booking.structure.RecurringBooking;
+import booking.structure.ResourceSchedule;
 import person.behaviour.PersonService;
+import person.structure.Person;
+import person.structure.PersonFactory;
+import person.structure.PersonReferences;
+import pricing.behaviour.PricingService;
 import resource.behaviour.ResourceService;
+import resource.structure.Resource;
+
+public class BookingService implements PersonReferences {
+	// Eintrag im Speicher; seq ist die Version der Anlage und legt die Einfügereihenfolge fest
+	private static final class Slot {
+		final long seq;
+		final Booking booking;
+		// Zahlenwert der ID, wenn sie von idGenerator vergeben wurde (Schlüssel in byCreation), sonst -1
+		final long created;
+		// Version des Löschens, 0 solange die Buchung besteht
+		volatile long deleted;
 
-public class BookingService {
-	// Speicher, max. 10 Bookings
-	private final Booking[] store = new Booking[10];
-	private int size = 0;
+		Slot(long seq, Booking booking, long created) {
+			this.seq = seq;
+			this.booking = booking;
+			this.created = created;
+		}
+	}
+
+	// Speicher: id -> Slot, Lesen ohne Lock, doppelte IDs werden per putIfAbsent atomar abgewiesen
+	private final ConcurrentHashMap<String, Slot> store = new ConcurrentHashMap<>();
+	// Einfügereihenfolge für listBookings. Gelöschte Slots bleiben als Grabstein stehen, solange ein Leser
+	// mit älterem Stand läuft; Leser sehen genau die Slots mit seq <= Stand, die bis dahin nicht gelöscht waren.
+	private final ConcurrentSkipListMap<Long, Slot> order = new ConcurrentSkipListMap<>();
+	// Versionen für Anlage und Löschen, ohne Lock vergeben. Ein Schreiber nimmt seine Version unter dem
+	// Stripe-Lock seiner ID und meldet sie in publishing[Stripe], bis der Eintrag veröffentlicht ist
+	// (kurz, ohne I/O). Ein Leser wartet nur auf Schreiber mit Version <= seinem Stand; damit entspricht
+	// jeder Stand einem Zustand, den es wirklich gab.
+	private final AtomicLong version = new AtomicLong();
+	private final AtomicLongArray publishing = new AtomicLongArray(64);
+	// Schreiber hat den Stripe, aber noch keine Version
+	private static final long TAKING = Long.MAX_VALUE;
+	// Stand laufender Leser -> Anzahl, nur unter readerLock; Schreiber räumen Grabsteine nur per tryLock
+	private final ReentrantLock readerLock = new ReentrantLock();
+	private final TreeMap<Long, Integer> readers = new TreeMap<>();
+	private final AtomicInteger readerCount = new AtomicInteger();
+	private final ConcurrentLinkedQueue<Slot> tombstones = new ConcurrentLinkedQueue<>();
+	// Belegungspläne je Resource (Name case-insensitive), nur Buchungen mit Zeitraum.
+	// Ein Plan wird unter seinem eigenen Monitor geändert, Schreiber verschiedener Resourcen blockieren sich nicht.
+	private final ConcurrentHashMap<String, ResourceSchedule> schedules = new ConcurrentHashMap<>();
+	// Sekundärindizes für Abfragen nach Person, Resource (Namen case-insensitive) und Sprache
+	private final BookingIndex<String> byPerson = new BookingIndex<>();
+	private final BookingIndex<String> byResource = new BookingIndex<>();
+	private final BookingIndex<Lang> byLanguage = new BookingIndex<>();
+	// Buchungen mit generierter ID, nach ID und damit nach Erstellungszeit sortiert
+	private final ConcurrentSkipListMap<Long, Slot> byCreation = new ConcurrentSkipListMap<>();
+	// Dauerbuchungen, einmal je Regel gespeichert; IDs teilen sich den Namensraum mit dem Speicher
+	private final ConcurrentHashMap<String, RecurringBooking> series = new ConcurrentHashMap<>();
+	// Person (Name case-insensitive) -> IDs ihrer Dauerbuchungen
+	private final ConcurrentHashMap<String, Set<String>> seriesByPerson = new ConcurrentHashMap<>();
+	// Locks je ID-Bereich: Speicheränderung und Log-Satz derselben ID landen in derselben Reihenfolge
+	private final Object[] stripes = new Object[publishing.length()];
+	private volatile PricingService pricing;
+	// wie weit Buchungen höchstens in die Zukunft reichen dürfen, null = unbegrenzt
+	private volatile Duration horizon;
+	// Puffer für den Channel-Export, je Thread einmal angelegt und wiederverwendet
+	private final ThreadLocal<ChannelAppender> exporters = ThreadLocal.withInitial(() -> new ChannelAppender(8192));
 	
 	private final PersonService personService;
 	private final ResourceService resourceService;
+	private final BookingLog log;
+	private final BookingIdGenerator idGenerator;
+	private final List<BookingObserver> observers = new CopyOnWriteArrayList<>();
+	// höchstens ein Snapshot gleichzeitig; Schreiber werden davon nicht blockiert
+	private final Object snapshotLock = new Object();
+	private ScheduledExecutorService snapshotter;
 	
 	public BookingService(PersonService personService, ResourceService resourceService) {
+		this(personService, resourceService, null);
+	}
+	
+	// mit Log: der Bestand wird beim Start aus dem Log wiederhergestellt, danach wird jede Änderung angehängt
+	public BookingService(PersonService personService, ResourceService resourceService, BookingLog log) {
+		this(personService, resourceService, log, new BookingIdGenerator(0));
+	}
+	
+	// idGenerator: bei mehreren Instanzen muss jede einen eigenen Knoten haben
+	public BookingService(PersonService personService, ResourceService resourceService, BookingLog log,
+			BookingIdGenerator idGenerator) {
 		this.personService = personService;
 		this.resourceService = resourceService;
+		this.log = log;
+		this.idGenerator = idGenerator;
+		for (int i = 0; i < stripes.length; i++)
+			stripes[i] = new Object();
+		if (log != null)
+			restore(log);
 	}
 	
 	public void createBooking(String language, String bookingId, String personName, String resourceName) {
+		createBooking(language, bookingId, personName, resourceName, null, null);
+	}
+	
+	public void createBooking(String language, String bookingId, String personName, String resourceName,
+			Instant pickupTime, Instant returnTime) {
+		create(language, bookingId, false, personName, resourceName, pickupTime, returnTime);
+	}
+	
+	// generated: die ID stammt von idGenerator, nur dann wird die Buchung nach Erstellungszeit indiziert
+	private void create(String language, String bookingId, boolean generated, String personName,
+			String resourceName, Instant pickupTime, Instant returnTime) {
 		var person = personService.findPersonByName(personName);
 		var resource = resourceService.getSelectedResource(resourceName);
 		
+		Booking booking = buildBooking(language, bookingId, person, resource, pickupTime, returnTime);
+		save(booking, generated);
+		
+		System.out.println("Booking created with ID: " + bookingId);
+	}
+	
+	// Anlage mit generierter ID (zeitlich sortiert, eindeutig auch über Threads); gibt die ID zurück
+	public String createBooking(String language, String personName, String resourceName) {
+		return createBooking(language, personName, resourceName, null, null);
+	}
+	
+	public String createBooking(String language, String personName, String resourceName, Instant pickupTime,
+			Instant returnTime) {
+		String bookingId = idGenerator.nextId();
+		create(language, bookingId, true, personName, resourceName, pickupTime, returnTime);
+		return bookingId;
+	}
+	
+	// Batch-Anlage: Personen und Resourcen werden einmal für den ganzen Batch aufgelöst,
+	// fehlerhafte Zeilen werden im Bericht vermerkt statt eine Exception zu werfen
+	public BookingBatchResult createBookings(Collection<BookingRequest> requests) {
+		BookingBatchResult result = new BookingBatchResult();
+		if (requests == null || requests.isEmpty())
+			return result;
+		
+		List<String> personNames = new ArrayList<>(requests.size());
+		List<String> resourceNames = new ArrayList<>(requests.size());
+		for (BookingRequest r : requests) {
+			if (r == null)
+				continue;
+			personNames.add(r.getPersonName());
+			resourceNames.add(r.getResourceName());
+		}
+		Map<String, Person> persons = personService.findPersonsByName(personNames);
+		Map<String, Resource> resources = resourceService.getSelectedResources(resourceNames);
+		
+		Set<String> batchIds = new HashSet<>();
+		int index = 0;
+		for (BookingRequest r : requests) {
+			int i = index++;
+			if (r == null) {
+				result.rejected(i, null, "Request is null");
+				continue;
+			}
+			Person person = r.getPersonName() == null ? null : persons.get(r.getPersonName().toLowerCase(Locale.ROOT));
+			if (person == null) {
+				result.rejected(i, r, "Person not found: " + r.getPersonName());
+				continue;
+			}
+			Resource resource = r.getResourceName() == null ? null
+					: resources.get(r.getResourceName().toLowerCase(Locale.ROOT));
+			if (resource == null) {
+				result.rejected(i, r, "Resource not found: " + r.getResourceName());
+				continue;
+			}
+			if (r.getBookingId() != null && !batchIds.add(r.getBookingId())) {
+				result.rejected(i, r, "Booking id " + r.getBookingId() + " is used twice in this batch");
+				continue;
+			}
+			// Zeilen ohne ID bekommen eine generierte
+			boolean generated = r.getBookingId() == null;
+			String bookingId = generated ? idGenerator.nextId() : r.getBookingId();
+			try {
+				Booking booking = buildBooking(r.getLanguage(), bookingId, person, resource, r.getPickupTime(),
+						r.getReturnTime());
+				save(booking, generated);
+				result.accepted(i, r, booking);
+			} catch (IllegalArgumentException | IllegalStateException e) {
+				result.rejected(i, r, e.getMessage());
+			}
+		}
+		System.out.println("Batch processed: " + result);
+		return result;
+	}
+	
+	// Preise nach den Regeln des PricingService; ohne ihn gilt der Grundpreis der Resource
+	public void setPricing(PricingService pricing) {
+		this.pricing = pricing;
+	}
+	
+	// Rückgabe bzw. letzter Termin einer Dauerbuchung höchstens 'horizon' ab jetzt; begrenzt auch den Speicher
+	// der Belegungsindizes, die je Slot bis zur spätesten Buchung reichen. Wiederhergestellte Buchungen
+	// werden nicht geprüft.
+	public void setHorizon(Duration horizon) {
+		if (horizon != null && (horizon.isNegative() || horizon.isZero()))
+			throw new IllegalArgumentException("Invalid booking horizon: " + horizon);
+		this.horizon = horizon;
+	}
+	
+	private void checkHorizon(Instant end) {
+		Duration h = horizon;
+		if (h != null && end != null && end.isAfter(Instant.now().plus(h)))
+			throw new IllegalArgumentException("Return time " + end + " is beyond the booking horizon of "
+					+ h.toDays() + " days");
+	}
+	
+	private Booking buildBooking(String language, String bookingId, Person person, Resource resource,
+			Instant pickupTime, Instant returnTime) {
+		checkHorizon(returnTime);
 		var lang = "EN".equalsIgnoreCase(language) ? Lang.EN : Lang.DE;
-		double price = resource.getPrice();
+		PricingService p = pricing;
+		double price = p == null ? resource.getPrice() : p.price(resource, pickupTime);
 		
 		BookingBuilder builder = new BookingBuilder()
 				.id(bookingId)
 				.person(person)
 				.resource(resource)
 				.price(price)
-				.lang(lang);
-		
-		Booking booking = builder.build();
-		// speichern des Bookings
-		if (findIndexById(booking.getBookingId()) >= 0)
-			throw new IllegalArgumentException("Booking with id " + booking.getBookingId() + " already exists");
-		if (size >= store.length)
-			throw new IllegalStateException("Booking store is full");
-		store[size++] = booking;
-		
-		System.out.println("Booking created with ID: " + bookingId);
+				.lang(lang)
+				.pickupTime(pickupTime)
+				.returnTime(returnTime);
+		return builder.build();
+	}
+	
+	// speichern und protokollieren; schlägt das Schreiben ins Log fehl, wird die Buchung zurückgenommen
+	private void save(Booking booking, boolean generated) {
+		String id = booking.getBookingId();
+		synchronized (stripe(id)) {
+			insert(booking, generated);
+			if (log != null) {
+				try {
+					log.appendCreate(booking, generated);
+				} catch (IOException e) {
+					remove(id);
+					throw new UncheckedIOException("Booking " + id + " could not be written to the log", e);
+				}
+			}
+			notifyCreated(booking);
+		}
+	}
+	
+	// speichern des Bookings inkl. Prüfung auf doppelte ID und Überschneidungen
+	private void insert(Booking booking, boolean generated) {
+		String id = booking.getBookingId();
+		if (store.containsKey(id) || series.containsKey(id))
+			throw new IllegalArgumentException("Booking with id " + id + " already exists");
+		// Überschneidung mit anderen Buchungen derselben Resource prüfen
+		if (booking.hasPeriod()) {
+			Resource resource = booking.getResource();
+			ResourceSchedule schedule = schedules.computeIfAbsent(resourceKey(resource.getName()),
+					k -> new ResourceSchedule());
+			synchronized (schedule) {
+				Booking conflict = schedule.findConflict(booking.getPickupTime(), booking.getReturnTime());
+				if (conflict != null)
+					throw new IllegalArgumentException("Resource " + resource.getName() + " is already booked from "
+							+ conflict.getPickupTime() + " to " + conflict.getReturnTime());
+				schedule.add(booking);
+			}
+		}
+		// atomar in den Speicher und mit neuer Version in die Reihenfolge; verliert der Thread das Rennen
+		// um die ID, wird der Plan zurückgenommen
+		int stripe = stripeIndex(id);
+		Slot slot = new Slot(takeVersion(stripe), booking, generated ? BookingIdGenerator.parse(id) : -1);
+		try {
+			if (store.putIfAbsent(id, slot) != null)
+				slot = null;
+			else
+				order.put(slot.seq, slot);
+		} finally {
+			publishing.set(stripe, 0);
+		}
+		if (slot == null) {
+			unschedule(booking);
+			throw new IllegalArgumentException("Booking with id " + id + " already exists");
+		}
+		index(slot);
+		// erst nach dem Eintragen in den Personen-Index prüfen: PersonService setzt den Grabstein vor dem Zählen
+		if (isDeleted(booking.getPerson())) {
+			remove(id);
+			throw new IllegalStateException("Person " + booking.getPerson().getName() + " has been deleted");
+		}
 	}
 	
 	public void deleteBooking(String bookingId) {
-		int idx = findIndexById(bookingId);
-		if (idx < 0)
-			throw new IllegalArgumentException("Booking with id " + bookingId + " not found");
 		// löschen des Bookings
-		for (int i = idx; i < size - 1; i++)
-			store[i] = store[i + 1];
-		size--;
-		store[size] = null;
+		if (bookingId == null || delete(bookingId) == null)
+			throw new IllegalArgumentException("Booking with id " + bookingId + " not found");
 		System.out.println("Booking with ID: " + bookingId + " has been removed.");
 	}
 	
+	// mehrere Buchungen löschen (z.B. abgelaufene Reservierungen); nicht (mehr) vorhandene IDs werden
+	// übersprungen. Gibt die Anzahl der gelöschten Buchungen zurück.
+	public int deleteBookings(Collection<String> bookingIds) {
+		int removed = 0;
+		for (String id : bookingIds)
+			if (id != null && delete(id) != null)
+				removed++;
+		System.out.println("Bookings removed: " + removed);
+		return removed;
+	}
+	
+	// löschen und protokollieren; schlägt das Schreiben ins Log fehl, wird die Buchung wiederhergestellt
+	private Slot delete(String bookingId) {
+		synchronized (stripe(bookingId)) {
+			Slot removed = remove(bookingId);
+			if (removed == null)
+				return null;
+			if (log != null) {
+				try {
+					log.appendDelete(bookingId);
+				} catch (IOException e) {
+					insert(removed.booking, removed.created >= 0);
+					throw new UncheckedIOException("Deletion of booking " + bookingId + " could not be written to the log", e);
+				}
+			}
+			notifyDeleted(removed.booking);
+			return removed;
+		}
+	}
+	
+	private Slot remove(String bookingId) {
+		Slot removed = store.remove(bookingId);
+		if (removed != null) {
+			retire(removed);
+			unindex(removed);
+			unschedule(removed.booking);
+		}
+		return removed;
+	}
+	
+	// Dauerbuchung anlegen: die Termine werden nicht einzeln gespeichert, sondern bei Konfliktprüfungen
+	// und Abfragen aus der Regel berechnet. Geprüft wird gegen alle Buchungen und Dauerbuchungen der Resource.
+	public void createRecurringBooking(String language, String bookingId, String personName, String resourceName,
+			RecurrenceRule rule) {
+		if (bookingId == null)
+			throw new IllegalStateException("Booking must have an id");
+		var person = personService.findPersonByName(personName);
+		var resource = resourceService.getSelectedResource(resourceName);
+		var lang = "EN".equalsIgnoreCase(language) ? Lang.EN : Lang.DE;
+		checkHorizon(rule == null ? null : rule.getEnd());
+		// fester Preis je Termin, ohne dynamische Zu- und Abschläge
+		RecurringBooking rb = new RecurringBooking(bookingId, person, resource, resource.getPrice(), lang, rule);
+		
+		synchronized (stripe(bookingId)) {
+			if (store.containsKey(bookingId) || series.containsKey(bookingId))
+				throw new IllegalArgumentException("Booking with id " + bookingId + " already exists");
+			ResourceSchedule schedule = schedules.computeIfAbsent(resourceKey(resource.getName()),
+					k -> new ResourceSchedule());
+			synchronized (schedule) {
+				schedule.addSeries(rb);
+			}
+			series.put(bookingId, rb);
+			indexSeries(rb);
+			if (isDeleted(person)) {
+				removeSeries(bookingId);
+				throw new IllegalStateException("Person " + person.getName() + " has been deleted");
+			}
+			if (log != null) {
+				try {
+					log.appendSeries(rb);
+				} catch (IOException e) {
+					removeSeries(bookingId);
+					throw new UncheckedIOException("Booking " + bookingId + " could not be written to the log", e);
+				}
+			}
+			notifySeriesCreated(rb);
+		}
+		
+		System.out.println("Recurring booking created with ID: " + bookingId + " (" + rule.count() + " occurrences)");
+	}
+	
+	public String createRecurringBooking(String language, String personName, String resourceName,
+			RecurrenceRule rule) {
+		String bookingId = idGenerator.nextId();
+		createRecurringBooking(language, bookingId, personName, resourceName, rule);
+		return bookingId;
+	}
+	
+	// Dauerbuchung mit allen (auch vergangenen) Terminen löschen
+	public void deleteRecurringBooking(String bookingId) {
+		if (bookingId == null)
+			throw new IllegalArgumentException("Recurring booking with id null not found");
+		synchronized (stripe(bookingId)) {
+			RecurringBooking removed = removeSeries(bookingId);
+			if (removed == null)
+				throw new IllegalArgumentException("Recurring booking with id " + bookingId + " not found");
+			if (log != null) {
+				try {
+					log.appendDelete(bookingId);
+				} catch (IOException e) {
+					series.put(bookingId, removed);
+					indexSeries(removed);
+					ResourceSchedule schedule = schedules.get(resourceKey(removed.getResource().getName()));
+					synchronized (schedule) {
+						schedule.addSeriesTrusted(removed);
+					}
+					throw new UncheckedIOException("Deletion of booking " + bookingId + " could not be written to the log", e);
+				}
+			}
+			notifySeriesDeleted(removed);
+		}
+		System.out.println("Recurring booking with ID: " + bookingId + " has been removed.");
+	}
+	
+	private RecurringBooking removeSeries(String bookingId) {
+		RecurringBooking removed = series.remove(bookingId);
+		if (removed != null) {
+			unindexSeries(removed);
+			ResourceSchedule schedule = schedules.get(resourceKey(removed.getResource().getName()));
+			if (schedule != null) {
+				synchronized (schedule) {
+					schedule.removeSeries(removed);
+				}
+			}
+		}
+		return removed;
+	}
+	
+	private void indexSeries(RecurringBooking rb) {
+		seriesByPerson.computeIfAbsent(personKey(rb.getPerson().getName()), k -> ConcurrentHashMap.newKeySet())
+				.add(rb.getBookingId());
+	}
+	
+	private void unindexSeries(RecurringBooking rb) {
+		seriesByPerson.computeIfPresent(personKey(rb.getPerson().getName()), (k, ids) -> {
+			ids.remove(rb.getBookingId());
+			return ids.isEmpty() ? null : ids;
+		});
+	}
+	
+	public RecurringBooking getRecurringBooking(String bookingId) {
+		return bookingId != null ? series.get(bookingId) : null;
+	}
+	
+	public List<RecurringBooking> getRecurringBookings() {
+		return new ArrayList<>(series.values());
+	}
+	
+	// Dauerbuchung, zu der ein Termin (ID "<id>#<n>") gehört, sonst null
+	public RecurringBooking getSeriesOf(String occurrenceId) {
+		int sep = occurrenceId == null ? -1 : occurrenceId.lastIndexOf(RecurringBooking.OCCURRENCE_SEPARATOR);
+		if (sep <= 0)
+			return null;
+		RecurringBooking rb = series.get(occurrenceId.substring(0, sep));
+		return rb != null && rb.occurrenceIndex(occurrenceId) >= 0 ? rb : null;
+	}
+	
+	// alle Buchungen und Termine von Dauerbuchungen, die [from, to) überschneiden, nach Abholzeit sortiert.
+	// Termine werden nur für dieses Fenster erzeugt; das Ergebnis passt z.B. in StatisticsService.compute.
+	// Buchungen ohne Zeitraum sind nicht enthalten.
+	public List<Booking> getBookingsBetween(Instant from, Instant to) {
+		if (from == null || to == null || !from.isBefore(to))
+			throw new IllegalArgumentException("Invalid period: " + from + " - " + to);
+		List<Booking> out = new ArrayList<>();
+		for (ResourceSchedule schedule : schedules.values()) {
+			synchronized (schedule) {
+				schedule.forEachOverlapping(from, to, out::add);
+			}
+		}
+		out.sort(Comparator.comparing(Booking::getPickupTime));
+		return out;
+	}
+	
+	// wie oben für eine Resource (Name case-insensitive); liest nur deren Belegungsplan
+	public List<Booking> getBookingsBetween(String resourceName, Instant from, Instant to) {
+		if (from == null || to == null || !from.isBefore(to))
+			throw new IllegalArgumentException("Invalid period: " + from + " - " + to);
+		List<Booking> out = new ArrayList<>();
+		ResourceSchedule schedule = schedules.get(resourceKey(resourceName));
+		if (schedule != null) {
+			synchronized (schedule) {
+				schedule.forEachOverlapping(from, to, out::add);
+			}
+		}
+		out.sort(Comparator.comparing(Booking::getPickupTime));
+		return out;
+	}
+	
 	public String getBookingFooterById(String bookingId) {
 		Booking b = getBookingById(bookingId);
 		return (b != null) ? b.footer() : "Booking with ID: " + bookingId + " not found.";
@@ -67,29 +528,616 @@ public class BookingService {
 	}
 	
 	public void listBookings() {
-		if (size == 0) {
+		if (store.isEmpty()) {
 			System.out.println("No bookings available.");
 			return;
 		}
-		for (int i = 0; i < size; i++) {
-			Booking b = store[i];
-			System.out.println("Booking ID: " + b.getBookingId() + "\n" +
-					"Header: " + b.header() + "\n" +
-					"Body: " + b.body() + "\n" +
-					"Footer: " + b.footer() + "\n");
+		try {
+			exportBookings(System.out, 0, Integer.MAX_VALUE);
+		} catch (IOException e) {
+			// PrintStream wirft keine IOException
+			throw new UncheckedIOException(e);
+		}
+	}
+	
+	// Export in Einfügereihenfolge, seitenweise: ausgegeben werden höchstens limit Buchungen hinter
+	// afterCursor (0 = von vorne). Zurückgegeben wird der Cursor der letzten ausgegebenen Buchung für
+	// die nächste Seite, bzw. afterCursor, wenn keine mehr folgt. Die Buchungen werden direkt in out
+	// geschrieben, ohne sie vorher als Liste oder String zu sammeln.
+	// Jede Seite zeigt den Bestand zu Beginn ihres Aufrufs; zwischen zwei Seiten können sich Buchungen ändern.
+	public long exportBookings(Appendable out, long afterCursor, int limit) throws IOException {
+		if (limit < 0)
+			throw new IllegalArgumentException("Invalid limit: " + limit);
+		long cursor = afterCursor;
+		int written = 0;
+		long mark = openSnapshot();
+		try {
+			if (afterCursor < mark)
+				for (Slot slot : order.subMap(afterCursor, false, mark, true).values()) {
+					if (written >= limit)
+						break;
+					if (!visible(slot, mark))
+						continue;
+					append(out, slot.booking);
+					cursor = slot.seq;
+					written++;
+				}
+		} finally {
+			closeSnapshot(mark);
 		}
+		return cursor;
+	}
+
+	private static void append(Appendable out, Booking b) throws IOException {
+		out.append("Booking ID: ").append(b.getBookingId()).append("\nHeader: ");
+		b.appendHeader(out);
+		out.append("\nBody: ");
+		b.appendBody(out);
+		out.append("\nFooter: ");
+		b.appendFooter(out);
+		out.append("\n\n");
+	}
+	
+	// wie oben, UTF-8-kodiert in einen Channel (z.B. FileChannel); der Channel wird nicht geschlossen
+	public long exportBookings(WritableByteChannel channel, long afterCursor, int limit) throws IOException {
+		ChannelAppender out = exporters.get().start(channel);
+		long cursor = exportBookings(out, afterCursor, limit);
+		out.finish();
+		return cursor;
 	}
 	
 	public Booking getBookingById(String bookingId) {
-		int idx = findIndexById(bookingId);
-		return (idx >= 0) ? store[idx] : null;
+		Slot slot = (bookingId != null) ? store.get(bookingId) : null;
+		return (slot != null) ? slot.booking : null;
 	}
 	
-	private int findIndexById(String id) {
-		for (int i = 0; i < size; i++)
-			if (store[i].getBookingId().equals(id))
-				return i;
-				return -1;
+	// Kopie aller Buchungen in Einfügereihenfolge, ohne Schreiber zu blockieren: genau der Bestand zum
+	// Beginn des Aufrufs, auch wenn währenddessen angelegt und gelöscht wird
+	public List<Booking> getBookings() {
+		List<Booking> out = new ArrayList<>();
+		long mark = openSnapshot();
+		try {
+			for (Slot slot : order.headMap(mark, true).values())
+				if (visible(slot, mark))
+					out.add(slot.booking);
+		} finally {
+			closeSnapshot(mark);
+		}
+		return out;
+	}
+	
+	public int getBookingCount() {
+		return store.size();
+	}
+
+	// Buchungen einer Person (Name case-insensitive) in Einfügereihenfolge
+	public List<Booking> getBookingsByPerson(String personName) {
+		return live(byPerson.get(personKey(personName)));
+	}
+
+	// Buchungen einer Resource (Name case-insensitive) in Einfügereihenfolge
+	public List<Booking> getBookingsByResource(String resourceName) {
+		return live(byResource.get(resourceKey(resourceName)));
+	}
+
+	public List<Booking> getBookingsByLanguage(Lang lang) {
+		if (lang == null)
+			throw new IllegalArgumentException("Language must not be null");
+		return live(byLanguage.get(lang));
+	}
+
+	// Buchungen mit generierter ID, erstellt im Zeitraum [from, to), nach Erstellungszeit sortiert.
+	// Buchungen mit vorgegebener ID (Importe) haben keine Erstellungszeit und sind nicht enthalten.
+	public List<Booking> getBookingsCreatedBetween(Instant from, Instant to) {
+		if (from == null || to == null || from.isAfter(to))
+			throw new IllegalArgumentException("Invalid period: " + from + " - " + to);
+		List<Booking> out = new ArrayList<>();
+		for (Slot slot : byCreation.subMap(BookingIdGenerator.lowestIdAt(from), BookingIdGenerator.lowestIdAt(to))
+				.values())
+			if (store.get(slot.booking.getBookingId()) == slot)
+				out.add(slot.booking);
+		return out;
+	}
+
+	// Treffer herausfiltern, die parallel gelöscht oder zurückgenommen wurden
+	private List<Booking> live(List<Booking> bookings) {
+		bookings.removeIf(b -> getBookingById(b.getBookingId()) != b);
+		return bookings;
+	}
+
+	private void index(Slot slot) {
+		Booking b = slot.booking;
+		byPerson.add(personKey(b.getPerson() == null ? null : b.getPerson().getName()), slot.seq, b);
+		byResource.add(resourceKey(b.getResource() == null ? null : b.getResource().getName()), slot.seq, b);
+		byLanguage.add(langOf(b), slot.seq, b);
+		if (slot.created >= 0)
+			byCreation.put(slot.created, slot);
+	}
+
+	private void unindex(Slot slot) {
+		Booking b = slot.booking;
+		byPerson.remove(personKey(b.getPerson() == null ? null : b.getPerson().getName()), slot.seq);
+		byResource.remove(resourceKey(b.getResource() == null ? null : b.getResource().getName()), slot.seq);
+		byLanguage.remove(langOf(b), slot.seq);
+		if (slot.created >= 0)
+			byCreation.remove(slot.created, slot);
+	}
+
+	// Buchungen und Dauerbuchungen der Person, über die Personen-Indizes (ohne den ganzen Bestand zu lesen).
+	// Der Index ist nach Namen geführt; gezählt wird nur, was dieselbe Person (nicht nur denselben Namen) hat.
+	@Override
+	public int countReferences(Person person) {
+		return bookingIdsOf(person).size() + seriesIdsOf(person).size();
+	}
+	
+	// löscht alle Buchungen und Dauerbuchungen der Person, jeweils protokolliert; gleichnamige andere
+	// Personen behalten ihre Buchungen
+	@Override
+	public int removeReferences(Person person) {
+		int removed = deleteBookings(bookingIdsOf(person));
+		for (String id : seriesIdsOf(person)) {
+			try {
+				deleteRecurringBooking(id);
+				removed++;
+			} catch (IllegalArgumentException e) {
+				// inzwischen anderweitig gelöscht
+			}
+		}
+		return removed;
+	}
+	
+	private List<String> bookingIdsOf(Person person) {
+		List<String> ids = new ArrayList<>();
+		for (Booking b : byPerson.get(personKey(person.getName())))
+			if (person.isSamePerson(b.getPerson()))
+				ids.add(b.getBookingId());
+		return ids;
+	}
+
+	private List<String> seriesIdsOf(Person person) {
+		List<String> ids = new ArrayList<>();
+		Set<String> seriesIds = seriesByPerson.get(personKey(person.getName()));
+		if (seriesIds != null)
+			for (String id : seriesIds) {
+				RecurringBooking rb = series.get(id);
+				if (rb != null && person.isSamePerson(rb.getPerson()))
+					ids.add(id);
+			}
+		return ids;
+	}
+
+	private static boolean isDeleted(Person p) {
+		return p != null && p.isDeleted();
+	}
+
+	private static Lang langOf(Booking b) {
+		return b instanceof EnglishBooking ? Lang.EN : Lang.DE;
+	}
+
+	// true, wenn die Resource im Zeitraum [from, to) nicht gebucht ist
+	public boolean isResourceAvailable(String resourceName, Instant from, Instant to) {
+		return findConflict(resourceName, from, to) == null;
+	}
+
+	// eine Buchung der Resource, die [from, to) überschneidet, oder null
+	public Booking findConflict(String resourceName, Instant from, Instant to) {
+		if (from == null || to == null || !from.isBefore(to))
+			throw new IllegalArgumentException("Invalid period: " + from + " - " + to);
+		ResourceSchedule schedule = schedules.get(resourceKey(resourceName));
+		if (schedule == null)
+			return null;
+		synchronized (schedule) {
+			return schedule.findConflict(from, to);
+		}
+	}
+
+	// neue Version für einen Schreiber, der den Stripe hält; bis publishing[stripe] wieder 0 ist, warten
+	// Leser mit neuerem Stand auf ihn
+	private long takeVersion(int stripe) {
+		publishing.set(stripe, TAKING);
+		long v = version.incrementAndGet();
+		publishing.set(stripe, v);
+		return v;
+	}
+
+	// Löschversion vergeben (Aufrufer hält den Stripe der ID); ohne Leser sofort aus der Reihenfolge,
+	// sonst als Grabstein. Ein Leser, der erst nach der Prüfung beginnt, hat einen Stand >= der Löschversion
+	// und braucht den Slot nicht mehr.
+	private void retire(Slot slot) {
+		int stripe = stripeIndex(slot.booking.getBookingId());
+		slot.deleted = takeVersion(stripe);
+		try {
+			if (readerCount.get() == 0) {
+				order.remove(slot.seq);
+				return;
+			}
+			tombstones.add(slot);
+			// der letzte Leser kann inzwischen fertig sein, ohne den Grabstein gesehen zu haben
+			if (readerCount.get() == 0 && readerLock.tryLock()) {
+				try {
+					purgeTombstones();
+				} finally {
+					readerLock.unlock();
+				}
+			}
+		} finally {
+			publishing.set(stripe, 0);
+		}
+	}
+
+	// Stand für einen Leser festhalten; bis closeSnapshot bleiben die dafür nötigen Grabsteine stehen.
+	// Danach wird auf Schreiber gewartet, die ihre Version schon haben, aber noch nicht veröffentlicht sind.
+	private long openSnapshot() {
+		long mark;
+		readerLock.lock();
+		try {
+			readerCount.incrementAndGet();
+			mark = version.get();
+			readers.merge(mark, 1, Integer::sum);
+		} finally {
+			readerLock.unlock();
+		}
+		for (int i = 0; i < publishing.length(); i++) {
+			long v;
+			while ((v = publishing.get(i)) == TAKING || (v != 0 && v <= mark))
+				Thread.yield();
+		}
+		return mark;
+	}
+
+	private void closeSnapshot(long mark) {
+		readerLock.lock();
+		try {
+			readers.computeIfPresent(mark, (k, n) -> n == 1 ? null : n - 1);
+			readerCount.decrementAndGet();
+			purgeTombstones();
+		} finally {
+			readerLock.unlock();
+		}
+	}
+
+	// ein Grabstein mit Löschversion d wird nur von Lesern mit Stand < d gebraucht; ohne Leser hat jeder
+	// spätere Stand mindestens die aktuelle Version. Nur unter readerLock.
+	private void purgeTombstones() {
+		long oldest = readers.isEmpty() ? version.get() : readers.firstKey();
+		for (var it = tombstones.iterator(); it.hasNext();) {
+			Slot slot = it.next();
+			if (slot.deleted <= oldest) {
+				order.remove(slot.seq, slot);
+				it.remove();
+			}
+		}
+	}
+
+	private static boolean visible(Slot slot, long mark) {
+		long deleted = slot.deleted;
+		return slot.seq <= mark && (deleted == 0 || deleted > mark);
+	}
+
+	private void unschedule(Booking b) {
+		if (!b.hasPeriod() || b.getResource() == null)
+			return;
+		// leere Pläne bleiben stehen, sonst könnte ein paralleles save() in einen entfernten Plan schreiben
+		ResourceSchedule schedule = schedules.get(resourceKey(b.getResource().getName()));
+		if (schedule != null) {
+			synchronized (schedule) {
+				schedule.remove(b);
+			}
+		}
+	}
+
+	// ID von idGenerator vergeben (nicht vorgegeben)? Für das Kennzeichen im Snapshot
+	private boolean isGeneratedId(String bookingId) {
+		Slot slot = store.get(bookingId);
+		return slot != null && slot.created >= 0;
+	}
+
+	// Snapshot des aktuellen Bestands schreiben und das Log bis dorthin verdichten. Es wird zuerst auf ein
+	// neues Segment gewechselt und danach kopiert: jede Änderung, die noch im alten Segment steht, ist damit
+	// sicher im Snapshot enthalten, spätere stehen im neuen Segment und werden beim Start darüber abgespielt.
+	public void snapshot() {
+		if (log == null)
+			throw new IllegalStateException("BookingService has no log");
+		synchronized (snapshotLock) {
+			try {
+				long segment = log.roll();
+				log.writeSnapshot(segment, getBookings(), this::isGeneratedId, getRecurringBookings());
+			} catch (IOException e) {
+				throw new UncheckedIOException("Booking snapshot could not be written", e);
+			}
+		}
+	}
+	
+	// Snapshots periodisch in einem Hintergrund-Thread schreiben
+	public synchronized void startSnapshots(long period, TimeUnit unit) {
+		if (log == null)
+			throw new IllegalStateException("BookingService has no log");
+		if (snapshotter != null)
+			throw new IllegalStateException("Snapshots are already running");
+		snapshotter = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread t = new Thread(r, "booking-snapshot");
+			t.setDaemon(true);
+			t.setPriority(Thread.MIN_PRIORITY);
+			return t;
+		});
+		snapshotter.scheduleWithFixedDelay(() -> {
+			try {
+				snapshot();
+			} catch (RuntimeException e) {
+				System.out.println("Booking snapshot failed: " + e.getMessage());
+			}
+		}, period, period, unit);
+	}
+	
+	// Log schließen (schreibt ausstehende Sätze auf die Platte)
+	public void close() {
+		synchronized (this) {
+			// kein Interrupt: ein laufender Snapshot soll sauber zu Ende geschrieben werden
+			if (snapshotter != null) {
+				snapshotter.shutdown();
+				snapshotter = null;
+			}
+		}
+		if (log == null)
+			return;
+		try {
+			synchronized (snapshotLock) {
+				log.close();
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException("Booking log could not be closed", e);
+		}
+	}
+
+	// Beobachter registrieren; er bekommt sofort alle vorhandenen Buchungen als angelegt gemeldet.
+	// Währenddessen sind alle Schreiber angehalten, damit keine Änderung doppelt oder gar nicht ankommt.
+	public void addObserver(BookingObserver observer) {
+		if (observer == null)
+			throw new IllegalArgumentException("Observer must not be null");
+		withAllStripes(0, () -> {
+			observers.add(observer);
+			for (Booking b : getBookings())
+				observer.bookingCreated(b);
+			for (RecurringBooking rb : series.values())
+				observer.recurringBookingCreated(rb);
+		});
+	}
+
+	public void removeObserver(BookingObserver observer) {
+		observers.remove(observer);
+	}
+
+	// Fehler eines Beobachters machen die bereits gespeicherte Änderung nicht rückgängig
+	private void notifyCreated(Booking booking) {
+		for (BookingObserver o : observers) {
+			try {
+				o.bookingCreated(booking);
+			} catch (RuntimeException e) {
+				System.out.println("Booking observer failed: " + e.getMessage());
+			}
+		}
+	}
+
+	private void notifyDeleted(Booking booking) {
+		for (BookingObserver o : observers) {
+			try {
+				o.bookingDeleted(booking);
+			} catch (RuntimeException e) {
+				System.out.println("Booking observer failed: " + e.getMessage());
+			}
+		}
+	}
+
+	private void notifySeriesCreated(RecurringBooking rb) {
+		for (BookingObserver o : observers) {
+			try {
+				o.recurringBookingCreated(rb);
+			} catch (RuntimeException e) {
+				System.out.println("Booking observer failed: " + e.getMessage());
+			}
+		}
+	}
+
+	private void notifySeriesDeleted(RecurringBooking rb) {
+		for (BookingObserver o : observers) {
+			try {
+				o.recurringBookingDeleted(rb);
+			} catch (RuntimeException e) {
+				System.out.println("Booking observer failed: " + e.getMessage());
+			}
+		}
+	}
+
+	private void withAllStripes(int i, Runnable action) {
+		if (i == stripes.length) {
+			action.run();
+			return;
+		}
+		synchronized (stripes[i]) {
+			withAllStripes(i + 1, action);
+		}
+	}
+
+	private Object stripe(String bookingId) {
+		return stripes[stripeIndex(bookingId)];
+	}
+
+	private int stripeIndex(String bookingId) {
+		return (bookingId.hashCode() & 0x7fffffff) % stripes.length;
+	}
+
+	// ---- Wiederherstellung aus dem Log ----
+
+	// Felder eines CREATE- oder SERIES-Satzes bis zur Auflösung von Person und Resource
+	private static final class LoggedBooking {
+		final boolean generatedId;
+		final Lang lang;
+		final boolean legalPerson;
+		final String personName;
+		final String resourceName;
+		// Grundpreis der Resource beim Schreiben des Satzes, NaN bei älteren Sätzen
+		final double resourcePrice;
+		final double price;
+		final Instant pickupTime;
+		final Instant returnTime;
+		// nur bei Dauerbuchungen
+		final RecurrenceRule rule;
+
+		LoggedBooking(boolean generatedId, Lang lang, boolean legalPerson, String personName, String resourceName,
+				double resourcePrice, double price, Instant pickupTime, Instant returnTime, RecurrenceRule rule) {
+			this.generatedId = generatedId;
+			this.lang = lang;
+			this.legalPerson = legalPerson;
+			this.personName = personName;
+			this.resourceName = resourceName;
+			this.resourcePrice = resourcePrice;
+			this.price = price;
+			this.pickupTime = pickupTime;
+			this.returnTime = returnTime;
+			this.rule = rule;
+		}
+	}
+
+	// Das Log wird zuerst zu den noch lebenden Buchungen verdichtet; erst diese werden aufgebaut und
+	// ohne erneute Protokollierung und Konfliktprüfung eingefügt (das Log enthält nur gültige Zustände).
+	// Personen und Resourcen werden je Name einmal über die Services aufgelöst; fehlende werden dort
+	// registriert (siehe resolvePersons und resolveResources), damit es keine Objekte neben den Services gibt.
+	private void restore(BookingLog log) {
+		Map<String, LoggedBooking> live = new LinkedHashMap<>();
+		// größte vergebene ID, auch von inzwischen gelöschten Buchungen
+		long[] maxId = { -1 };
+		try {
+			log.replay(new BookingLog.ReplayHandler() {
+				@Override
+				public void created(String bookingId, boolean generatedId, Lang lang, boolean legalPerson,
+						String personName, String resourceName, double resourcePrice, double price, Instant pickupTime,
+						Instant returnTime) {
+					live.put(bookingId, new LoggedBooking(generatedId, lang, legalPerson, personName, resourceName,
+							resourcePrice, price, pickupTime, returnTime, null));
+					if (generatedId)
+						maxId[0] = Math.max(maxId[0], BookingIdGenerator.parse(bookingId));
+				}
+
+				@Override
+				public void recurringCreated(String bookingId, Lang lang, boolean legalPerson, String personName,
+						String resourceName, double resourcePrice, double price, RecurrenceRule rule) {
+					live.put(bookingId, new LoggedBooking(false, lang, legalPerson, personName, resourceName,
+							resourcePrice, price, null, null, rule));
+					// bei Dauerbuchungen ist nicht vermerkt, ob die ID generiert wurde
+					maxId[0] = Math.max(maxId[0], BookingIdGenerator.parse(bookingId));
+				}
+
+				@Override
+				public void deleted(String bookingId) {
+					live.remove(bookingId);
+				}
+			});
+		} catch (IOException e) {
+			throw new UncheckedIOException("Booking log could not be replayed", e);
+		}
+		idGenerator.advanceTo(maxId[0]);
+		if (live.isEmpty())
+			return;
+
+		Map<String, LoggedBooking> firstByPerson = new HashMap<>();
+		// der jüngste Satz hat den aktuellsten Grundpreis
+		Map<String, LoggedBooking> lastByResource = new HashMap<>();
+		for (LoggedBooking lb : live.values()) {
+			firstByPerson.putIfAbsent(lb.personName, lb);
+			lastByResource.put(lb.resourceName, lb);
+		}
+		Map<String, Person> persons = resolvePersons(firstByPerson);
+		Map<String, Resource> resources = resolveResources(lastByResource);
+		Map<String, ResourceSchedule> resourceSchedules = new HashMap<>();
+		for (String name : lastByResource.keySet())
+			resourceSchedules.put(name, schedules.computeIfAbsent(resourceKey(name), k -> new ResourceSchedule()));
+
+		for (Map.Entry<String, LoggedBooking> e : live.entrySet()) {
+			LoggedBooking lb = e.getValue();
+			if (lb.rule != null) {
+				RecurringBooking rb = new RecurringBooking(e.getKey(), persons.get(lb.personName),
+						resources.get(lb.resourceName), lb.price, lb.lang, lb.rule);
+				resourceSchedules.get(lb.resourceName).addSeriesTrusted(rb);
+				series.put(rb.getBookingId(), rb);
+				indexSeries(rb);
+				continue;
+			}
+			Booking booking = new BookingBuilder()
+					.id(e.getKey())
+					.person(persons.get(lb.personName))
+					.resource(resources.get(lb.resourceName))
+					.price(lb.price)
+					.lang(lb.lang)
+					.pickupTime(lb.pickupTime)
+					.returnTime(lb.returnTime)
+					.build();
+			if (booking.hasPeriod())
+				resourceSchedules.get(lb.resourceName).addTrusted(booking);
+			Slot slot = new Slot(version.incrementAndGet(), booking, lb.generatedId ? BookingIdGenerator.parse(e.getKey()) : -1);
+			order.put(slot.seq, slot);
+			index(slot);
+			store.put(booking.getBookingId(), slot);
+		}
+	}
+
+	// Personen aus dem Log (Name -> ein Satz) über den PersonService auflösen. Unbekannte (z.B. nach einem
+	// Neustart mit leerem Verzeichnis) werden mit Name und Typ aus dem Log dort angelegt und gemeldet.
+	private Map<String, Person> resolvePersons(Map<String, LoggedBooking> byName) {
+		Map<String, Person> known = personService.findPersonsByName(byName.keySet());
+		List<Person> missing = new ArrayList<>();
+		for (LoggedBooking lb : byName.values())
+			if (!known.containsKey(personKey(lb.personName)))
+				missing.add(PersonFactory.create(lb.legalPerson ? "legal" : "natural", lb.personName));
+		if (!missing.isEmpty()) {
+			personService.addPersons(missing);
+			known = personService.findPersonsByName(byName.keySet());
+			System.out.println("Booking log: " + missing.size() + " unknown persons registered");
+		}
+		Map<String, Person> persons = new HashMap<>();
+		for (String name : byName.keySet()) {
+			Person p = known.get(personKey(name));
+			if (p == null)
+				throw new IllegalStateException("Person from booking log could not be registered: " + name);
+			persons.put(name, p);
+		}
+		return persons;
+	}
+
+	// Resourcen aus dem Log (Name -> jüngster Satz) über den ResourceService auflösen. Unbekannte werden mit
+	// dem im Log vermerkten Grundpreis dort angelegt; der Buchungsbetrag taugt dafür nicht, er enthält
+	// Zuschläge. Fehlt der Grundpreis (ältere Sätze), bricht die Wiederherstellung ab.
+	private Map<String, Resource> resolveResources(Map<String, LoggedBooking> byName) {
+		Map<String, Resource> known = resourceService.getSelectedResources(byName.keySet());
+		List<Resource> missing = new ArrayList<>();
+		for (LoggedBooking lb : byName.values()) {
+			if (known.containsKey(resourceKey(lb.resourceName)))
+				continue;
+			if (Double.isNaN(lb.resourcePrice))
+				throw new IllegalStateException(
+						"Resource " + lb.resourceName + " from booking log is unknown and has no logged base price");
+			missing.add(new Resource(lb.resourceName, lb.resourcePrice));
+		}
+		if (!missing.isEmpty()) {
+			resourceService.addResources(missing);
+			known = resourceService.getSelectedResources(byName.keySet());
+			System.out.println("Booking log: " + missing.size() + " unknown resources registered");
+		}
+		Map<String, Resource> resources = new HashMap<>();
+		for (String name : byName.keySet()) {
+			Resource r = known.get(resourceKey(name));
+			if (r == null)
+				throw new IllegalStateException("Resource from booking log could not be registered: " + name);
+			resources.put(name, r);
+		}
+		return resources;
+	}
+
+	private static String personKey(String personName) {
+		return personName == null ? "" : personName.toLowerCase(Locale.ROOT);
+	}
+
+	private static String resourceKey(String resourceName) {
+		return resourceName == null ? "" : resourceName.toLowerCase(Locale.ROOT);
 	}
 
 }
@@ -0,0 +1,105 @@
+package booking.behaviour;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+
+// Appendable auf einen WritableByteChannel: Zeichen werden in einem festen Puffer gesammelt und
+// blockweise nach UTF-8 kodiert geschrieben. Beide Puffer werden für die ganze Ausgabe und über Ausgaben
+// hinweg wiederverwendet: start() hängt den nächsten Channel an, finish() gibt ihn wieder frei.
+// Nicht threadsicher; je Thread ein eigener ChannelAppender.
+final class ChannelAppender implements Appendable {
+
+	private WritableByteChannel channel;
+	private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+	private final char[] chars;
+	private final CharBuffer charBuffer;
+	private final ByteBuffer bytes;
+
+	ChannelAppender(int bufferSize) {
+		this.chars = new char[bufferSize];
+		this.charBuffer = CharBuffer.wrap(chars);
+		// UTF-8 braucht höchstens 3 Bytes je char
+		this.bytes = ByteBuffer.allocateDirect(bufferSize * 3);
+	}
+
+	// neue Ausgabe; Reste einer abgebrochenen Ausgabe werden verworfen
+	ChannelAppender start(WritableByteChannel channel) {
+		this.channel = channel;
+		charBuffer.clear();
+		bytes.clear();
+		encoder.reset();
+		return this;
+	}
+
+	@Override
+	public Appendable append(CharSequence csq) throws IOException {
+		CharSequence s = csq == null ? "null" : csq;
+		return append(s, 0, s.length());
+	}
+
+	@Override
+	public Appendable append(CharSequence csq, int start, int end) throws IOException {
+		CharSequence s = csq == null ? "null" : csq;
+		while (start < end) {
+			if (!charBuffer.hasRemaining())
+				encode(false);
+			int n = Math.min(end - start, charBuffer.remaining());
+			int pos = charBuffer.position();
+			if (s instanceof String)
+				((String) s).getChars(start, start + n, chars, pos);
+			else
+				for (int i = 0; i < n; i++)
+					chars[pos + i] = s.charAt(start + i);
+			charBuffer.position(pos + n);
+			start += n;
+		}
+		return this;
+	}
+
+	@Override
+	public Appendable append(char c) throws IOException {
+		if (!charBuffer.hasRemaining())
+			encode(false);
+		charBuffer.put(c);
+		return this;
+	}
+
+	// restliche Zeichen kodieren und alles in den Channel schreiben; der Channel bleibt offen
+	void finish() throws IOException {
+		encode(true);
+		while (encoder.flush(bytes).isOverflow())
+			drain();
+		drain();
+		encoder.reset();
+		channel = null;
+	}
+
+	private void encode(boolean endOfInput) throws IOException {
+		charBuffer.flip();
+		while (true) {
+			CoderResult result = encoder.encode(charBuffer, bytes, endOfInput);
+			if (result.isOverflow()) {
+				drain();
+			} else {
+				if (result.isError())
+					result.throwException();
+				break;
+			}
+		}
+		// ein halbes Surrogatpaar bleibt für den nächsten Block stehen
+		charBuffer.compact();
+		drain();
+	}
+
+	private void drain() throws IOException {
+		bytes.flip();
+		while (bytes.hasRemaining())
+			channel.write(bytes);
+		bytes.clear();
+	}
+}
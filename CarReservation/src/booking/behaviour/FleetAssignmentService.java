@@ -0,0 +1,170 @@
+package booking.behaviour;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+
+import booking.structure.Booking;
+import booking.structure.BookingBatchResult;
+import booking.structure.BookingRequest;
+import resource.behaviour.ResourceService;
+import resource.structure.Resource;
+import resource.structure.ResourceClass;
+
+// Verteilt Anfragen auf "irgendein Auto der Klasse" auf konkrete Autos (Intervall-Scheduling):
+// Anfragen werden nach Rückgabezeit sortiert; jede bekommt das Auto, das zuletzt vor ihrer Abholung frei
+// geworden ist (best fit). Die Buchungen liegen so dicht auf wenigen Autos statt verstreut.
+// Bestehende Buchungen der Autos im Zeitraum des Batches werden einmal gelesen und als Sperren eingeplant:
+// sobald eine Anfrage nach dem Beginn einer Sperre endet, ist das Auto erst ab deren Ende wieder frei.
+// Ohne bestehende Buchungen im Zeitraum ist das die größtmögliche Zahl angenommener Anfragen; mit ihnen
+// ist die Verteilung eine Näherung, die nicht immer das Maximum erreicht.
+// Laufzeit O((n + f) log(n + k)) bei n Anfragen, k Autos und f bestehenden Buchungen im Zeitraum.
+public class FleetAssignmentService {
+
+	// bestehende Buchung eines Autos
+	private static final class Block {
+		final Resource car;
+		final Instant from;
+		final Instant to;
+
+		Block(Resource car, Instant from, Instant to) {
+			this.car = car;
+			this.from = from;
+			this.to = to;
+		}
+	}
+
+	private final BookingService bookingService;
+	private final ResourceService resourceService;
+
+	public FleetAssignmentService(BookingService bookingService, ResourceService resourceService) {
+		this.bookingService = bookingService;
+		this.resourceService = resourceService;
+	}
+
+	// Anfragen verteilen und buchen; der Resource-Name der Anfragen wird ignoriert.
+	// Ergebnis wie bei createBookings: ein Eintrag je Anfrage, in Eingabereihenfolge.
+	public BookingBatchResult assign(ResourceClass resourceClass, List<BookingRequest> requests) {
+		if (resourceClass == null)
+			throw new IllegalArgumentException("Resource class must not be null");
+		BookingBatchResult result = new BookingBatchResult();
+		if (requests == null || requests.isEmpty())
+			return result;
+
+		String[] errors = new String[requests.size()];
+		BookingBatchResult.Item[] byIndex = new BookingBatchResult.Item[requests.size()];
+		List<Integer> pending = new ArrayList<>(requests.size());
+		for (int i = 0; i < requests.size(); i++) {
+			BookingRequest r = requests.get(i);
+			if (r == null)
+				errors[i] = "Request is null";
+			else if (r.getPickupTime() == null || r.getReturnTime() == null || !r.getPickupTime().isBefore(r.getReturnTime()))
+				errors[i] = "Request needs a valid pickup and return time";
+			else
+				pending.add(i);
+		}
+
+		List<Resource> cars = resourceService.getResourcesByClass(resourceClass);
+		// Zeilen, die createBookings abweist (z.B. unbekannte Person), geben ihr Auto wieder frei; die Anfragen
+		// ohne Auto werden dann mit dem neuen Bestand noch einmal verteilt
+		while (!pending.isEmpty()) {
+			String[] assigned = distribute(cars, requests, pending);
+			List<BookingRequest> concrete = new ArrayList<>();
+			List<Integer> concreteIndex = new ArrayList<>();
+			List<Integer> unassigned = new ArrayList<>();
+			for (int i : pending) {
+				BookingRequest r = requests.get(i);
+				if (assigned[i] == null) {
+					errors[i] = "No " + resourceClass + " car available from " + r.getPickupTime() + " to " + r.getReturnTime();
+					unassigned.add(i);
+					continue;
+				}
+				concrete.add(new BookingRequest(r.getLanguage(), r.getBookingId(), r.getPersonName(), assigned[i],
+						r.getPickupTime(), r.getReturnTime()));
+				concreteIndex.add(i);
+			}
+			// zugeteilte Anfragen in einem Batch buchen (Personen und Autos werden einmal aufgelöst)
+			BookingBatchResult created = bookingService.createBookings(concrete);
+			for (BookingBatchResult.Item item : created.getItems())
+				byIndex[concreteIndex.get(item.getIndex())] = item;
+			pending = created.getRejectedCount() == 0 ? new ArrayList<>() : unassigned;
+		}
+
+		for (int i = 0; i < requests.size(); i++) {
+			BookingBatchResult.Item item = byIndex[i];
+			if (item == null)
+				result.rejected(i, requests.get(i), errors[i]);
+			else if (item.isAccepted())
+				result.accepted(i, item.getRequest(), item.getBooking());
+			else
+				result.rejected(i, item.getRequest(), item.getError());
+		}
+		System.out.println("Fleet assignment (" + resourceClass + "): " + result);
+		return result;
+	}
+
+	// Autos zuteilen (ohne zu buchen); Ergebnis je Index der Anfrage, null = kein Auto frei
+	private String[] distribute(List<Resource> cars, List<BookingRequest> requests, List<Integer> pending) {
+		String[] assigned = new String[requests.size()];
+		List<Integer> order = new ArrayList<>(pending);
+		order.sort(Comparator.comparing((Integer i) -> requests.get(i).getReturnTime())
+				.thenComparing(i -> requests.get(i).getPickupTime()));
+		Instant from = requests.get(order.get(0)).getPickupTime();
+		Instant to = requests.get(order.get(0)).getReturnTime();
+		for (int i : order) {
+			if (requests.get(i).getPickupTime().isBefore(from))
+				from = requests.get(i).getPickupTime();
+			if (requests.get(i).getReturnTime().isAfter(to))
+				to = requests.get(i).getReturnTime();
+		}
+
+		// Autos nach "frei ab" (Ende ihrer letzten Zuteilung oder Sperre); noch unbenutzte ganz vorne,
+		// die günstigsten zuerst. Ein LinkedHashSet je Zeitpunkt erlaubt das Umhängen in O(1).
+		TreeMap<Instant, LinkedHashSet<Resource>> freeFrom = new TreeMap<>();
+		Map<Resource, Instant> keyOf = new HashMap<>();
+		// Sperren nach Beginn
+		PriorityQueue<Block> blocks = new PriorityQueue<>(Comparator.comparing((Block b) -> b.from));
+		for (Resource car : cars) {
+			freeFrom.computeIfAbsent(Instant.MIN, k -> new LinkedHashSet<>()).add(car);
+			keyOf.put(car, Instant.MIN);
+			for (Booking b : bookingService.getBookingsBetween(car.getName(), from, to))
+				blocks.add(new Block(car, b.getPickupTime(), b.getReturnTime()));
+		}
+
+		for (int i : order) {
+			BookingRequest r = requests.get(i);
+			// Autos, deren Sperre vor dem Ende dieser Anfrage beginnt, sind erst ab dem Ende der Sperre frei
+			while (!blocks.isEmpty() && blocks.peek().from.isBefore(r.getReturnTime())) {
+				Block b = blocks.poll();
+				Instant key = keyOf.get(b.car);
+				if (key.isBefore(b.to))
+					move(freeFrom, keyOf, b.car, b.to);
+			}
+			Map.Entry<Instant, LinkedHashSet<Resource>> e = freeFrom.floorEntry(r.getPickupTime());
+			if (e == null)
+				continue;
+			Iterator<Resource> it = e.getValue().iterator();
+			Resource car = it.next();
+			move(freeFrom, keyOf, car, r.getReturnTime());
+			assigned[i] = car.getName();
+		}
+		return assigned;
+	}
+
+	private static void move(TreeMap<Instant, LinkedHashSet<Resource>> freeFrom, Map<Resource, Instant> keyOf,
+			Resource car, Instant key) {
+		Instant old = keyOf.put(car, key);
+		LinkedHashSet<Resource> cars = freeFrom.get(old);
+		cars.remove(car);
+		if (cars.isEmpty())
+			freeFrom.remove(old);
+		freeFrom.computeIfAbsent(key, k -> new LinkedHashSet<>()).add(car);
+	}
+}
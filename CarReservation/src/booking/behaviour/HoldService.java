@@ -0,0 +1,147 @@
+package booking.behaviour;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import booking.structure.Booking;
+import booking.structure.BookingObserver;
+import booking.structure.TimingWheel;
+
+// Vorläufige Buchungen (Reservierungen): sie belegen ihre Resource wie eine normale Buchung, werden aber
+// automatisch gelöscht, wenn sie nicht innerhalb der TTL bestätigt (bezahlt) werden.
+// Die Fristen liegen in einem Timing Wheel statt einem ScheduledFuture je Buchung; abgelaufene
+// Reservierungen werden gesammelt und in einem Batch aus dem BookingService gelöscht.
+// Reservierungen werden nicht protokolliert: nach einem Neustart gelten offene Reservierungen als normale Buchungen.
+public class HoldService implements BookingObserver {
+
+	private static final int WHEEL_SIZE = 512;
+
+	private final BookingService bookingService;
+	private final long ttlMillis;
+	private final long tickMillis;
+	private final LongSupplier clock;
+	private final TimingWheel<String> wheel;
+	// ID -> Frist im Wheel; entscheidet, ob Bestätigung oder Ablauf gewinnt (wer zuerst entfernt)
+	private final ConcurrentHashMap<String, TimingWheel.Timeout<String>> pending = new ConcurrentHashMap<>();
+	private ScheduledExecutorService expirer;
+
+	public HoldService(BookingService bookingService, Duration ttl) {
+		this(bookingService, ttl, Duration.ofSeconds(1), System::currentTimeMillis);
+	}
+
+	public HoldService(BookingService bookingService, Duration ttl, Duration tick, LongSupplier clock) {
+		if (ttl == null || ttl.isNegative() || ttl.isZero())
+			throw new IllegalArgumentException("Invalid hold TTL: " + ttl);
+		if (tick == null || tick.toMillis() <= 0)
+			throw new IllegalArgumentException("Invalid tick: " + tick);
+		this.bookingService = bookingService;
+		this.ttlMillis = ttl.toMillis();
+		this.tickMillis = tick.toMillis();
+		this.clock = clock;
+		this.wheel = new TimingWheel<>(tickMillis, WHEEL_SIZE, clock.getAsLong());
+		bookingService.addObserver(this);
+	}
+
+	// Reservierung mit generierter ID anlegen; gibt die ID zurück
+	public String hold(String language, String personName, String resourceName, Instant pickupTime,
+			Instant returnTime) {
+		String bookingId = bookingService.createBooking(language, personName, resourceName, pickupTime, returnTime);
+		schedule(bookingId);
+		return bookingId;
+	}
+
+	public void hold(String language, String bookingId, String personName, String resourceName, Instant pickupTime,
+			Instant returnTime) {
+		bookingService.createBooking(language, bookingId, personName, resourceName, pickupTime, returnTime);
+		schedule(bookingId);
+	}
+
+	// eine bestehende Buchung (wieder) unter Vorbehalt stellen, z.B. wenn die Zahlung fehlschlägt
+	public void hold(String bookingId) {
+		if (bookingService.getBookingById(bookingId) == null)
+			throw new IllegalArgumentException("Booking with id " + bookingId + " not found");
+		schedule(bookingId);
+	}
+
+	private void schedule(String bookingId) {
+		TimingWheel.Timeout<String> timeout = wheel.schedule(bookingId, clock.getAsLong() + ttlMillis);
+		TimingWheel.Timeout<String> previous = pending.put(bookingId, timeout);
+		if (previous != null)
+			previous.cancel();
+	}
+
+	// Reservierung in eine feste Buchung umwandeln; false, wenn keine (mehr) offen ist
+	public boolean confirm(String bookingId) {
+		TimingWheel.Timeout<String> timeout = bookingId == null ? null : pending.remove(bookingId);
+		if (timeout == null)
+			return false;
+		timeout.cancel();
+		return true;
+	}
+
+	public boolean isHeld(String bookingId) {
+		return bookingId != null && pending.containsKey(bookingId);
+	}
+
+	public int getHeldCount() {
+		return pending.size();
+	}
+
+	// abgelaufene Reservierungen löschen; gibt die Anzahl zurück
+	public int expireHolds() {
+		List<TimingWheel.Timeout<String>> expired = wheel.expire(clock.getAsLong());
+		if (expired.isEmpty())
+			return 0;
+		List<String> release = new ArrayList<>(expired.size());
+		for (TimingWheel.Timeout<String> timeout : expired) {
+			// nur, wenn nicht gleichzeitig bestätigt oder neu reserviert wurde
+			if (pending.remove(timeout.getItem(), timeout))
+				release.add(timeout.getItem());
+		}
+		if (release.isEmpty())
+			return 0;
+		return bookingService.deleteBookings(release);
+	}
+
+	// Ablauf periodisch (einmal je Tick) in einem Hintergrund-Thread prüfen
+	public synchronized void start() {
+		if (expirer != null)
+			throw new IllegalStateException("Hold expiry is already running");
+		expirer = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread t = new Thread(r, "booking-hold-expiry");
+			t.setDaemon(true);
+			return t;
+		});
+		expirer.scheduleWithFixedDelay(() -> {
+			try {
+				expireHolds();
+			} catch (RuntimeException e) {
+				System.out.println("Hold expiry failed: " + e.getMessage());
+			}
+		}, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+	}
+
+	public synchronized void close() {
+		if (expirer != null) {
+			expirer.shutdown();
+			expirer = null;
+		}
+	}
+
+	@Override
+	public void bookingCreated(Booking booking) {
+	}
+
+	// anderweitig gelöschte Buchungen brauchen keine Frist mehr
+	@Override
+	public void bookingDeleted(Booking booking) {
+		confirm(booking.getBookingId());
+	}
+}
@@ -0,0 +1,213 @@
+package booking.behaviour;
+
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+import booking.structure.Booking;
+import booking.structure.BookingObserver;
+import booking.structure.RecurringBooking;
+
+// Warteliste für ausgebuchte Resourcen. Eine Anfrage wartet in der Prioritätswarteschlange der Buchung,
+// die ihr im Weg steht (Kundenstufe absteigend, dann Anfragezeitpunkt). Wird diese Buchung gelöscht
+// (auch durch Ablauf einer Reservierung), werden nur die Anfragen dieser Warteschlange geprüft: die erste
+// passende wird gebucht, die übrigen hängen sich an die Buchung, die sie jetzt blockiert.
+// Jede Anfrage kostet pro freiwerdender Buchung O(log n), ohne alle Wartenden durchzugehen.
+// Nachgerückt wird im Executor, nicht im Aufruf von deleteBooking: dort hält der BookingService
+// noch den Lock der gelöschten ID.
+public class WaitlistService implements BookingObserver {
+
+	public static final class Request {
+		private final long seq;
+		private final String language;
+		private final String personName;
+		private final String resourceName;
+		private final Instant pickupTime;
+		private final Instant returnTime;
+		private final int tier;
+		private final Instant requestedAt;
+		// Ergebnis, geschützt durch den Monitor der Anfrage
+		private String bookingId;
+		private String error;
+		private boolean cancelled;
+		// einmal eingereiht, zählt für getWaitingCount; geschützt durch den Monitor des WaitlistService
+		private boolean queued;
+
+		private Request(long seq, String language, String personName, String resourceName, Instant pickupTime,
+				Instant returnTime, int tier, Instant requestedAt) {
+			this.seq = seq;
+			this.language = language;
+			this.personName = personName;
+			this.resourceName = resourceName;
+			this.pickupTime = pickupTime;
+			this.returnTime = returnTime;
+			this.tier = tier;
+			this.requestedAt = requestedAt;
+		}
+
+		public String getPersonName() { return personName; }
+		public String getResourceName() { return resourceName; }
+		public Instant getPickupTime() { return pickupTime; }
+		public Instant getReturnTime() { return returnTime; }
+		public int getTier() { return tier; }
+		public Instant getRequestedAt() { return requestedAt; }
+
+		// ID der Buchung, sobald die Anfrage nachgerückt ist, sonst null
+		public synchronized String getBookingId() { return bookingId; }
+		// Grund, falls das Nachrücken endgültig gescheitert ist (z.B. Person gelöscht)
+		public synchronized String getError() { return error; }
+		public synchronized boolean isWaiting() { return bookingId == null && error == null && !cancelled; }
+
+		@Override
+		public String toString() {
+			return personName + " waits for " + resourceName + " " + pickupTime + " - " + returnTime;
+		}
+	}
+
+	// höhere Kundenstufe zuerst, dann wer früher gefragt hat
+	private static final Comparator<Request> PRIORITY = Comparator.comparingInt((Request r) -> -r.tier)
+			.thenComparing(r -> r.requestedAt).thenComparingLong(r -> r.seq);
+
+	private final BookingService bookingService;
+	private final Executor executor;
+	// ID der blockierenden Buchung -> wartende Anfragen
+	private final Map<String, PriorityQueue<Request>> waiting = new HashMap<>();
+	private long seq;
+	private int waitingCount;
+
+	public WaitlistService(BookingService bookingService) {
+		this(bookingService, Executors.newSingleThreadExecutor(r -> {
+			Thread t = new Thread(r, "booking-waitlist");
+			t.setDaemon(true);
+			return t;
+		}));
+	}
+
+	public WaitlistService(BookingService bookingService, Executor executor) {
+		this.bookingService = bookingService;
+		this.executor = executor;
+		bookingService.addObserver(this);
+	}
+
+	// sofort buchen, wenn frei, sonst auf die Warteliste; tier: Kundenstufe, höher wird zuerst bedient
+	public Request bookOrWait(String language, String personName, String resourceName, Instant pickupTime,
+			Instant returnTime, int tier) {
+		if (pickupTime == null || returnTime == null)
+			throw new IllegalArgumentException("A waitlist request needs a pickup and a return time");
+		Request r;
+		synchronized (this) {
+			r = new Request(++seq, language, personName, resourceName, pickupTime, returnTime, tier, Instant.now());
+		}
+		place(r);
+		return r;
+	}
+
+	// Anfrage zurückziehen; sie bleibt bis zum nächsten Nachrücken in der Warteschlange und wird dann verworfen
+	public synchronized boolean cancel(Request r) {
+		synchronized (r) {
+			if (!r.isWaiting())
+				return false;
+			r.cancelled = true;
+		}
+		if (r.queued)
+			waitingCount--;
+		return true;
+	}
+
+	public synchronized int getWaitingCount() {
+		return waitingCount;
+	}
+
+	@Override
+	public void bookingCreated(Booking booking) {
+	}
+
+	@Override
+	public void bookingDeleted(Booking booking) {
+		if (!booking.hasPeriod())
+			return;
+		String freedId = booking.getBookingId();
+		synchronized (this) {
+			if (!waiting.containsKey(freedId))
+				return;
+		}
+		executor.execute(() -> promote(freedId));
+	}
+
+	// Warteschlange einer gelöschten Buchung abarbeiten
+	private void promote(String freedId) {
+		PriorityQueue<Request> queue;
+		synchronized (this) {
+			queue = waiting.remove(freedId);
+		}
+		if (queue == null)
+			return;
+		Request r;
+		while ((r = queue.poll()) != null)
+			if (r.isWaiting())
+				place(r);
+	}
+
+	// buchen oder an die blockierende Buchung hängen; bei einem parallelen Konflikt erneut versuchen
+	private void place(Request r) {
+		while (true) {
+			Booking blocker = bookingService.findConflict(r.resourceName, r.pickupTime, r.returnTime);
+			if (blocker == null) {
+				synchronized (r) {
+					if (r.cancelled)
+						return;
+				}
+				String id;
+				try {
+					id = bookingService.createBooking(r.language, r.personName, r.resourceName, r.pickupTime,
+							r.returnTime);
+				} catch (IllegalArgumentException | IllegalStateException e) {
+					// inzwischen wieder belegt: neuen Blocker suchen; sonst ist die Anfrage ungültig
+					if (bookingService.findConflict(r.resourceName, r.pickupTime, r.returnTime) != null)
+						continue;
+					finish(r, null, e.getMessage());
+					return;
+				}
+				finish(r, id, null);
+				return;
+			}
+			// Termine von Dauerbuchungen werden nie einzeln frei
+			RecurringBooking recurring = bookingService.getSeriesOf(blocker.getBookingId());
+			if (recurring != null) {
+				finish(r, null, "Blocked by recurring booking " + recurring.getBookingId());
+				return;
+			}
+			if (enqueue(r, blocker))
+				return;
+		}
+	}
+
+	// false, wenn der Blocker schon wieder gelöscht ist (dann wäre sein Löschereignis verpasst)
+	private synchronized boolean enqueue(Request r, Booking blocker) {
+		if (bookingService.getBookingById(blocker.getBookingId()) != blocker)
+			return false;
+		waiting.computeIfAbsent(blocker.getBookingId(), k -> new PriorityQueue<>(PRIORITY)).add(r);
+		if (!r.queued) {
+			r.queued = true;
+			waitingCount++;
+		}
+		return true;
+	}
+
+	private synchronized void finish(Request r, String bookingId, String error) {
+		synchronized (r) {
+			if (r.cancelled)
+				return;
+			r.bookingId = bookingId;
+			r.error = error;
+		}
+		if (r.queued)
+			waitingCount--;
+		if (bookingId != null)
+			System.out.println("Waitlist: " + r.personName + " got " + r.resourceName + " (booking " + bookingId + ")");
+	}
+}
@@ -1,5 +1,8 @@
 package booking.structure;
 
+import java.io.IOException;
+import java.time.Instant;
+
 import person.structure.Person;
 import resource.structure.Resource;
 
@@ -8,12 +11,22 @@ public abstract class Booking {
 	private final Person person;
 	private final Resource resource;
 	private final double price;
+	// Abhol- und Rückgabezeitpunkt, null bei Buchungen ohne Zeitraum
+	private final Instant pickupTime;
+	private final Instant returnTime;
 	
 	protected Booking(String bookingId, Person person, Resource resource, double price) {
+		this(bookingId, person, resource, price, null, null);
+	}
+	
+	protected Booking(String bookingId, Person person, Resource resource, double price, Instant pickupTime,
+			Instant returnTime) {
 		this.bookingId = bookingId;
 		this.person = person;
 		this.resource = resource;
 		this.price = price;
+		this.pickupTime = pickupTime;
+		this.returnTime = returnTime;
 	}
 	
 	public abstract String header();
@@ -24,6 +37,28 @@ public abstract class Booking {
 		return header() + "\n" + body() + "\n" + footer();
 	}
 	
+	// wie render(), schreibt aber direkt in out statt einen String zusammenzusetzen
+	public final void renderTo(Appendable out) throws IOException {
+		appendHeader(out);
+		out.append('\n');
+		appendBody(out);
+		out.append('\n');
+		appendFooter(out);
+	}
+	
+	// Standard: über header()/body()/footer(); Unterklassen schreiben die Teile ohne Zwischen-Strings
+	public void appendHeader(Appendable out) throws IOException {
+		out.append(header());
+	}
+	
+	public void appendBody(Appendable out) throws IOException {
+		out.append(body());
+	}
+	
+	public void appendFooter(Appendable out) throws IOException {
+		out.append(footer());
+	}
+	
 	public final String getBookingId() {
 		return bookingId;
 	}
@@ -39,5 +74,22 @@ public abstract class Booking {
 	public final double getPrice() {
 		return price;
 	}
+	
+	public final Instant getPickupTime() {
+		return pickupTime;
+	}
+	
+	public final Instant getReturnTime() {
+		return returnTime;
+	}
+	
+	public final boolean hasPeriod() {
+		return pickupTime != null && returnTime != null;
+	}
+	
+	// halboffenes Intervall [pickup, return): direkt anschließende Buchungen überlappen nicht
+	public final boolean overlaps(Instant from, Instant to) {
+		return hasPeriod() && pickupTime.isBefore(to) && from.isBefore(returnTime);
+	}
 
 }
@@ -0,0 +1,71 @@
+package booking.structure;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// Ergebnisbericht eines Batch-Imports: ein Eintrag pro Eingabezeile, in Eingabereihenfolge
+public final class BookingBatchResult {
+
+	public static final class Item {
+		private final int index;
+		private final BookingRequest request;
+		private final Booking booking;
+		private final String error;
+
+		private Item(int index, BookingRequest request, Booking booking, String error) {
+			this.index = index;
+			this.request = request;
+			this.booking = booking;
+			this.error = error;
+		}
+
+		public int getIndex() { return index; }
+		public BookingRequest getRequest() { return request; }
+		public Booking getBooking() { return booking; }
+		public String getError() { return error; }
+		public boolean isAccepted() { return booking != null; }
+
+		@Override
+		public String toString() {
+			return "#" + index + " " + request + (isAccepted() ? ": created" : ": rejected - " + error);
+		}
+	}
+
+	private final List<Item> items = new ArrayList<>();
+	private int acceptedCount = 0;
+
+	public void accepted(int index, BookingRequest request, Booking booking) {
+		items.add(new Item(index, request, booking, null));
+		acceptedCount++;
+	}
+
+	public void rejected(int index, BookingRequest request, String error) {
+		items.add(new Item(index, request, null, error));
+	}
+
+	public List<Item> getItems() {
+		return Collections.unmodifiableList(items);
+	}
+
+	public List<Item> getRejected() {
+		List<Item> out = new ArrayList<>();
+		for (Item i : items)
+			if (!i.isAccepted())
+				out.add(i);
+		return out;
+	}
+
+	public int getAcceptedCount() {
+		return acceptedCount;
+	}
+
+	public int getRejectedCount() {
+		return items.size() - acceptedCount;
+	}
+
+	@Override
+	public String toString() {
+		return "Batch { created = " + acceptedCount + ", rejected = " + getRejectedCount() + " }";
+	}
+}
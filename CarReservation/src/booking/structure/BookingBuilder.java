@@ -1,5 +1,7 @@
 package booking.structure;
 
+import java.time.Instant;
+
 import person.structure.Person;
 import resource.structure.Resource;
 
@@ -10,6 +12,8 @@ public final class BookingBuilder {
 	private Resource resource;
 	private double price;
 	private Lang lang = Lang.DE; // default language
+	private Instant pickupTime;
+	private Instant returnTime;
 
 	public BookingBuilder id(String id)
 	{
@@ -41,6 +45,18 @@ public final class BookingBuilder {
 		return this;
 	}
 	
+	public BookingBuilder pickupTime(Instant t)
+	{
+		this.pickupTime = t;
+		return this;
+	}
+	
+	public BookingBuilder returnTime(Instant t)
+	{
+		this.returnTime = t;
+		return this;
+	}
+	
 	public boolean hasId() { return bookingId != null && bookingId.length() > 0; }
 	
 	public Booking build() {
@@ -52,9 +68,13 @@ public final class BookingBuilder {
 			throw new IllegalStateException("Booking must have a resource");
 		if (price <= 0)
 			throw new IllegalStateException("Booking must have a positive price");
+		if ((pickupTime == null) != (returnTime == null))
+			throw new IllegalStateException("Booking must have both a pickup and a return time or neither");
+		if (pickupTime != null && !pickupTime.isBefore(returnTime))
+			throw new IllegalStateException("Booking return time must be after pickup time");
 		if (lang == Lang.DE)
-			return new GermanBooking(bookingId, person, resource, price);
+			return new GermanBooking(bookingId, person, resource, price, pickupTime, returnTime);
 		else
-			return new EnglishBooking(bookingId, person, resource, price);
+			return new EnglishBooking(bookingId, person, resource, price, pickupTime, returnTime);
 	}
 }
@@ -0,0 +1,45 @@
+package booking.structure;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+// Sekundärindex: Schlüssel -> Buchungen, sortiert nach der Einfügenummer des BookingService.
+// Abfragen kosten O(Treffer), unabhängig von der Größe des Bestands.
+public final class BookingIndex<K> {
+
+	private final ConcurrentHashMap<K, ConcurrentSkipListMap<Long, Booking>> entries = new ConcurrentHashMap<>();
+
+	public void add(K key, long seq, Booking booking) {
+		// innerhalb von compute, sonst könnte ein paralleles remove() die Liste gerade verwerfen
+		entries.compute(key, (k, bookings) -> {
+			if (bookings == null)
+				bookings = new ConcurrentSkipListMap<>();
+			bookings.put(seq, booking);
+			return bookings;
+		});
+	}
+
+	public void remove(K key, long seq) {
+		// leere Listen werden atomar entfernt, damit gelöschte Schlüssel keinen Speicher belegen
+		entries.computeIfPresent(key, (k, bookings) -> {
+			bookings.remove(seq);
+			return bookings.isEmpty() ? null : bookings;
+		});
+	}
+
+	public List<Booking> get(K key) {
+		ConcurrentSkipListMap<Long, Booking> bookings = entries.get(key);
+		return bookings == null ? new ArrayList<>() : new ArrayList<>(bookings.values());
+	}
+
+	public int count(K key) {
+		ConcurrentSkipListMap<Long, Booking> bookings = entries.get(key);
+		return bookings == null ? 0 : bookings.size();
+	}
+
+	public int keyCount() {
+		return entries.size();
+	}
+}
@@ -0,0 +1,18 @@
+package booking.structure;
+
+// Beobachter für Änderungen am Buchungsbestand (z.B. Verfügbarkeits-Index).
+// Wird nach erfolgreicher Speicherung aufgerufen, für dieselbe Buchungs-ID in Änderungsreihenfolge;
+// Aufrufe für verschiedene IDs können parallel aus mehreren Threads kommen.
+public interface BookingObserver {
+
+	void bookingCreated(Booking booking);
+
+	void bookingDeleted(Booking booking);
+
+	// Dauerbuchungen werden als Ganzes gemeldet, nicht je Termin
+	default void recurringBookingCreated(RecurringBooking booking) {
+	}
+
+	default void recurringBookingDeleted(RecurringBooking booking) {
+	}
+}
@@ -0,0 +1,56 @@
+package booking.structure;
+
+import java.time.Instant;
+
+// Eingabezeile für BookingService.createBookings (z.B. aus dem nächtlichen Partner-Import)
+public final class BookingRequest {
+	private final String language;
+	private final String bookingId;
+	private final String personName;
+	private final String resourceName;
+	private final Instant pickupTime;
+	private final Instant returnTime;
+
+	public BookingRequest(String language, String bookingId, String personName, String resourceName) {
+		this(language, bookingId, personName, resourceName, null, null);
+	}
+
+	public BookingRequest(String language, String bookingId, String personName, String resourceName,
+			Instant pickupTime, Instant returnTime) {
+		this.language = language;
+		this.bookingId = bookingId;
+		this.personName = personName;
+		this.resourceName = resourceName;
+		this.pickupTime = pickupTime;
+		this.returnTime = returnTime;
+	}
+
+	public String getLanguage() {
+		return language;
+	}
+
+	public String getBookingId() {
+		return bookingId;
+	}
+
+	public String getPersonName() {
+		return personName;
+	}
+
+	public String getResourceName() {
+		return resourceName;
+	}
+
+	public Instant getPickupTime() {
+		return pickupTime;
+	}
+
+	public Instant getReturnTime() {
+		return returnTime;
+	}
+
+	@Override
+	public String toString() {
+		return bookingId + " (" + personName + ", " + resourceName + ")";
+	}
+}
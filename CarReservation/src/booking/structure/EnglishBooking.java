@@ -1,5 +1,8 @@
 package booking.structure;
 
+import java.io.IOException;
+import java.time.Instant;
+
 import person.structure.Person;
 import resource.structure.Resource;
 
@@ -7,6 +10,11 @@ public final class EnglishBooking extends Booking {
 	public EnglishBooking(String bookingId, Person person, Resource resource, double price) {
 		super(bookingId, person, resource, price);
 	}
+	
+	public EnglishBooking(String bookingId, Person person, Resource resource, double price, Instant pickupTime,
+			Instant returnTime) {
+		super(bookingId, person, resource, price, pickupTime, returnTime);
+	}
 
 	@Override
 	public String header() {
@@ -18,6 +26,17 @@ public final class EnglishBooking extends Booking {
 		return "Person: " + getPerson() + ", Car: " + getResource() + ", Price: " + getPrice() + " USD";
 	}
 
+	@Override
+	public void appendHeader(Appendable out) throws IOException {
+		out.append("Booking Confirmation: ").append(getBookingId());
+	}
+	
+	@Override
+	public void appendBody(Appendable out) throws IOException {
+		out.append("Person: ").append(String.valueOf(getPerson())).append(", Car: ").append(String.valueOf(getResource()))
+				.append(", Price: ").append(Double.toString(getPrice())).append(" USD");
+	}
+	
 	@Override
 	public String footer() {
 		return "Thank you for your booking!";
@@ -1,5 +1,8 @@
 package booking.structure;
 
+import java.io.IOException;
+import java.time.Instant;
+
 import person.structure.Person;
 import resource.structure.Resource;
 
@@ -8,6 +11,11 @@ public final class GermanBooking extends Booking {
 		super(bookingId, person, resource, price);
 	}
 	
+	public GermanBooking(String bookingId, Person person, Resource resource, double price, Instant pickupTime,
+			Instant returnTime) {
+		super(bookingId, person, resource, price, pickupTime, returnTime);
+	}
+	
 	@Override
 	public String header() {
 		return "Buchungsbestätigung: " + getBookingId();
@@ -18,6 +26,17 @@ public final class GermanBooking extends Booking {
 		return "Person: " + getPerson() + ", Auto: " + getResource() + ", Preis: " + getPrice() + " EUR";
 	}
 	
+	@Override
+	public void appendHeader(Appendable out) throws IOException {
+		out.append("Buchungsbestätigung: ").append(getBookingId());
+	}
+	
+	@Override
+	public void appendBody(Appendable out) throws IOException {
+		out.append("Person: ").append(String.valueOf(getPerson())).append(", Auto: ").append(String.valueOf(getResource()))
+				.append(", Preis: ").append(Double.toString(getPrice())).append(" EUR");
+	}
+	
 	@Override
 	public String footer() {
 		return "Vielen Dank für Ihre Buchung!";
@@ -0,0 +1,134 @@
+package booking.structure;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+// Wiederholungsregel einer Dauerbuchung (ähnlich RRULE): alle N Tage (wöchentlich = 7) zur selben
+// Ortszeit, jeweils für eine feste Dauer, bis einschließlich zum Datum 'until'.
+// Termine werden nie als Liste erzeugt: Termin i wird aus der Regel berechnet, und der erste Termin
+// zu einem Zeitpunkt ergibt sich aus dem Abstand zum Start (O(1)), bis auf Korrekturen um Sommerzeit.
+public final class RecurrenceRule {
+
+	private final ZoneId zone;
+	private final LocalDateTime firstPickup;
+	private final Duration length;
+	private final int intervalDays;
+	private final LocalDate until;
+	private final int count;
+
+	public RecurrenceRule(ZonedDateTime firstPickup, Duration length, int intervalDays, LocalDate until) {
+		if (firstPickup == null || length == null || until == null)
+			throw new IllegalArgumentException("Recurrence needs a first pickup, a length and an end date");
+		if (intervalDays <= 0)
+			throw new IllegalArgumentException("Interval must be at least one day: " + intervalDays);
+		if (length.isNegative() || length.isZero() || length.compareTo(Duration.ofDays(intervalDays).minusHours(1)) > 0)
+			throw new IllegalArgumentException("Length must be positive and shorter than the interval: " + length);
+		if (until.isBefore(firstPickup.toLocalDate()))
+			throw new IllegalArgumentException("End date " + until + " is before the first pickup");
+		this.zone = firstPickup.getZone();
+		this.firstPickup = firstPickup.toLocalDateTime();
+		this.length = length;
+		this.intervalDays = intervalDays;
+		this.until = until;
+		this.count = (int) (ChronoUnit.DAYS.between(this.firstPickup.toLocalDate(), until) / intervalDays) + 1;
+	}
+
+	public static RecurrenceRule weekly(ZonedDateTime firstPickup, Duration length, LocalDate until) {
+		return new RecurrenceRule(firstPickup, length, 7, until);
+	}
+
+	public static RecurrenceRule everyDays(int days, ZonedDateTime firstPickup, Duration length, LocalDate until) {
+		return new RecurrenceRule(firstPickup, length, days, until);
+	}
+
+	public ZoneId getZone() { return zone; }
+	public LocalDateTime getFirstPickup() { return firstPickup; }
+	public Duration getLength() { return length; }
+	public int getIntervalDays() { return intervalDays; }
+	public LocalDate getUntil() { return until; }
+
+	public int count() {
+		return count;
+	}
+
+	public Instant pickupOf(int i) {
+		return firstPickup.plusDays((long) i * intervalDays).atZone(zone).toInstant();
+	}
+
+	public Instant returnOf(int i) {
+		return pickupOf(i).plus(length);
+	}
+
+	public Instant getStart() {
+		return pickupOf(0);
+	}
+
+	public Instant getEnd() {
+		return returnOf(count - 1);
+	}
+
+	// kleinster Termin, der nach t endet (count, wenn keiner mehr)
+	public int firstEndingAfter(Instant t) {
+		long days = Math.floorDiv(Duration.between(getStart(), t.minus(length)).getSeconds(), 86400L);
+		int i = (int) Math.max(0, Math.min(count, Math.floorDiv(days, intervalDays)));
+		// Schätzung über Tage; Zeitumstellungen verschieben sie höchstens um einen Termin
+		while (i > 0 && returnOf(i - 1).isAfter(t))
+			i--;
+		while (i < count && !returnOf(i).isAfter(t))
+			i++;
+		return i;
+	}
+
+	// erster Termin, der [from, to) überschneidet, oder -1
+	public int firstOverlap(Instant from, Instant to) {
+		int i = firstEndingAfter(from);
+		return i < count && pickupOf(i).isBefore(to) ? i : -1;
+	}
+
+	// Termine, die [from, to) überschneiden, der Reihe nach und erst bei Bedarf berechnet
+	public PrimitiveIterator.OfInt occurrences(Instant from, Instant to) {
+		int first = firstEndingAfter(from);
+		return new PrimitiveIterator.OfInt() {
+			private int next = first;
+
+			@Override
+			public boolean hasNext() {
+				return next < count && pickupOf(next).isBefore(to);
+			}
+
+			@Override
+			public int nextInt() {
+				if (!hasNext())
+					throw new NoSuchElementException();
+				return next++;
+			}
+		};
+	}
+
+	// erster Termin dieser Regel, der einen Termin der anderen überschneidet, oder -1.
+	// Geht nur die Termine im gemeinsamen Zeitraum durch, je Termin O(1) für die andere Regel.
+	public int firstOverlap(RecurrenceRule other) {
+		Instant from = getStart().isAfter(other.getStart()) ? getStart() : other.getStart();
+		Instant to = getEnd().isBefore(other.getEnd()) ? getEnd() : other.getEnd();
+		if (!from.isBefore(to))
+			return -1;
+		for (PrimitiveIterator.OfInt it = occurrences(from, to); it.hasNext();) {
+			int i = it.nextInt();
+			if (other.firstOverlap(pickupOf(i), returnOf(i)) >= 0)
+				return i;
+		}
+		return -1;
+	}
+
+	@Override
+	public String toString() {
+		return "every " + intervalDays + " days from " + firstPickup + " " + zone + " for " + length + " until " + until;
+	}
+}
@@ -0,0 +1,89 @@
+package booking.structure;
+
+import java.time.Instant;
+import java.util.PrimitiveIterator;
+import java.util.function.Consumer;
+
+import person.structure.Person;
+import resource.structure.Resource;
+
+// Dauerbuchung: wird einmal gespeichert, die einzelnen Termine entstehen erst bei Abfragen als
+// gewöhnliche Booking-Objekte mit der ID "<id>#<Terminnummer>".
+public final class RecurringBooking {
+	public static final char OCCURRENCE_SEPARATOR = '#';
+
+	private final String bookingId;
+	private final Person person;
+	private final Resource resource;
+	private final double price;
+	private final Lang lang;
+	private final RecurrenceRule rule;
+
+	public RecurringBooking(String bookingId, Person person, Resource resource, double price, Lang lang,
+			RecurrenceRule rule) {
+		if (bookingId == null || bookingId.isEmpty())
+			throw new IllegalStateException("Booking must have an id");
+		if (bookingId.indexOf(OCCURRENCE_SEPARATOR) >= 0)
+			throw new IllegalArgumentException("Recurring booking id must not contain '" + OCCURRENCE_SEPARATOR + "'");
+		if (person == null || resource == null || rule == null)
+			throw new IllegalStateException("Recurring booking needs a person, a resource and a rule");
+		if (price <= 0)
+			throw new IllegalStateException("Booking must have a positive price");
+		this.bookingId = bookingId;
+		this.person = person;
+		this.resource = resource;
+		this.price = price;
+		this.lang = lang == null ? Lang.DE : lang;
+		this.rule = rule;
+	}
+
+	public String getBookingId() { return bookingId; }
+	public Person getPerson() { return person; }
+	public Resource getResource() { return resource; }
+	public double getPrice() { return price; }
+	public Lang getLang() { return lang; }
+	public RecurrenceRule getRule() { return rule; }
+
+	// Termin i als Buchung
+	public Booking occurrence(int i) {
+		return new BookingBuilder()
+				.id(bookingId + OCCURRENCE_SEPARATOR + i)
+				.person(person)
+				.resource(resource)
+				.price(price)
+				.lang(lang)
+				.pickupTime(rule.pickupOf(i))
+				.returnTime(rule.returnOf(i))
+				.build();
+	}
+
+	// erster Termin, der [from, to) überschneidet, oder null
+	public Booking findConflict(Instant from, Instant to) {
+		int i = rule.firstOverlap(from, to);
+		return i < 0 ? null : occurrence(i);
+	}
+
+	// Termine in [from, to) einzeln an action geben, ohne sie zu sammeln
+	public void forEachOccurrence(Instant from, Instant to, Consumer<Booking> action) {
+		for (PrimitiveIterator.OfInt it = rule.occurrences(from, to); it.hasNext();)
+			action.accept(occurrence(it.nextInt()));
+	}
+
+	// Terminnummer aus einer Termin-ID dieser Dauerbuchung, sonst -1
+	public int occurrenceIndex(String occurrenceId) {
+		if (occurrenceId == null || occurrenceId.length() <= bookingId.length() + 1 || !occurrenceId.startsWith(bookingId)
+				|| occurrenceId.charAt(bookingId.length()) != OCCURRENCE_SEPARATOR)
+			return -1;
+		try {
+			int i = Integer.parseInt(occurrenceId.substring(bookingId.length() + 1));
+			return i >= 0 && i < rule.count() ? i : -1;
+		} catch (NumberFormatException e) {
+			return -1;
+		}
+	}
+
+	@Override
+	public String toString() {
+		return bookingId + " (" + person + ", " + resource + ", " + rule + ")";
+	}
+}
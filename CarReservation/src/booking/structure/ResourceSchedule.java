@@ -0,0 +1,98 @@
+package booking.structure;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+// Belegungsplan einer Resource: Buchungen mit Zeitraum, sortiert nach Abholzeit.
+// Da sich eingetragene Buchungen nie überlappen, reichen für die Konfliktprüfung
+// der Vorgänger und der Nachfolger des angefragten Beginns (O(log n)).
+// Dauerbuchungen werden als Regel geführt; ihre Termine werden bei der Prüfung berechnet (O(1) je Regel).
+public final class ResourceSchedule {
+
+	private final TreeMap<Instant, Booking> byPickup = new TreeMap<>();
+	private final List<RecurringBooking> series = new ArrayList<>();
+
+	public Booking findConflict(Instant from, Instant to) {
+		Map.Entry<Instant, Booking> before = byPickup.floorEntry(from);
+		if (before != null && before.getValue().overlaps(from, to))
+			return before.getValue();
+		Map.Entry<Instant, Booking> after = byPickup.higherEntry(from);
+		if (after != null && after.getValue().overlaps(from, to))
+			return after.getValue();
+		for (RecurringBooking s : series) {
+			Booking occurrence = s.findConflict(from, to);
+			if (occurrence != null)
+				return occurrence;
+		}
+		return null;
+	}
+
+	public void add(Booking b) {
+		if (!b.hasPeriod())
+			throw new IllegalArgumentException("Booking " + b.getBookingId() + " has no period");
+		Booking conflict = findConflict(b.getPickupTime(), b.getReturnTime());
+		if (conflict != null)
+			throw new IllegalArgumentException("Booking " + b.getBookingId() + " overlaps booking " + conflict.getBookingId());
+		byPickup.put(b.getPickupTime(), b);
+	}
+
+	// ohne Konfliktprüfung, nur für bereits geprüfte Bestände (Wiederherstellung aus dem Log)
+	public void addTrusted(Booking b) {
+		if (!b.hasPeriod())
+			throw new IllegalArgumentException("Booking " + b.getBookingId() + " has no period");
+		byPickup.put(b.getPickupTime(), b);
+	}
+
+	public boolean remove(Booking b) {
+		return b.hasPeriod() && byPickup.remove(b.getPickupTime(), b);
+	}
+
+	// Dauerbuchung eintragen; prüft gegen Einzelbuchungen in ihrem Zeitraum und gegen andere Regeln
+	public void addSeries(RecurringBooking rb) {
+		RecurrenceRule rule = rb.getRule();
+		Map.Entry<Instant, Booking> first = byPickup.floorEntry(rule.getStart());
+		Instant from = first != null ? first.getKey() : rule.getStart();
+		for (Booking b : byPickup.subMap(from, true, rule.getEnd(), false).values())
+			if (rule.firstOverlap(b.getPickupTime(), b.getReturnTime()) >= 0)
+				throw new IllegalArgumentException("Recurring booking " + rb.getBookingId() + " overlaps booking "
+						+ b.getBookingId() + " from " + b.getPickupTime() + " to " + b.getReturnTime());
+		for (RecurringBooking other : series) {
+			int i = rule.firstOverlap(other.getRule());
+			if (i >= 0)
+				throw new IllegalArgumentException("Recurring booking " + rb.getBookingId() + " overlaps recurring booking "
+						+ other.getBookingId() + " on " + rule.pickupOf(i));
+		}
+		series.add(rb);
+	}
+
+	public void addSeriesTrusted(RecurringBooking rb) {
+		series.add(rb);
+	}
+
+	public boolean removeSeries(RecurringBooking rb) {
+		return series.remove(rb);
+	}
+
+	// alle Buchungen und Termine, die [from, to) überschneiden
+	public void forEachOverlapping(Instant from, Instant to, Consumer<Booking> action) {
+		Map.Entry<Instant, Booking> before = byPickup.lowerEntry(from);
+		if (before != null && before.getValue().overlaps(from, to))
+			action.accept(before.getValue());
+		for (Booking b : byPickup.subMap(from, true, to, false).values())
+			action.accept(b);
+		for (RecurringBooking s : series)
+			s.forEachOccurrence(from, to, action);
+	}
+
+	public int size() {
+		return byPickup.size();
+	}
+
+	public boolean isEmpty() {
+		return byPickup.isEmpty() && series.isEmpty();
+	}
+}
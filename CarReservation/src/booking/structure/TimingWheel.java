@@ -0,0 +1,114 @@
+package booking.structure;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Hashed Timing Wheel: Fristen werden auf Ticks gerundet und in einen Ring von Buckets gehängt
+// (Bucket = Tick mod Ringgröße). Einfügen und Abbrechen kosten O(1) (doppelt verkettete Liste je Bucket),
+// expire() besucht nur die seit dem letzten Aufruf vergangenen Buckets, höchstens einmal den ganzen Ring.
+// Einträge, deren Frist erst eine spätere Runde betrifft, bleiben im Bucket liegen.
+public final class TimingWheel<T> {
+
+	public static final class Timeout<T> {
+		private final TimingWheel<T> wheel;
+		private final T item;
+		private final long deadlineTick;
+		private Timeout<T> prev;
+		private Timeout<T> next;
+		private int bucket = -1;
+
+		private Timeout(TimingWheel<T> wheel, T item, long deadlineTick) {
+			this.wheel = wheel;
+			this.item = item;
+			this.deadlineTick = deadlineTick;
+		}
+
+		public T getItem() {
+			return item;
+		}
+
+		// true, wenn der Eintrag noch anstand und jetzt entfernt wurde
+		public boolean cancel() {
+			return wheel.cancel(this);
+		}
+	}
+
+	private final long tickMillis;
+	private final Timeout<T>[] heads;
+	private final int mask;
+	private long currentTick;
+	private int size;
+
+	@SuppressWarnings("unchecked")
+	public TimingWheel(long tickMillis, int wheelSize, long startMillis) {
+		if (tickMillis <= 0)
+			throw new IllegalArgumentException("Tick must be positive: " + tickMillis);
+		if (wheelSize <= 0 || Integer.bitCount(wheelSize) != 1)
+			throw new IllegalArgumentException("Wheel size must be a power of two: " + wheelSize);
+		this.tickMillis = tickMillis;
+		this.heads = (Timeout<T>[]) new Timeout<?>[wheelSize];
+		this.mask = wheelSize - 1;
+		this.currentTick = startMillis / tickMillis;
+	}
+
+	// Frist in Millisekunden; wird auf den nächsten Tick aufgerundet, frühestens der nächste Tick
+	public synchronized Timeout<T> schedule(T item, long deadlineMillis) {
+		long tick = Math.max(currentTick + 1, Math.floorDiv(deadlineMillis + tickMillis - 1, tickMillis));
+		Timeout<T> t = new Timeout<>(this, item, tick);
+		int b = (int) (tick & mask);
+		t.bucket = b;
+		t.next = heads[b];
+		if (heads[b] != null)
+			heads[b].prev = t;
+		heads[b] = t;
+		size++;
+		return t;
+	}
+
+	private synchronized boolean cancel(Timeout<T> t) {
+		if (t.bucket < 0)
+			return false;
+		unlink(t);
+		return true;
+	}
+
+	// alle Einträge mit Frist <= nowMillis entnehmen, als ein Batch
+	public synchronized List<Timeout<T>> expire(long nowMillis) {
+		List<Timeout<T>> expired = new ArrayList<>();
+		long target = Math.floorDiv(nowMillis, tickMillis);
+		if (target <= currentTick)
+			return expired;
+		// nach langer Pause reicht ein Umlauf über alle Buckets
+		long from = Math.max(currentTick + 1, target - mask);
+		for (long tick = from; tick <= target; tick++) {
+			Timeout<T> t = heads[(int) (tick & mask)];
+			while (t != null) {
+				Timeout<T> next = t.next;
+				if (t.deadlineTick <= target) {
+					unlink(t);
+					expired.add(t);
+				}
+				t = next;
+			}
+		}
+		currentTick = target;
+		return expired;
+	}
+
+	public synchronized int size() {
+		return size;
+	}
+
+	private void unlink(Timeout<T> t) {
+		if (t.prev != null)
+			t.prev.next = t.next;
+		else
+			heads[t.bucket] = t.next;
+		if (t.next != null)
+			t.next.prev = t.prev;
+		t.prev = null;
+		t.next = null;
+		t.bucket = -1;
+		size--;
+	}
+}
@@ -0,0 +1,150 @@
+package importing.behaviour;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+// Liest CSV (RFC 4180, aber ohne Zeilenumbrüche in Feldern) aus einem Bereich einer Datei. Gelesen wird mit
+// positionsgenauen Channel-Reads in einen wiederverwendeten Puffer, Felder werden direkt aus den Bytes
+// dekodiert. Mehrere Leser können sich einen Channel teilen und verschiedene Bereiche parallel lesen.
+final class CsvReader {
+
+	interface RowHandler {
+		// Felder fields[0..count) einer Zeile; line zählt ab 1 innerhalb des Bereichs. fields wird wiederverwendet.
+		void row(long line, String[] fields, int count);
+
+		void malformed(long line, String error);
+	}
+
+	private static final int MAX_LINE = 1 << 20;
+
+	private final FileChannel channel;
+	private ByteBuffer buf;
+	// entschlüsselte Bytes eines Feldes in Anführungszeichen
+	private byte[] scratch = new byte[256];
+	private String[] fields = new String[8];
+
+	CsvReader(FileChannel channel, int bufferSize) {
+		this.channel = channel;
+		this.buf = ByteBuffer.allocate(bufferSize);
+	}
+
+	// teilt die Datei in höchstens 'chunks' Bereiche; liefert chunks + 1 Grenzen, jede innere direkt hinter einem '\n'
+	static long[] split(FileChannel channel, int chunks) throws IOException {
+		long size = channel.size();
+		long[] bounds = new long[chunks + 1];
+		bounds[chunks] = size;
+		ByteBuffer probe = ByteBuffer.allocate(4096);
+		for (int i = 1; i < chunks; i++)
+			bounds[i] = nextLineStart(channel, Math.max(bounds[i - 1], size * i / chunks), size, probe);
+		return bounds;
+	}
+
+	private static long nextLineStart(FileChannel channel, long pos, long size, ByteBuffer probe) throws IOException {
+		while (pos < size) {
+			probe.clear();
+			int n = channel.read(probe, pos);
+			if (n < 0)
+				break;
+			byte[] a = probe.array();
+			for (int i = 0; i < n; i++)
+				if (a[i] == '\n')
+					return pos + i + 1;
+			pos += n;
+		}
+		return size;
+	}
+
+	// liest [start, end) zeilenweise; gibt die Anzahl der Zeilen zurück (auch leere)
+	long read(long start, long end, RowHandler handler) throws IOException {
+		long pos = start;
+		long line = 0;
+		int carry = 0;
+		while (pos < end) {
+			buf.clear();
+			buf.position(carry);
+			buf.limit((int) Math.min(buf.capacity(), carry + (end - pos)));
+			int n = channel.read(buf, pos);
+			if (n < 0)
+				break;
+			pos += n;
+			byte[] a = buf.array();
+			int limit = buf.position();
+			int lineStart = 0;
+			for (int i = carry; i < limit; i++) {
+				if (a[i] == '\n') {
+					handle(a, lineStart, i, ++line, handler);
+					lineStart = i + 1;
+				}
+			}
+			carry = limit - lineStart;
+			if (carry == buf.capacity()) {
+				// Zeile passt nicht in den Puffer
+				if (carry >= MAX_LINE)
+					throw new IOException("CSV line " + (line + 1) + " is longer than " + MAX_LINE + " bytes");
+				ByteBuffer bigger = ByteBuffer.allocate(buf.capacity() * 2);
+				System.arraycopy(a, 0, bigger.array(), 0, carry);
+				buf = bigger;
+			} else {
+				System.arraycopy(a, lineStart, a, 0, carry);
+			}
+		}
+		if (carry > 0)
+			handle(buf.array(), 0, carry, ++line, handler);
+		return line;
+	}
+
+	private void handle(byte[] a, int from, int to, long line, RowHandler handler) {
+		if (to > from && a[to - 1] == '\r')
+			to--;
+		if (to == from)
+			return;
+		int count = parse(a, from, to);
+		if (count < 0)
+			handler.malformed(line, "Malformed quotes");
+		else
+			handler.row(line, fields, count);
+	}
+
+	// zerlegt eine Zeile in fields; -1 bei fehlerhaften Anführungszeichen
+	private int parse(byte[] a, int from, int to) {
+		if (scratch.length < to - from)
+			scratch = new byte[Math.max(to - from, scratch.length * 2)];
+		int count = 0;
+		int i = from;
+		while (true) {
+			String field;
+			if (i < to && a[i] == '"') {
+				int n = 0;
+				i++;
+				while (true) {
+					if (i >= to)
+						return -1;
+					byte c = a[i++];
+					if (c != '"')
+						scratch[n++] = c;
+					else if (i < to && a[i] == '"')
+						scratch[n++] = a[i++];
+					else
+						break;
+				}
+				if (i < to && a[i] != ',')
+					return -1;
+				field = new String(scratch, 0, n, StandardCharsets.UTF_8);
+			} else {
+				int s = i;
+				while (i < to && a[i] != ',')
+					i++;
+				field = new String(a, s, i - s, StandardCharsets.UTF_8);
+			}
+			if (count == fields.length)
+				fields = Arrays.copyOf(fields, count * 2);
+			fields[count++] = field;
+			if (i >= to)
+				return count;
+			i++;
+		}
+	}
+}
@@ -0,0 +1,218 @@
+package importing.behaviour;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+import importing.structure.ImportResult;
+import person.behaviour.PersonService;
+import person.structure.Person;
+import person.structure.PersonFactory;
+import resource.behaviour.ResourceService;
+import resource.structure.Car;
+import resource.structure.Extra;
+import resource.structure.Resource;
+import resource.structure.ResourceClass;
+
+// Massenimport von Personen und Resourcen aus CSV-Dateien (UTF-8). Die Datei wird an Zeilengrenzen in
+// Bereiche geteilt, die parallel geparst werden (je Bereich ein CsvReader mit eigenem Puffer). Angelegt
+// wird danach bereichsweise in Dateireihenfolge über die Batch-Methoden der Services, ohne Ausgabe je Zeile.
+//
+//   Personen:  type,name                    type: natural / legal
+//   Resourcen: name,price[,class[,extras]]  class: z.B. COMPACT oder leer, extras: z.B. ChildSeat+SetTopBox
+//
+// Beginnt die erste Zeile mit "type" bzw. "name", gilt sie als Kopfzeile. Leere Zeilen werden übersprungen.
+public class ImportService {
+
+	// Zeile -> Objekt; wirft IllegalArgumentException mit dem Grund der Ablehnung
+	private interface RowParser<T> {
+		T parse(String[] fields, int count);
+	}
+
+	// Ergebnis eines Bereichs; Zeilennummern relativ zum Bereich
+	private static final class Chunk<T> {
+		final List<T> rows = new ArrayList<>();
+		long[] lines = new long[64];
+		final List<ImportResult.Rejected> rejected = new ArrayList<>();
+		long lineCount;
+
+		void add(T row, long line) {
+			if (rows.size() == lines.length)
+				lines = Arrays.copyOf(lines, lines.length * 2);
+			lines[rows.size()] = line;
+			rows.add(row);
+		}
+	}
+
+	private static final int BUFFER_SIZE = 1 << 16;
+	// mehrere Bereiche je Thread, damit sich ungleich teure Bereiche ausgleichen
+	private static final int CHUNKS_PER_THREAD = 4;
+	// kleinere Bereiche lohnen den Aufwand nicht
+	private static final long MIN_CHUNK = 1 << 20;
+
+	private final PersonService personService;
+	private final ResourceService resourceService;
+	private final int parallelism;
+
+	public ImportService(PersonService personService, ResourceService resourceService) {
+		this(personService, resourceService, Runtime.getRuntime().availableProcessors());
+	}
+
+	public ImportService(PersonService personService, ResourceService resourceService, int parallelism) {
+		if (parallelism < 1)
+			throw new IllegalArgumentException("Parallelism must be at least 1: " + parallelism);
+		this.personService = personService;
+		this.resourceService = resourceService;
+		this.parallelism = parallelism;
+	}
+
+	public ImportResult importPersons(Path csv) throws IOException {
+		ImportResult result = importRows(csv, "type", ImportService::parsePerson, personService::addPersons);
+		System.out.println("Persons imported: " + result);
+		return result;
+	}
+
+	public ImportResult importResources(Path csv) throws IOException {
+		ImportResult result = importRows(csv, "name", ImportService::parseResource, resourceService::addResources);
+		System.out.println("Resources imported: " + result);
+		return result;
+	}
+
+	private static Person parsePerson(String[] f, int count) {
+		if (count != 2)
+			throw new IllegalArgumentException("Expected 2 fields (type,name) but found " + count);
+		return PersonFactory.create(f[0].trim(), f[1]);
+	}
+
+	private static Resource parseResource(String[] f, int count) {
+		if (count < 2 || count > 4)
+			throw new IllegalArgumentException("Expected 2 to 4 fields (name,price,class,extras) but found " + count);
+		String name = f[0].trim();
+		if (name.isEmpty())
+			throw new IllegalArgumentException("Resource name required");
+		double price;
+		try {
+			price = Double.parseDouble(f[1].trim());
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("Invalid price: " + f[1]);
+		}
+		if (!(price >= 0))
+			throw new IllegalArgumentException("Invalid price: " + f[1]);
+		ResourceClass resourceClass = null;
+		if (count > 2 && !f[2].trim().isEmpty()) {
+			try {
+				resourceClass = ResourceClass.valueOf(f[2].trim().toUpperCase(Locale.ROOT));
+			} catch (IllegalArgumentException e) {
+				throw new IllegalArgumentException("Unknown resource class: " + f[2]);
+			}
+		}
+		EnumSet<Extra> extras = EnumSet.noneOf(Extra.class);
+		if (count > 3) {
+			for (String extra : f[3].split("\\+")) {
+				String e = extra.trim().replace(" ", "").toLowerCase(Locale.ROOT);
+				if (e.isEmpty())
+					continue;
+				if (e.equals("childseat"))
+					extras.add(Extra.CHILD_SEAT);
+				else if (e.equals("settopbox"))
+					extras.add(Extra.SET_TOP_BOX);
+				else
+					throw new IllegalArgumentException("Unknown extra: " + extra);
+			}
+		}
+		return new Car(name, price, resourceClass, extras);
+	}
+
+	private <T> ImportResult importRows(Path csv, String header, RowParser<T> parser,
+			Function<List<T>, BitSet> insert) throws IOException {
+		try (FileChannel channel = FileChannel.open(csv, StandardOpenOption.READ)) {
+			int chunks = parallelism == 1 ? 1
+					: (int) Math.max(1, Math.min((long) parallelism * CHUNKS_PER_THREAD, channel.size() / MIN_CHUNK));
+			long[] bounds = CsvReader.split(channel, chunks);
+			List<Chunk<T>> parsed = new ArrayList<>(chunks);
+			if (chunks == 1) {
+				parsed.add(parse(channel, bounds[0], bounds[1], header, parser));
+			} else {
+				ExecutorService pool = Executors.newFixedThreadPool(Math.min(parallelism, chunks));
+				try {
+					List<Future<Chunk<T>>> futures = new ArrayList<>(chunks);
+					for (int i = 0; i < chunks; i++) {
+						long start = bounds[i];
+						long end = bounds[i + 1];
+						String h = i == 0 ? header : null;
+						futures.add(pool.submit(() -> parse(channel, start, end, h, parser)));
+					}
+					for (Future<Chunk<T>> f : futures)
+						parsed.add(f.get());
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new IOException("Import of " + csv + " was interrupted", e);
+				} catch (ExecutionException e) {
+					if (e.getCause() instanceof IOException)
+						throw (IOException) e.getCause();
+					throw new IllegalStateException("Import of " + csv + " failed", e.getCause());
+				} finally {
+					pool.shutdownNow();
+				}
+			}
+
+			// in Dateireihenfolge anlegen; Ablehnungen mit Zeilennummern in der ganzen Datei melden
+			ImportResult result = new ImportResult();
+			long offset = 0;
+			for (Chunk<T> c : parsed) {
+				BitSet duplicates = insert.apply(c.rows);
+				result.accepted(c.rows.size() - duplicates.cardinality());
+				List<ImportResult.Rejected> rejected = new ArrayList<>(c.rejected);
+				for (int i = duplicates.nextSetBit(0); i >= 0; i = duplicates.nextSetBit(i + 1))
+					rejected.add(new ImportResult.Rejected(c.lines[i], "Duplicate name: " + name(c.rows.get(i))));
+				rejected.sort(Comparator.comparingLong(ImportResult.Rejected::getLine));
+				for (ImportResult.Rejected r : rejected)
+					result.rejected(offset + r.getLine(), r.getError());
+				offset += c.lineCount;
+			}
+			return result;
+		}
+	}
+
+	// header: Name der ersten Spalte einer möglichen Kopfzeile, nur für den ersten Bereich
+	private static <T> Chunk<T> parse(FileChannel channel, long start, long end, String header, RowParser<T> parser)
+			throws IOException {
+		Chunk<T> chunk = new Chunk<>();
+		CsvReader reader = new CsvReader(channel, BUFFER_SIZE);
+		chunk.lineCount = reader.read(start, end, new CsvReader.RowHandler() {
+			@Override
+			public void row(long line, String[] fields, int count) {
+				if (line == 1 && header != null && fields[0].trim().equalsIgnoreCase(header))
+					return;
+				try {
+					chunk.add(parser.parse(fields, count), line);
+				} catch (IllegalArgumentException e) {
+					chunk.rejected.add(new ImportResult.Rejected(line, e.getMessage()));
+				}
+			}
+
+			@Override
+			public void malformed(long line, String error) {
+				chunk.rejected.add(new ImportResult.Rejected(line, error));
+			}
+		});
+		return chunk;
+	}
+
+	private static String name(Object row) {
+		return row instanceof Person ? ((Person) row).getName() : ((Resource) row).getName();
+	}
+}
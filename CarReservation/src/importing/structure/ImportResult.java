@@ -0,0 +1,57 @@
+package importing.structure;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// Ergebnisbericht eines CSV-Imports: Anzahl angelegter Einträge und die abgewiesenen Zeilen mit Grund,
+// nach Zeilennummer sortiert. Angelegte Zeilen werden nur gezählt, nicht einzeln aufgeführt.
+public final class ImportResult {
+
+	public static final class Rejected {
+		private final long line;
+		private final String error;
+
+		public Rejected(long line, String error) {
+			this.line = line;
+			this.error = error;
+		}
+
+		// Zeilennummer in der Datei, ab 1
+		public long getLine() { return line; }
+		public String getError() { return error; }
+
+		@Override
+		public String toString() {
+			return "line " + line + ": " + error;
+		}
+	}
+
+	private final List<Rejected> rejected = new ArrayList<>();
+	private long acceptedCount = 0;
+
+	public void accepted(long count) {
+		acceptedCount += count;
+	}
+
+	public void rejected(long line, String error) {
+		rejected.add(new Rejected(line, error));
+	}
+
+	public List<Rejected> getRejected() {
+		return Collections.unmodifiableList(rejected);
+	}
+
+	public long getAcceptedCount() {
+		return acceptedCount;
+	}
+
+	public int getRejectedCount() {
+		return rejected.size();
+	}
+
+	@Override
+	public String toString() {
+		return "Import { created = " + acceptedCount + ", rejected = " + rejected.size() + " }";
+	}
+}
@@ -1,6 +1,7 @@
 package payment.behaviour;
 
 import booking.behaviour.BookingService; // falls ihr das so nutzt
+import booking.behaviour.HoldService;
 import booking.structure.Booking; // besser nur structure importieren
 import payment.structure.*;
 import person.structure.LegalPerson;
@@ -9,9 +10,15 @@ public class PaymentService {
 
 	private final BookingService bookingService;
 	private final Account companyAccount; // Account der Firma, die Zahlungen empfängt
+	private final HoldService holdService; // optional: Zahlung bestätigt vorläufige Buchungen
 
 	public PaymentService(BookingService bookingService) {
+		this(bookingService, null);
+	}
+
+	public PaymentService(BookingService bookingService, HoldService holdService) {
 		this.bookingService = bookingService;
+		this.holdService = holdService;
 		this.companyAccount = new Account("COMPANY_ACC_001", new LegalPerson("CarReservation GmbH"), 0.0);
 	}
 
@@ -32,7 +39,30 @@ public class PaymentService {
 		case MOBILE_MONEY_WALLET -> new MobileMoneyWalletProcessor();
 		};
 
-		return p.processPayment(sender, receiver, amount);
+		// vorläufige Buchung vor der Zahlung bestätigen, damit sie nicht währenddessen abläuft
+		boolean wasHeld = holdService != null && holdService.isHeld(bookingId);
+		if (wasHeld && !holdService.confirm(bookingId)) {
+			System.out.println("Payment failed: reservation has expired: " + bookingId);
+			return false;
+		}
+		boolean paid = false;
+		try {
+			paid = p.processPayment(sender, receiver, amount);
+		} finally {
+			// Zahlung fehlgeschlagen: Reservierung läuft mit neuer Frist weiter, sofern es die Buchung noch gibt
+			if (!paid && wasHeld)
+				rehold(bookingId);
+		}
+		return paid;
+	}
+
+	// darf weder das Ergebnis noch eine Exception der Zahlung verdecken
+	private void rehold(String bookingId) {
+		try {
+			holdService.hold(bookingId);
+		} catch (IllegalArgumentException e) {
+			System.out.println("Reservation not renewed, booking was deleted during payment: " + bookingId);
+		}
 	}
 
 	public Account getCompanyAccount() {
@@ -32,13 +32,15 @@ public class PersonClient {
 	private static final class DeleteCommand implements Command {
 		private final PersonService svc;
 		private final String name;
-		// Snapshot für Undo
+		private final boolean cascade;
+		// Snapshot für Undo (mitgelöschte Buchungen werden nicht wiederhergestellt)
 		private String snapType; // "natural" oder "legal"
 		private String snapName;
 		
-		public DeleteCommand(PersonService svc, String name) {
+		public DeleteCommand(PersonService svc, String name, boolean cascade) {
 			this.svc = svc;
 			this.name = name;
+			this.cascade = cascade;
 		}
 		
 		public void execute() {
@@ -47,7 +49,7 @@ public class PersonClient {
 			this.snapType = "LegalPerson".equals(cls) ? "legal" : "natural";
 			this.snapName = p.getName();
 			
-			svc.deletePerson(name);
+			svc.deletePerson(name, cascade);
 		}
 		
 		public void undo() {
@@ -107,7 +109,8 @@ public class PersonClient {
 			System.out.println("3. Show Persons");
 			System.out.println("4. Undo");
 			System.out.println("5. Redo");
-			System.out.println("6. Back to Main Menu");
+			System.out.println("6. Search Persons");
+			System.out.println("7. Back to Main Menu");
 			System.out.print("Your choice: ");
 			
 			int choice = scanner.nextInt();
@@ -137,6 +140,9 @@ public class PersonClient {
 						System.out.println("Nothing to redo.");
 					break;
 				case 6:
+					searchPersons();
+					break;
+				case 7:
 						System.out.println("Exiting...");
 					return;
 				default:
@@ -162,8 +168,21 @@ public class PersonClient {
 	private void deletePerson() {
 		System.out.println("Enter name of the person to delete: ");
 		String name = scanner.nextLine().trim();
+		System.out.println("Also delete the bookings and account of this person? (y/n): ");
+		boolean cascade = scanner.nextLine().trim().toLowerCase().startsWith("y");
+		
+		history.execute(new DeleteCommand(personService, name, cascade));
+	}
+	
+	private void searchPersons() {
+		System.out.println("Enter the beginning of the name: ");
+		String prefix = scanner.nextLine().trim();
 		
-		history.execute(new DeleteCommand(personService, name));
+		var found = personService.findPersonsByPrefix(prefix, 20);
+		if (found.isEmpty())
+			System.out.println("No matching persons.");
+		for (person.structure.Person p : found)
+			System.out.println("- " + p);
 	}
 	
 	public static void main(String[] args) {
@@ -1,73 +1,285 @@
 package person.behaviour;
 
+import person.structure.NameIndex;
 import person.structure.Person;
 import person.structure.PersonFactory;
-import java.util.Arrays;
+import person.structure.PersonReferences;
+import person.structure.PersonStore;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public class PersonService implements Closeable {
+	// Eintrag im Index; seq legt die Einfügereihenfolge fest, die Person selbst liegt im PersonStore
+	private static final class Entry {
+		final long seq;
+		final PersonStore.Ref ref;
+		// ID im Ähnlichkeitsindex
+		final int nameId;
+
+		Entry(long seq, PersonStore.Ref ref, int nameId) {
+			this.seq = seq;
+			this.ref = ref;
+			this.nameId = nameId;
+		}
+	}
+
+	// so viele Personen bleiben ohne Konto oder Anmeldedaten im Speicher
+	public static final int DEFAULT_HOT_CAPACITY = 10_000;
+
+	// Speicher: kleingeschriebener Name -> Eintrag, Lesen ohne Lock (O(1))
+	private final ConcurrentHashMap<String, Entry> byName = new ConcurrentHashMap<>();
+	// dieselben Schlüssel sortiert, für die Suche nach Namensanfängen (O(log n) + Treffer)
+	private final ConcurrentSkipListMap<String, Entry> sorted = new ConcurrentSkipListMap<>();
+	// Einfügereihenfolge für listPersons und getAllPersons
+	private final ConcurrentSkipListMap<Long, Entry> order = new ConcurrentSkipListMap<>();
+	// Trigramm-Index für die Dublettensuche
+	private final NameIndex<PersonStore.Ref> similar = new NameIndex<>();
+	// heiße Personen im Speicher, die übrigen in einer Datei
+	private final PersonStore store;
+	// Schreiber werden über den Monitor des Services serialisiert, damit die Indizes zusammenpassen
+	private long seq = 0;
+	// ab dieser Ähnlichkeit gilt ein Name beim Anlegen als mögliche Dublette
+	private static final double DUPLICATE_SIMILARITY = 0.8;
+	// Bestände mit Verweisen auf Personen (z.B. BookingService), werden beim Löschen gefragt
+	private final List<PersonReferences> references = new CopyOnWriteArrayList<>();
+
+	public PersonService() {
+		this(DEFAULT_HOT_CAPACITY);
+	}
+
+	public PersonService(int hotCapacity) {
+		this.store = new PersonStore(hotCapacity, null);
+	}
+
+	public void addReferences(PersonReferences r) {
+		if (r == null)
+			throw new IllegalArgumentException("References must not be null");
+		references.add(r);
+	}
 
-public class PersonService {
-	// Speicher, max. 10 Personen
-	private final Person[] store = new Person[10];
-	private int size = 0;
-	
 	public void createPerson(String type, String name) {
 		if (name == null || name.trim().isEmpty())
 			throw new IllegalArgumentException("Name cannot be null or empty");
-		if (findIndexByName(name) >= 0) {
-			System.out.println("Person with name " + name + " already exists.");
-			return;
+		Person p;
+		synchronized (this) {
+			if (byName.containsKey(key(name))) {
+				System.out.println("Person with name " + name + " already exists.");
+				return;
+			}
+			p = PersonFactory.create(type, name);
+			List<Person> candidates = findSimilarPersons(name, DUPLICATE_SIMILARITY, 3);
+			if (!candidates.isEmpty())
+				System.out.println("Warning: " + name + " may be a duplicate of " + candidates);
+			insert(p);
 		}
-		if (size >= store.length)
-			throw new IllegalStateException("Person store is full");
-	
-		Person p = PersonFactory.create(type, name);
-		store[size++] = p;
 		System.out.println("Person added: " + p);
 	}
-	
+
+	// Massenanlage (z.B. Import) ohne Ausgabe je Person. Bit i ist gesetzt, wenn persons.get(i)
+	// abgewiesen wurde, weil der Name schon vergeben ist.
+	public BitSet addPersons(List<Person> persons) {
+		for (Person p : persons)
+			if (p == null || p.getName() == null || p.getName().trim().isEmpty())
+				throw new IllegalArgumentException("Name cannot be null or empty");
+		BitSet duplicates = new BitSet();
+		synchronized (this) {
+			for (int i = 0; i < persons.size(); i++)
+				if (!insert(persons.get(i)))
+					duplicates.set(i);
+		}
+		return duplicates;
+	}
+
+	private synchronized boolean insert(Person p) {
+		String key = key(p.getName());
+		if (byName.containsKey(key))
+			return false;
+		PersonStore.Ref ref = store.add(p);
+		Entry e = new Entry(++seq, ref, similar.add(ref, p.getName()));
+		order.put(e.seq, e);
+		sorted.put(key, e);
+		byName.put(key, e);
+		return true;
+	}
+
 	// Liste aller Personen ausgeben
 	public void listPersons() {
-		if (size == 0) {
+		if (order.isEmpty()) {
 			System.out.println("No persons available.");
 			return;
 		}
-		for (int i = 0; i < size; i++)
-			System.out.println("- " + store[i]);
+		getAllPersons().forEach(p -> System.out.println("- " + p));
 	}
-	
+
+	// löscht nur Personen ohne Buchungen und Konto
 	public void deletePerson(String name) {
-		int idx = findIndexByName(name);
-		if (idx < 0) {
-			System.out.println("Person not found: " + name);
-			return;
+		deletePerson(name, false);
+	}
+
+	// cascade: Buchungen und Konto der Person mitlöschen, sonst wird bei vorhandenen Daten abgelehnt.
+	// Der Aufwand hängt nur von den Daten dieser Person ab (Indizes der Bestände), nicht von deren Größe.
+	// Der Name bleibt bis nach der Kaskade belegt: eine währenddessen gleichnamig angelegte Person würde
+	// sonst ihre neuen Buchungen verlieren.
+	public void deletePerson(String name, boolean cascade) {
+		Person p;
+		Entry e;
+		synchronized (this) {
+			e = name == null ? null : byName.get(key(name));
+			p = e == null ? null : store.get(e.ref);
+			// eine zweite Löschung derselben Person, während die erste noch läuft, findet sie nicht mehr
+			if (p == null || p.isDeleted()) {
+				System.out.println("Person not found: " + name);
+				return;
+			}
+			// Grabstein vor dem Zählen: eine parallele Buchung ist entweder schon mitgezählt oder sieht ihn
+			// und wird abgewiesen (BookingService prüft ihn nach dem Eintragen in seine Indizes)
+			p.setDeleted(true);
+			if (!cascade) {
+				int count = 0;
+				for (PersonReferences r : references)
+					count += r.countReferences(p);
+				if (count > 0 || p.getAccount() != null) {
+					p.setDeleted(false);
+					throw new IllegalStateException("Person " + name + " still has " + count + " booking(s)"
+							+ (p.getAccount() != null ? " and an account" : "") + "; delete with cascade");
+				}
+				remove(key(name), e);
+				System.out.println("Person deleted: " + name);
+				return;
+			}
+		}
+		// Kaskade außerhalb des Monitors (schreibt ins Buchungs-Log), der Name ist noch reserviert
+		int removed = 0;
+		for (PersonReferences r : references)
+			removed += r.removeReferences(p);
+		if (p.getAccount() != null) {
+			p.setAccount(null);
+			removed++;
+		}
+		synchronized (this) {
+			remove(key(name), e);
 		}
-		// Löschen der Person
-		for (int i = idx; i < size - 1; i++)
-			store[i] = store[i + 1];
-		size--;
-		store[size] = null;
-		System.out.println("Person deleted: " + name);
-	}
-	
+		System.out.println("Person deleted: " + name + " (" + removed + " dependent entries removed)");
+	}
+
+	private void remove(String key, Entry e) {
+		byName.remove(key, e);
+		sorted.remove(key, e);
+		order.remove(e.seq, e);
+		similar.remove(e.nameId);
+		store.remove(e.ref);
+	}
+
 	// Benötigt für BookingService
 	public Person findPersonByName(String name) {
-		int idx = findIndexByName(name);
-		if (idx < 0) throw new IllegalArgumentException("Person not found: " + name);
-		return store[idx];
+		Entry e = name == null ? null : byName.get(key(name));
+		Person p = e == null ? null : store.get(e.ref);
+		if (p == null) throw new IllegalArgumentException("Person not found: " + name);
+		return p;
+	}
+
+	// Benötigt für BookingService.createBookings: alle Namen in einem Durchlauf auflösen,
+	// Schlüssel ist der kleingeschriebene Name, nicht gefundene Namen fehlen in der Map
+	public Map<String, Person> findPersonsByName(Collection<String> names) {
+		Map<String, Person> found = new HashMap<>();
+		for (String n : names) {
+			if (n == null)
+				continue;
+			String key = key(n);
+			Entry e = byName.get(key);
+			Person p = e == null || found.containsKey(key) ? null : store.get(e.ref);
+			if (p != null)
+				found.put(key, p);
+		}
+		return found;
+	}
+
+	// Autovervollständigung: höchstens limit Personen, deren Name (case-insensitive) mit prefix beginnt,
+	// alphabetisch sortiert. Kostet O(log n + limit), unabhängig von der Größe des Verzeichnisses.
+	public List<Person> findPersonsByPrefix(String prefix, int limit) {
+		if (limit < 0)
+			throw new IllegalArgumentException("Invalid limit: " + limit);
+		List<Person> out = new ArrayList<>(Math.min(limit, 64));
+		if (prefix == null || limit == 0)
+			return out;
+		String from = key(prefix);
+		for (Map.Entry<String, Entry> e : sorted.tailMap(from, true).entrySet()) {
+			if (out.size() >= limit || !e.getKey().startsWith(from))
+				break;
+			Person p = store.get(e.getValue().ref);
+			if (p != null)
+				out.add(p);
+		}
+		return out;
 	}
-	
-	private int findIndexByName(String name) {
+
+	// Personen mit ähnlichem Namen (z.B. "Mueller GmbH" zu "Müller GmbH"), die ähnlichsten zuerst;
+	// minSimilarity zwischen 0 (exklusiv) und 1 (gleiche Schreibweise nach Normalisierung)
+	public List<Person> findSimilarPersons(String name, double minSimilarity, int limit) {
+		List<Person> out = new ArrayList<>();
 		if (name == null)
-			return -1;
-		for (int i = 0; i < size; i++) {
-			if (store[i].getName().equalsIgnoreCase(name))
-				return i;
+			return out;
+		for (NameIndex.Match<PersonStore.Ref> m : similar.findSimilar(name, minSimilarity, limit)) {
+			Person p = store.get(m.getItem());
+			if (p != null)
+				out.add(p);
+		}
+		return out;
+	}
+
+	// Gruppen wahrscheinlicher Dubletten im ganzen Verzeichnis, auf allen Kernen berechnet;
+	// kalte Personen werden dafür gelesen, aber nicht in den Speicher aufgenommen
+	public List<List<Person>> findDuplicateClusters(double minSimilarity) {
+		List<List<Person>> out = new ArrayList<>();
+		for (List<PersonStore.Ref> cluster : similar.clusters(minSimilarity)) {
+			List<Person> persons = cluster.stream().map(store::peek).filter(Objects::nonNull)
+					.collect(Collectors.toList());
+			if (persons.size() > 1)
+				out.add(persons);
+		}
+		return out;
+	}
+
+	// Treffer, Nachladen aus der Datei und Verdrängungen des Personenspeichers
+	public PersonStore.Statistics getStoreStatistics() {
+		return store.getStatistics();
+	}
+
+	public int getPersonCount() {
+		return byName.size();
+	}
+
+	private static String key(String name) {
+		return name.toLowerCase(Locale.ROOT);
+	}
+
+	// Datei der kalten Personen schließen und löschen
+	@Override
+	public void close() {
+		try {
+			store.close();
+		} catch (IOException e) {
+			throw new UncheckedIOException("Person store could not be closed", e);
 		}
-		return -1;
 	}
-	
-	// Benötigt für Authentication
-	public List<Person> getAllPersons() {
-		return Arrays.asList(Arrays.copyOf(store, size));
+
+	// Benötigt für Authentication: alle Personen in Einfügereihenfolge, erst beim Durchlaufen gelesen.
+	// Kalte Personen kommen aus der Datei, ohne heiße zu verdrängen.
+	public Stream<Person> getAllPersons() {
+		return order.values().stream().map(e -> store.peek(e.ref)).filter(Objects::nonNull);
 	}
 }
@@ -0,0 +1,364 @@
+package person.structure;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.IntStream;
+
+// Unscharfer Namensindex (Trigramme) für die Dublettensuche. Namen werden normalisiert (Kleinschreibung,
+// ä -> ae, ß -> ss, Akzente und Satzzeichen entfernt), "Müller GmbH" und "Mueller GmbH" sind danach gleich.
+// Ähnlichkeit ist der Dice-Koeffizient der Trigramm-Mengen. Kandidaten kommen aus invertierten Listen je
+// Trigramm; gelesen werden nur die Listen der seltensten Trigramme, die ein Treffer mindestens enthalten
+// muss (Präfix-Filter), sodass nie paarweise über den ganzen Bestand verglichen wird.
+// Die Gruppierung des ganzen Bestands wendet den Präfix-Filter auf beide Seiten eines Paares an und findet
+// dieselben Paare wie findSimilar, auch Tippfehler, die den Klang eines Namens ändern.
+// Gelöschte Einträge bleiben als Lücke in den Listen stehen und werden beim Lesen übersprungen.
+public final class NameIndex<T> {
+
+	public static final class Match<T> {
+		private final T item;
+		private final double similarity;
+
+		private Match(T item, double similarity) {
+			this.item = item;
+			this.similarity = similarity;
+		}
+
+		public T getItem() { return item; }
+		public double getSimilarity() { return similarity; }
+
+		@Override
+		public String toString() {
+			return item + " (" + Math.round(similarity * 100) + "%)";
+		}
+	}
+
+	// wachsende ID-Liste je Trigramm, aufsteigend
+	private static final class Postings {
+		int[] ids = new int[4];
+		int size;
+
+		void add(int id) {
+			if (size == ids.length)
+				ids = Arrays.copyOf(ids, size * 2);
+			ids[size++] = id;
+		}
+	}
+
+	// Liste für clusters: Ränge der Einträge, in deren Präfix das Trigramm liegt, und seine Position dort
+	private static final class PrefixPostings {
+		int[] ids = new int[4];
+		int[] positions = new int[4];
+		int size;
+
+		void add(int id, int position) {
+			if (size == ids.length) {
+				ids = Arrays.copyOf(ids, size * 2);
+				positions = Arrays.copyOf(positions, size * 2);
+			}
+			ids[size] = id;
+			positions[size++] = position;
+		}
+	}
+
+	private final HashMap<Long, Postings> postings = new HashMap<>();
+	// ID -> Eintrag (null = gelöscht) und seine Trigramme, sortiert und ohne Wiederholung
+	private final ArrayList<T> items = new ArrayList<>();
+	private final ArrayList<long[]> grams = new ArrayList<>();
+	private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+	// gibt die ID für remove() zurück
+	public int add(T item, String name) {
+		String normalized = normalize(name);
+		long[] g = grams(normalized);
+		lock.writeLock().lock();
+		try {
+			int id = items.size();
+			items.add(item);
+			grams.add(g);
+			for (long gram : g)
+				postings.computeIfAbsent(gram, k -> new Postings()).add(id);
+			return id;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	public void remove(int id) {
+		lock.writeLock().lock();
+		try {
+			items.set(id, null);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	// Einträge mit Ähnlichkeit >= minSimilarity (0 < minSimilarity <= 1), die ähnlichsten zuerst
+	public List<Match<T>> findSimilar(String name, double minSimilarity, int limit) {
+		checkSimilarity(minSimilarity);
+		if (limit < 0)
+			throw new IllegalArgumentException("Invalid limit: " + limit);
+		long[] q = grams(normalize(name));
+		List<Match<T>> out = new ArrayList<>();
+		lock.readLock().lock();
+		try {
+			for (int id : search(q, minSimilarity))
+				out.add(new Match<>(items.get(id), dice(q, grams.get(id))));
+		} finally {
+			lock.readLock().unlock();
+		}
+		out.sort((a, b) -> Double.compare(b.similarity, a.similarity));
+		return out.size() > limit ? new ArrayList<>(out.subList(0, limit)) : out;
+	}
+
+	// Gruppen wahrscheinlicher Dubletten über den ganzen Bestand (nur Gruppen ab zwei Einträgen): Paare mit
+	// Ähnlichkeit >= minSimilarity werden über Union-Find verbunden (transitiv), es sind dieselben Paare, die
+	// findSimilar liefert. Kandidaten über den Präfix-Filter auf beiden Seiten: die Trigramme werden nach
+	// Seltenheit nummeriert, die Einträge nach Anzahl der Trigramme geordnet (Rang). Indiziert werden nur die
+	// seltensten Trigramme jedes Eintrags, und jeder Eintrag liest nur die Listen seiner seltensten Trigramme
+	// und darin nur kürzere Einträge. Nummerieren und Suchen laufen parallel.
+	public List<List<T>> clusters(double minSimilarity) {
+		checkSimilarity(minSimilarity);
+		lock.readLock().lock();
+		try {
+			// Nummer je Trigramm: nach Länge der Liste, die seltensten zuerst
+			long[] distinct = new long[postings.size()];
+			long[] keys = new long[distinct.length];
+			int d = 0;
+			for (Map.Entry<Long, Postings> e : postings.entrySet()) {
+				distinct[d] = e.getKey();
+				keys[d] = (long) e.getValue().size << 32 | d;
+				d++;
+			}
+			Arrays.sort(keys);
+			HashMap<Long, Integer> rarity = new HashMap<>(distinct.length * 2);
+			for (int i = 0; i < keys.length; i++)
+				rarity.put(distinct[(int) keys[i]], i);
+
+			int[] byLength = IntStream.range(0, items.size()).filter(id -> items.get(id) != null).boxed()
+					.sorted(Comparator.comparingInt(id -> grams.get(id).length)).mapToInt(Integer::intValue).toArray();
+			int n = byLength.length;
+			int[][] tokens = new int[n][];
+			IntStream.range(0, n).parallel().forEach(r -> tokens[r] = tokens(grams.get(byLength[r]), rarity));
+			PrefixPostings[] prefixPostings = new PrefixPostings[distinct.length];
+			for (int r = 0; r < n; r++) {
+				int[] t = tokens[r];
+				for (int i = 0; i < indexPrefix(t.length, minSimilarity); i++) {
+					if (prefixPostings[t[i]] == null)
+						prefixPostings[t[i]] = new PrefixPostings();
+					prefixPostings[t[i]].add(r, i);
+				}
+			}
+			// je Rang die ähnlichen Einträge mit kleinerem Rang, jedes Paar also einmal
+			int[][] partners = new int[n][];
+			ThreadLocal<int[]> overlap = ThreadLocal.withInitial(() -> new int[n]);
+			IntStream.range(0, n).parallel()
+					.forEach(r -> partners[r] = partners(r, tokens, prefixPostings, overlap.get(), minSimilarity));
+			int[] parent = new int[n];
+			for (int r = 0; r < n; r++)
+				parent[r] = r;
+			for (int r = 0; r < n; r++)
+				for (int other : partners[r])
+					parent[find(parent, other)] = find(parent, r);
+			Map<Integer, List<T>> groups = new HashMap<>();
+			for (int r = 0; r < n; r++)
+				groups.computeIfAbsent(find(parent, r), k -> new ArrayList<>()).add(items.get(byLength[r]));
+			List<List<T>> out = new ArrayList<>();
+			for (List<T> g : groups.values())
+				if (g.size() > 1)
+					out.add(g);
+			return out;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	// Nummern der Trigramme, aufsteigend, also die seltensten zuerst
+	private static int[] tokens(long[] g, Map<Long, Integer> rarity) {
+		int[] t = new int[g.length];
+		for (int i = 0; i < g.length; i++)
+			t[i] = rarity.get(g[i]);
+		Arrays.sort(t);
+		return t;
+	}
+
+	// indizierter Präfix eines Eintrags mit a Trigrammen: gegenüber einem längeren Eintrag braucht ein Treffer
+	// mindestens ceil(min * a) gemeinsame Trigramme
+	private static int indexPrefix(int a, double min) {
+		return Math.min(a, a - (int) Math.ceil(min * a - 1e-9) + 1);
+	}
+
+	// Ränge < r, deren Eintrag die Ähnlichkeit erreicht. overlap (je Thread, anfangs und am Ende 0) zählt die
+	// gemeinsamen Präfix-Trigramme je Kandidat, -1 = verworfen. Da beide Seiten gleich geordnet sind, kann ein
+	// Kandidat höchstens noch so viele Trigramme teilen, wie auf beiden Seiten nachfolgen (Positionsfilter);
+	// reicht das nicht, wird er ohne Vergleich verworfen.
+	private static int[] partners(int r, int[][] tokens, PrefixPostings[] prefixPostings, int[] overlap, double min) {
+		int[] q = tokens[r];
+		int a = q.length;
+		// Längenfilter: kürzere Treffer haben mindestens minShared Trigramme
+		int minLength = minShared(a, min);
+		int probe = a - minLength + 1;
+		int[] touched = new int[16];
+		int count = 0;
+		for (int i = 0; i < probe; i++) {
+			PrefixPostings p = prefixPostings[q[i]];
+			if (p == null)
+				continue;
+			// Ränge aufsteigend, also auch die Längen: von r abwärts bis zum ersten zu kurzen Eintrag
+			int k = Arrays.binarySearch(p.ids, 0, p.size, r);
+			for (k = (k >= 0 ? k : -k - 1) - 1; k >= 0; k--) {
+				int other = p.ids[k];
+				int b = tokens[other].length;
+				if (b < minLength)
+					break;
+				int shared = overlap[other];
+				if (shared < 0)
+					continue;
+				if (shared == 0) {
+					if (count == touched.length)
+						touched = Arrays.copyOf(touched, count * 2);
+					touched[count++] = other;
+				}
+				int needed = (int) Math.ceil(min * (a + b) / 2 - 1e-9);
+				overlap[other] = shared + 1 + Math.min(a - i - 1, b - p.positions[k] - 1) < needed ? -1 : shared + 1;
+			}
+		}
+		int n = 0;
+		for (int k = 0; k < count; k++) {
+			int other = touched[k];
+			if (overlap[other] > 0 && reaches(q, tokens[other], min))
+				touched[n++] = other;
+			overlap[other] = 0;
+		}
+		return Arrays.copyOf(touched, n);
+	}
+
+	private static int find(int[] parent, int x) {
+		while (parent[x] != x) {
+			parent[x] = parent[parent[x]];
+			x = parent[x];
+		}
+		return x;
+	}
+
+	// IDs lebender Einträge mit Ähnlichkeit >= min; Aufrufer hält den Lese-Lock
+	private List<Integer> search(long[] q, double min) {
+		List<Integer> out = new ArrayList<>();
+		int a = q.length;
+		if (a == 0)
+			return out;
+		// ein Treffer teilt mindestens minShared Trigramme, also eines der ersten a - minShared + 1 seltensten
+		int minShared = minShared(a, min);
+		Postings[] lists = new Postings[a];
+		for (int i = 0; i < a; i++)
+			lists[i] = postings.get(q[i]);
+		Arrays.sort(lists, (x, y) -> Integer.compare(x == null ? 0 : x.size, y == null ? 0 : y.size));
+		// die (aufsteigenden) Listen des Präfixes ohne Wiederholungen zusammenführen
+		int[] candidates = new int[0];
+		int count = 0;
+		for (int i = 0; i < a - minShared + 1; i++) {
+			Postings p = lists[i];
+			if (p == null)
+				continue;
+			int[] merged = new int[count + p.size];
+			int n = 0;
+			int x = 0;
+			int y = 0;
+			while (x < count || y < p.size) {
+				int next = y >= p.size || (x < count && candidates[x] <= p.ids[y]) ? candidates[x++] : p.ids[y++];
+				if (n == 0 || merged[n - 1] != next)
+					merged[n++] = next;
+			}
+			candidates = merged;
+			count = n;
+		}
+		for (int k = 0; k < count; k++) {
+			int id = candidates[k];
+			if (items.get(id) == null)
+				continue;
+			long[] g = grams.get(id);
+			// Längenfilter: b muss zwischen min*a/(2-min) und a*(2-min)/min liegen
+			if (g.length < minShared || g.length * min > a * (2 - min) + 1e-9)
+				continue;
+			if (dice(q, g) >= min - 1e-9)
+				out.add(id);
+		}
+		return out;
+	}
+
+	// so viele Trigramme teilt ein Treffer mit a Trigrammen mindestens
+	private static int minShared(int a, double min) {
+		return Math.max(1, (int) Math.ceil(min * a / (2 - min) - 1e-9));
+	}
+
+	// Dice-Koeffizient der sortierten Mengen a und b >= min; bricht ab, sobald die übrigen nicht mehr reichen
+	private static boolean reaches(int[] a, int[] b, double min) {
+		int needed = (int) Math.ceil(min * (a.length + b.length) / 2 - 1e-9);
+		int shared = 0;
+		for (int i = 0, j = 0; i < a.length && j < b.length;) {
+			if (shared + Math.min(a.length - i, b.length - j) < needed)
+				return false;
+			if (a[i] == b[j]) {
+				shared++;
+				i++;
+				j++;
+			} else if (a[i] < b[j]) {
+				i++;
+			} else {
+				j++;
+			}
+		}
+		return shared >= needed;
+	}
+
+	private static double dice(long[] a, long[] b) {
+		int shared = 0;
+		for (int i = 0, j = 0; i < a.length && j < b.length;) {
+			if (a[i] == b[j]) {
+				shared++;
+				i++;
+				j++;
+			} else if (a[i] < b[j]) {
+				i++;
+			} else {
+				j++;
+			}
+		}
+		return a.length + b.length == 0 ? 0 : 2.0 * shared / (a.length + b.length);
+	}
+
+	private static void checkSimilarity(double min) {
+		if (!(min > 0 && min <= 1))
+			throw new IllegalArgumentException("Similarity must be in (0, 1]: " + min);
+	}
+
+	// Vergleichsform eines Namens: nur Buchstaben und Ziffern, Wörter durch ein Leerzeichen getrennt
+	public static String normalize(String name) {
+		String s = name.toLowerCase(Locale.ROOT)
+				.replace("ä", "ae").replace("ö", "oe").replace("ü", "ue").replace("ß", "ss");
+		s = Normalizer.normalize(s, Normalizer.Form.NFD).replaceAll("\\p{M}+", "");
+		return s.replaceAll("[^\\p{L}\\p{N}]+", " ").trim();
+	}
+
+	// Trigramme mit je einem Leerzeichen als Rand, als long kodiert (3 x 16 Bit), sortiert
+	private static long[] grams(String normalized) {
+		if (normalized.isEmpty())
+			return new long[0];
+		String s = " " + normalized + " ";
+		long[] g = new long[Math.max(1, s.length() - 2)];
+		for (int i = 0; i + 2 < s.length(); i++)
+			g[i] = ((long) s.charAt(i) << 32) | ((long) s.charAt(i + 1) << 16) | s.charAt(i + 2);
+		Arrays.sort(g);
+		int n = 0;
+		for (int i = 0; i < g.length; i++)
+			if (i == 0 || g[i] != g[i - 1])
+				g[n++] = g[i];
+		return Arrays.copyOf(g, n);
+	}
+}
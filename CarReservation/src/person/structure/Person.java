@@ -8,6 +8,12 @@ public abstract class Person implements Subject {
 	protected final String name;
 	private Credential credential;
 	private Account account;
+	// gesetzt, sobald PersonService die Person löscht; BookingService weist dann neue Buchungen ab.
+	// Liegt die Person im PersonStore, steht das Kennzeichen in dessen Eintrag und gilt für alle ihre Objekte.
+	private volatile boolean deleted;
+	// Eintrag im PersonStore, null außerhalb davon. Eine kalte Person wird bei jedem Lesen neu angelegt;
+	// alle Objekte derselben gespeicherten Person teilen sich den Eintrag.
+	private volatile PersonStore.Ref ref;
 
 	public Credential getCredential() {
 		return this.credential;
@@ -15,6 +21,7 @@ public abstract class Person implements Subject {
 
 	public void setCredential(Credential credential) {
 		this.credential = credential;
+		changed();
 	}
 
 	protected Person(String name) {
@@ -31,6 +38,40 @@ public abstract class Person implements Subject {
 
 	public void setAccount(Account account) {
 		this.account = account;
+		changed();
+	}
+
+	public boolean isDeleted() {
+		PersonStore.Ref r = ref;
+		return r != null ? r.deleted : deleted;
+	}
+
+	public void setDeleted(boolean deleted) {
+		PersonStore.Ref r = ref;
+		if (r != null)
+			r.deleted = deleted;
+		else
+			this.deleted = deleted;
+	}
+
+	// true, wenn beide Objekte dieselbe gespeicherte Person darstellen, auch nach Verdrängen und Nachladen;
+	// eine gelöschte und unter gleichem Namen neu angelegte Person ist eine andere
+	public boolean isSamePerson(Person other) {
+		if (other == this)
+			return true;
+		PersonStore.Ref r = ref;
+		return r != null && other != null && other.ref == r;
+	}
+
+	void attach(PersonStore.Ref ref) {
+		this.ref = ref;
+	}
+
+	// Konto und Anmeldedaten stehen nicht in der Datei: der Speicher muss davon erfahren
+	private void changed() {
+		PersonStore.Ref r = ref;
+		if (r != null)
+			r.changed(this);
 	}
 
 	@Override
@@ -0,0 +1,12 @@
+package person.structure;
+
+// Datenbestand, der auf Personen verweist (z.B. Buchungen). PersonService fragt ihn vor dem Löschen
+// einer Person; beide Methoden sollen nur die Daten dieser Person anfassen, nicht den ganzen Bestand.
+public interface PersonReferences {
+
+	// Anzahl der Einträge, die auf die Person verweisen
+	int countReferences(Person person);
+
+	// alle Einträge der Person entfernen; gibt die Anzahl zurück
+	int removeReferences(Person person);
+}
@@ -0,0 +1,344 @@
+package person.structure;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.concurrent.atomic.LongAdder;
+
+// Zweistufiger Personenspeicher: höchstens 'capacity' Personen liegen im Speicher (heiß), die übrigen als
+// kompakter Satz in einer Datei (kalt) und werden erst beim Zugriff wieder gelesen.
+// Verdrängt wird nach CLOCK (Näherung an LRU): ein Treffer setzt nur ein Bit und kommt ohne Lock aus,
+// die Uhr gibt Personen mit gesetztem Bit eine zweite Runde. Personen mit Konto oder Anmeldedaten
+// tragen Zustand, der nicht in der Datei steht; sie bleiben immer im Speicher (gepinnt).
+// Von einer kalten Person bleibt nur der Eintrag (Ref) mit der Position ihres Satzes. Wird sie gelesen,
+// entsteht ein neues Objekt; es kann also mehrere Objekte derselben Person geben (z.B. eines in einer
+// Buchung von vor dem Verdrängen). Sie teilen sich den Eintrag (Person.isSamePerson, Lösch-Grabstein) und
+// melden Änderungen an Konto und Anmeldedaten: ein Objekt außerhalb des Speichers wird dann gepinnt,
+// sonst wird der Zustand in das Objekt im Speicher übernommen.
+//
+// Heap je Person in einem PersonService (gemessen mit 200.000 Personen, Namen mit 12 Zeichen, 64-Bit-JVM
+// mit komprimierten Referenzen): heiß etwa 600 Byte, kalt etwa 510 Byte plus 17 Byte in der Datei.
+// Die kalte Stufe spart nur Person, Name und Platz in der Uhr (etwa 90 Byte); Ref und die Indizes von
+// PersonService (Namens-Maps, Reihenfolge, NameIndex) bleiben für jede Person im Speicher.
+//
+// Satzformat (big endian): int Länge des Namens, byte Typ (0 = natürlich, 1 = juristisch), Name als UTF-8.
+// Ein Satz wird erst beim ersten Verdrängen geschrieben und danach nie geändert; Sätze gelöschter Personen
+// bleiben als Lücke stehen. Die Datei wird beim ersten Verdrängen angelegt und mit close() gelöscht.
+public final class PersonStore implements Closeable {
+
+	// Verweis auf eine gespeicherte Person, egal in welcher Stufe sie gerade liegt
+	public static final class Ref {
+		private final PersonStore store;
+		// gesetzt, solange die Person heiß oder gepinnt ist
+		private volatile Person person;
+		private volatile boolean referenced;
+		// Position des Satzes in der Datei, -1 solange nie verdrängt
+		private long offset = -1;
+		private boolean pinned;
+		private boolean removed;
+		// Grabstein von PersonService, gilt für alle Objekte der Person
+		volatile boolean deleted;
+
+		private Ref(PersonStore store, Person person) {
+			this.store = store;
+			this.person = person;
+		}
+
+		void changed(Person p) {
+			store.changed(this, p);
+		}
+	}
+
+	public static final class Statistics {
+		private final long hits;
+		private final long misses;
+		private final long evictions;
+		private final int hot;
+		private final int pinned;
+		private final long fileBytes;
+
+		private Statistics(long hits, long misses, long evictions, int hot, int pinned, long fileBytes) {
+			this.hits = hits;
+			this.misses = misses;
+			this.evictions = evictions;
+			this.hot = hot;
+			this.pinned = pinned;
+			this.fileBytes = fileBytes;
+		}
+
+		// Zugriffe, die die Person im Speicher fanden
+		public long getHits() { return hits; }
+		// Zugriffe, für die der Satz aus der Datei gelesen wurde
+		public long getMisses() { return misses; }
+		public long getEvictions() { return evictions; }
+		public int getHotCount() { return hot; }
+		public int getPinnedCount() { return pinned; }
+		public long getFileBytes() { return fileBytes; }
+
+		public double getHitRate() {
+			long total = hits + misses;
+			return total == 0 ? 0 : (double) hits / total;
+		}
+
+		@Override
+		public String toString() {
+			return "hits=" + hits + ", misses=" + misses + ", evictions=" + evictions
+					+ ", hot=" + hot + ", pinned=" + pinned + ", file=" + fileBytes + " bytes, hit rate="
+					+ Math.round(getHitRate() * 100) + "%";
+		}
+	}
+
+	private static final int HEADER = 5;
+	// Schreibpuffer für verdrängte Sätze
+	private static final int BUFFER = 64 * 1024;
+
+	private final int capacity;
+	private final Path dir;
+	// Uhr über die heißen Personen; alles Übrige ist durch den Monitor des Speichers geschützt.
+	// Gelöschte Einträge bleiben liegen, bis die Uhr sie erreicht.
+	private final ArrayDeque<Ref> clock = new ArrayDeque<>();
+	private int hot;
+	private int pinned;
+	private FileChannel file;
+	private Path path;
+	// Sätze ab Position 'flushed' liegen noch im Puffer
+	private final ByteBuffer pending = ByteBuffer.allocate(BUFFER);
+	private long flushed;
+	private ByteBuffer readBuf = ByteBuffer.allocate(256);
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+
+	// dir: Verzeichnis für die Datei, null für das temporäre Verzeichnis
+	public PersonStore(int capacity, Path dir) {
+		if (capacity <= 0)
+			throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+		this.capacity = capacity;
+		this.dir = dir;
+	}
+
+	public synchronized Ref add(Person p) {
+		Ref r = new Ref(this, p);
+		p.attach(r);
+		admit(r, p);
+		return r;
+	}
+
+	// Person lesen; aus der Datei gelesene Personen werden wieder heiß
+	public Person get(Ref r) {
+		Person p = r.person;
+		if (p != null) {
+			r.referenced = true;
+			hits.increment();
+			return p;
+		}
+		synchronized (this) {
+			if (r.removed)
+				return null;
+			p = r.person;
+			if (p != null) {
+				hits.increment();
+				return p;
+			}
+			p = load(r);
+			misses.increment();
+			admit(r, p);
+			return p;
+		}
+	}
+
+	// Person lesen, ohne sie heiß zu machen (für Durchläufe über alle Personen, die den Cache nicht
+	// verdrängen sollen); eine kalte Person kommt als neues Objekt, das nur der Aufrufer hält.
+	// Zählt nicht in die Statistik.
+	public Person peek(Ref r) {
+		Person p = r.person;
+		if (p != null)
+			return p;
+		synchronized (this) {
+			if (r.removed)
+				return null;
+			p = r.person;
+			return p != null ? p : load(r);
+		}
+	}
+
+	public synchronized void remove(Ref r) {
+		if (r.removed)
+			return;
+		r.removed = true;
+		if (r.pinned)
+			pinned--;
+		else if (r.person != null)
+			hot--;
+		r.person = null;
+	}
+
+	public synchronized Statistics getStatistics() {
+		return new Statistics(hits.sum(), misses.sum(), evictions.sum(), hot, pinned,
+				flushed + pending.position());
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		if (file == null)
+			return;
+		file.close();
+		Files.deleteIfExists(path);
+		file = null;
+	}
+
+	private void admit(Ref r, Person p) {
+		r.person = p;
+		r.referenced = false;
+		if (isPinned(p)) {
+			r.pinned = true;
+			pinned++;
+			return;
+		}
+		clock.addLast(r);
+		hot++;
+		while (hot > capacity)
+			sweep();
+	}
+
+	// Konto oder Anmeldedaten von p geändert. Ist p nicht das Objekt im Speicher (kalt gelesen oder vor dem
+	// Verdrängen ausgegeben), ginge die Änderung verloren: ohne Objekt im Speicher wird p gepinnt, sonst wird
+	// der Zustand dorthin übernommen. Heiße Personen pinnt die Uhr beim nächsten Durchlauf.
+	private synchronized void changed(Ref r, Person p) {
+		if (r.removed)
+			return;
+		Person current = r.person;
+		if (current == p)
+			return;
+		if (current == null) {
+			if (!isPinned(p))
+				return;
+			r.person = p;
+			r.referenced = false;
+			r.pinned = true;
+			pinned++;
+			return;
+		}
+		// ruft changed mit current auf und endet dort
+		current.setAccount(p.getAccount());
+		current.setCredential(p.getCredential());
+	}
+
+	// ein Schritt der Uhr: zweite Runde, pinnen oder verdrängen
+	private void sweep() {
+		Ref r = clock.pollFirst();
+		Person p = r.person;
+		if (r.removed)
+			return;
+		if (r.referenced) {
+			r.referenced = false;
+			clock.addLast(r);
+		} else if (isPinned(p)) {
+			r.pinned = true;
+			hot--;
+			pinned++;
+		} else {
+			hot--;
+			if (r.offset < 0)
+				r.offset = append(p);
+			r.person = null;
+			evictions.increment();
+		}
+	}
+
+	private static boolean isPinned(Person p) {
+		return p.getAccount() != null || p.getCredential() != null;
+	}
+
+	private long append(Person p) {
+		byte[] name = p.getName().getBytes(StandardCharsets.UTF_8);
+		try {
+			if (pending.remaining() < HEADER + name.length)
+				flush();
+			long offset = flushed + pending.position();
+			if (pending.remaining() < HEADER + name.length) {
+				// größer als der Puffer: direkt schreiben
+				ByteBuffer big = ByteBuffer.allocate(HEADER + name.length);
+				put(big, p, name);
+				big.flip();
+				write(big);
+				return offset;
+			}
+			put(pending, p, name);
+			return offset;
+		} catch (IOException e) {
+			throw new UncheckedIOException("Person " + p.getName() + " could not be written to the store", e);
+		}
+	}
+
+	private static void put(ByteBuffer buf, Person p, byte[] name) {
+		buf.putInt(name.length);
+		buf.put((byte) (p instanceof LegalPerson ? 1 : 0));
+		buf.put(name);
+	}
+
+	private void flush() throws IOException {
+		pending.flip();
+		write(pending);
+		pending.clear();
+	}
+
+	private void write(ByteBuffer buf) throws IOException {
+		if (file == null) {
+			path = dir == null ? Files.createTempFile("persons", ".rec") : Files.createTempFile(dir, "persons", ".rec");
+			path.toFile().deleteOnExit();
+			file = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		}
+		while (buf.hasRemaining())
+			flushed += file.write(buf, flushed);
+	}
+
+	// Satz der Person lesen; das neue Objekt meldet Konto und Anmeldedaten an diesen Eintrag
+	private Person load(Ref r) {
+		long offset = r.offset;
+		try {
+			ByteBuffer rec = read(offset, HEADER);
+			int len = rec.getInt();
+			boolean legal = rec.get() == 1;
+			if (rec.remaining() < len)
+				rec = read(offset + HEADER, len);
+			String name = new String(rec.array(), rec.position(), len, StandardCharsets.UTF_8);
+			Person p = legal ? new LegalPerson(name) : new NaturalPerson(name);
+			p.attach(r);
+			return p;
+		} catch (IOException e) {
+			throw new UncheckedIOException("Person record at " + offset + " could not be read", e);
+		}
+	}
+
+	// mindestens 'bytes' Bytes ab offset, aus dem Puffer oder der Datei (ein Lesezugriff für kurze Sätze)
+	private ByteBuffer read(long offset, int bytes) throws IOException {
+		if (offset >= flushed) {
+			ByteBuffer buf = pending.duplicate();
+			buf.flip();
+			buf.position((int) (offset - flushed));
+			return buf;
+		}
+		if (readBuf.capacity() < bytes)
+			readBuf = ByteBuffer.allocate(Math.max(bytes, readBuf.capacity() * 2));
+		readBuf.clear();
+		long end = flushed;
+		while (readBuf.position() < bytes && offset + readBuf.position() < end) {
+			int n = file.read(readBuf, offset + readBuf.position());
+			if (n < 0)
+				break;
+		}
+		if (readBuf.position() < bytes)
+			throw new IOException("Truncated person record at " + offset);
+		readBuf.flip();
+		return readBuf;
+	}
+}
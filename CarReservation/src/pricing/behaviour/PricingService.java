@@ -0,0 +1,71 @@
+package pricing.behaviour;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import pricing.structure.Money;
+import pricing.structure.PricingRule;
+import pricing.structure.PricingTable;
+import pricing.structure.UtilizationSource;
+import resource.structure.Resource;
+
+// Dynamische Preise nach Saison, Wochentag, Vorlaufzeit und Auslastung. Der Regelsatz liegt übersetzt als
+// PricingTable hinter einer AtomicReference: setRules übersetzt den neuen Satz vollständig und tauscht ihn
+// dann in einem Schritt aus. Laufende Preisberechnungen lesen die Referenz einmal und rechnen mit der
+// Tabelle, die sie gesehen haben; Buchungen werden dabei nie angehalten.
+public class PricingService {
+
+	private final AtomicReference<PricingTable> table;
+	private final UtilizationSource utilization;
+	private final Clock clock;
+
+	// ohne Regeln: Preis = Grundpreis
+	public PricingService(ZoneId zone) {
+		this(zone, null, Clock.systemUTC());
+	}
+
+	// utilization null: Auslastung immer 0
+	public PricingService(ZoneId zone, UtilizationSource utilization, Clock clock) {
+		if (clock == null)
+			throw new IllegalArgumentException("Clock must not be null");
+		this.table = new AtomicReference<>(PricingTable.empty(zone));
+		this.utilization = utilization;
+		this.clock = clock;
+	}
+
+	// neuen Regelsatz übersetzen und atomar aktivieren; liefert den vorherigen Satz
+	public List<PricingRule> setRules(Collection<PricingRule> rules) {
+		PricingTable next = PricingTable.compile(table.get().getZone(), rules);
+		List<PricingRule> previous = table.getAndSet(next).getRules();
+		System.out.println("Pricing rules activated: " + next.getRules().size() + " rule(s)");
+		return previous;
+	}
+
+	public List<PricingRule> getRules() {
+		return table.get().getRules();
+	}
+
+	// Preis in Cent für eine Abholung, gebucht jetzt; ohne Abholzeit gilt der Grundpreis
+	public long priceMinor(Resource resource, Instant pickupTime) {
+		return priceMinor(resource, Money.toMinor(resource.getPrice()), pickupTime);
+	}
+
+	// wie oben, mit bereits umgerechnetem Grundpreis (z.B. aus dem Cache des QuoteService)
+	public long priceMinor(Resource resource, long baseMinor, Instant pickupTime) {
+		if (pickupTime == null)
+			return baseMinor;
+		PricingTable t = table.get();
+		if (t.getRules().isEmpty())
+			return baseMinor;
+		int percent = utilization == null ? 0 : utilization.utilizationPercent(resource, pickupTime);
+		return t.price(baseMinor, pickupTime, clock.instant(), percent);
+	}
+
+	public double price(Resource resource, Instant pickupTime) {
+		return Money.toMajor(priceMinor(resource, pickupTime));
+	}
+}
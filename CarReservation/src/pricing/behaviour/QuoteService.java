@@ -0,0 +1,129 @@
+package pricing.behaviour;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.IntStream;
+
+import pricing.structure.Money;
+import pricing.structure.Quote;
+import pricing.structure.QuoteRequest;
+import resource.behaviour.ResourceService;
+import resource.structure.Extra;
+import resource.structure.Resource;
+import resource.structure.ResourceObserver;
+
+// Preisauskünfte für viele Konfigurationen (Resource + Extras) in einem Aufruf, z.B. für eine Ergebnisseite
+// der Website. Gerechnet wird in Cent: Grundpreis der Resource plus die Aufpreise aller Extras (eingebaute
+// und gewünschte) aus der Tabelle von Extra, ohne die Dekorator-Kette zu durchlaufen. Der Preis gilt wie beim
+// Buchen je Buchung; mit PricingService kommen dieselben Zu- und Abschläge wie beim Buchen hinzu.
+// Ergebnisse werden je Konfiguration zwischengespeichert. Ein Eintrag gilt nur für das Resource-Objekt, aus
+// dem er berechnet wurde, und Preisänderungen oder Löschungen verwerfen die Einträge der Resource.
+// Batches ab PARALLEL_THRESHOLD Anfragen werden parallel beantwortet.
+public class QuoteService implements ResourceObserver {
+
+	// Beträge einer Resource je Extras-Maske, -1 = noch nicht berechnet
+	private static final class Prices {
+		final Resource resource;
+		final AtomicLongArray byMask = new AtomicLongArray(1 << Extra.values().length);
+
+		Prices(Resource resource) {
+			this.resource = resource;
+			for (int i = 0; i < byMask.length(); i++)
+				byMask.set(i, -1);
+		}
+	}
+
+	private static final int PARALLEL_THRESHOLD = 256;
+
+	private final ResourceService resourceService;
+	// null: Grundpreise ohne Regeln
+	private final PricingService pricing;
+	// kleingeschriebener Name -> Beträge
+	private final ConcurrentHashMap<String, Prices> cache = new ConcurrentHashMap<>();
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+
+	public QuoteService(ResourceService resourceService) {
+		this(resourceService, null);
+	}
+
+	public QuoteService(ResourceService resourceService, PricingService pricing) {
+		this.resourceService = resourceService;
+		this.pricing = pricing;
+		resourceService.addObserver(this);
+	}
+
+	public Quote quote(QuoteRequest request) {
+		return compute(request);
+	}
+
+	// ein Ergebnis je Anfrage, in Eingabereihenfolge; ungültige Anfragen ergeben eine abgelehnte Quote
+	public List<Quote> quote(List<QuoteRequest> requests) {
+		if (requests == null)
+			throw new IllegalArgumentException("Requests must not be null");
+		Quote[] out = new Quote[requests.size()];
+		IntStream range = IntStream.range(0, out.length);
+		if (out.length >= PARALLEL_THRESHOLD)
+			range = range.parallel();
+		range.forEach(i -> out[i] = compute(requests.get(i)));
+		return Arrays.asList(out);
+	}
+
+	// Anzahl der Anfragen, deren Betrag aus dem Cache kam bzw. berechnet wurde
+	public long getCacheHits() {
+		return hits.sum();
+	}
+
+	public long getCacheMisses() {
+		return misses.sum();
+	}
+
+	@Override
+	public void resourceRemoved(Resource resource) {
+		cache.remove(key(resource.getName()));
+	}
+
+	@Override
+	public void resourceChanged(Resource old, Resource updated) {
+		cache.remove(key(old.getName()));
+	}
+
+	private Quote compute(QuoteRequest r) {
+		if (r == null)
+			return Quote.rejected(null, "Request is null");
+		if (r.getPickupTime() == null || r.getReturnTime() == null || !r.getPickupTime().isBefore(r.getReturnTime()))
+			return Quote.rejected(r, "Quote needs a valid pickup and return time");
+		Resource resource;
+		try {
+			resource = resourceService.getSelectedResource(r.getResourceName());
+		} catch (IllegalArgumentException e) {
+			return Quote.rejected(r, e.getMessage());
+		}
+		String key = key(resource.getName());
+		Prices prices = cache.get(key);
+		if (prices == null || prices.resource != resource) {
+			// erster Aufruf oder der Eintrag stammt von einer ersetzten Resource
+			prices = new Prices(resource);
+			cache.put(key, prices);
+		}
+		int mask = resource.getExtrasMask() | r.getExtrasMask();
+		long amount = prices.byMask.get(mask);
+		if (amount >= 0)
+			hits.increment();
+		else {
+			misses.increment();
+			amount = Money.toMinor(resource.getBasePrice()) + Extra.priceMinorOf(mask);
+			prices.byMask.set(mask, amount);
+		}
+		// Regeln hängen vom Zeitraum ab und werden nicht zwischengespeichert (wenige Feldzugriffe)
+		return Quote.of(r, pricing == null ? amount : pricing.priceMinor(resource, amount, r.getPickupTime()));
+	}
+
+	private static String key(String name) {
+		return name.toLowerCase(Locale.ROOT);
+	}
+}
@@ -0,0 +1,26 @@
+package pricing.structure;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+// Geldbeträge in Cent (long); Umrechnung aus den double-Preisen der Resourcen über die Dezimaldarstellung,
+// damit z.B. 19.99 genau 1999 Cent ergibt und Summen nicht um Bruchteile eines Cents abweichen.
+public final class Money {
+	private Money() {
+	}
+
+	public static long toMinor(double amount) {
+		if (Double.isNaN(amount) || Double.isInfinite(amount))
+			throw new IllegalArgumentException("Invalid amount: " + amount);
+		return BigDecimal.valueOf(amount).movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+	}
+
+	public static double toMajor(long minor) {
+		return minor / 100.0;
+	}
+
+	// z.B. 1999 -> "19.99", -5 -> "-0.05"
+	public static String format(long minor) {
+		return BigDecimal.valueOf(minor, 2).toPlainString();
+	}
+}
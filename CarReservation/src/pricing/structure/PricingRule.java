@@ -0,0 +1,66 @@
+package pricing.structure;
+
+import java.time.DayOfWeek;
+import java.time.MonthDay;
+
+// Zu- oder Abschlag in Prozent auf den Grundpreis, wenn die Bedingung der Regel zutrifft:
+//   Saison:       Abholtag (Ortszeit) zwischen zwei Kalendertagen, auch über den Jahreswechsel
+//   Wochentag:    Abholung an diesem Wochentag
+//   Vorlaufzeit:  zwischen minDays und maxDays ganzen Tagen von der Buchung bis zur Abholung
+//   Auslastung:   Auslastung der Fahrzeugklasse bei Abholung zwischen minPercent und maxPercent
+// Treffen mehrere Regeln zu, werden ihre Prozente addiert. Regeln werden nie einzeln ausgewertet,
+// sondern von PricingTable.compile in Tabellen übersetzt.
+public final class PricingRule {
+
+	public enum Kind {
+		SEASON, WEEKDAY, LEAD_TIME, UTILIZATION
+	}
+
+	private final Kind kind;
+	// Bereich der Bedingung; bei SEASON Tage im Schaltjahr (0..365), bei WEEKDAY 0..6 (Montag = 0)
+	private final int from;
+	private final int to;
+	private final int percent;
+
+	private PricingRule(Kind kind, int from, int to, int percent) {
+		this.kind = kind;
+		this.from = from;
+		this.to = to;
+		this.percent = percent;
+	}
+
+	public static PricingRule season(MonthDay from, MonthDay to, int percent) {
+		if (from == null || to == null)
+			throw new IllegalArgumentException("Season needs a first and a last day");
+		return new PricingRule(Kind.SEASON, PricingTable.dayIndex(from), PricingTable.dayIndex(to), percent);
+	}
+
+	public static PricingRule weekday(DayOfWeek day, int percent) {
+		if (day == null)
+			throw new IllegalArgumentException("Weekday must not be null");
+		return new PricingRule(Kind.WEEKDAY, day.ordinal(), day.ordinal(), percent);
+	}
+
+	// maxDays = Integer.MAX_VALUE für "ab minDays Tagen"; ab PricingTable.MAX_LEAD_DAYS Tagen zählt jeder Vorlauf gleich
+	public static PricingRule leadTime(int minDays, int maxDays, int percent) {
+		if (minDays < 0 || maxDays < minDays)
+			throw new IllegalArgumentException("Invalid lead time range: " + minDays + " - " + maxDays);
+		return new PricingRule(Kind.LEAD_TIME, minDays, maxDays, percent);
+	}
+
+	public static PricingRule utilization(int minPercent, int maxPercent, int percent) {
+		if (minPercent < 0 || maxPercent > 100 || maxPercent < minPercent)
+			throw new IllegalArgumentException("Invalid utilization range: " + minPercent + " - " + maxPercent);
+		return new PricingRule(Kind.UTILIZATION, minPercent, maxPercent, percent);
+	}
+
+	public Kind getKind() { return kind; }
+	public int getFrom() { return from; }
+	public int getTo() { return to; }
+	public int getPercent() { return percent; }
+
+	@Override
+	public String toString() {
+		return kind + " " + from + ".." + to + ": " + (percent >= 0 ? "+" : "") + percent + "%";
+	}
+}
@@ -0,0 +1,112 @@
+package pricing.structure;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.MonthDay;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+// Übersetzter Regelsatz: je Bedingungsart ein Feld mit der Summe der Zuschläge in Basispunkten
+// (1/100 Prozent) je Kalendertag, Wochentag, Vorlauftag und Auslastungsprozent. Ein Preis kostet damit
+// vier Feldzugriffe und eine Ganzzahlrechnung, unabhängig von der Zahl der Regeln.
+// Unveränderlich; ein neuer Regelsatz wird als neue Tabelle übersetzt und als Ganzes ausgetauscht.
+public final class PricingTable {
+
+	// Vorlaufzeiten ab so vielen Tagen teilen sich den letzten Eintrag
+	public static final int MAX_LEAD_DAYS = 730;
+	private static final int DAYS = 366;
+	// erster Tagesindex je Monat im Schaltjahr
+	private static final int[] LEAP_OFFSETS = new int[12];
+
+	static {
+		for (int m = 1; m <= 12; m++)
+			LEAP_OFFSETS[m - 1] = LocalDate.of(2000, m, 1).getDayOfYear() - 1;
+	}
+
+	private final ZoneId zone;
+	private final List<PricingRule> rules;
+	private final int[] bySeasonDay = new int[DAYS];
+	private final int[] byWeekday = new int[7];
+	private final int[] byLeadDays = new int[MAX_LEAD_DAYS + 1];
+	private final int[] byUtilization = new int[101];
+
+	private PricingTable(ZoneId zone, List<PricingRule> rules) {
+		this.zone = zone;
+		this.rules = rules;
+	}
+
+	public static PricingTable compile(ZoneId zone, Collection<PricingRule> rules) {
+		if (zone == null)
+			throw new IllegalArgumentException("Zone must not be null");
+		List<PricingRule> copy = new ArrayList<>();
+		if (rules != null)
+			for (PricingRule r : rules) {
+				if (r == null)
+					throw new IllegalArgumentException("Rule must not be null");
+				copy.add(r);
+			}
+		PricingTable t = new PricingTable(zone, Collections.unmodifiableList(copy));
+		for (PricingRule r : copy) {
+			int bp = Math.multiplyExact(r.getPercent(), 100);
+			switch (r.getKind()) {
+			case SEASON:
+				// Saison über den Jahreswechsel: from > to
+				for (int n = (r.getTo() - r.getFrom() + DAYS) % DAYS, d = r.getFrom(); n >= 0; n--, d = (d + 1) % DAYS)
+					t.bySeasonDay[d] += bp;
+				break;
+			case WEEKDAY:
+				t.byWeekday[r.getFrom()] += bp;
+				break;
+			case LEAD_TIME:
+				// Bereiche ab MAX_LEAD_DAYS landen im letzten Eintrag
+				for (int d = Math.min(r.getFrom(), MAX_LEAD_DAYS); d <= Math.min(r.getTo(), MAX_LEAD_DAYS); d++)
+					t.byLeadDays[d] += bp;
+				break;
+			case UTILIZATION:
+				for (int u = r.getFrom(); u <= r.getTo(); u++)
+					t.byUtilization[u] += bp;
+				break;
+			}
+		}
+		return t;
+	}
+
+	public static PricingTable empty(ZoneId zone) {
+		return compile(zone, null);
+	}
+
+	// Preis in Cent für eine Abholung; bookedAt für die Vorlaufzeit, utilization in Prozent (0..100).
+	// Ergebnis kaufmännisch gerundet, nie negativ.
+	public long price(long baseMinor, Instant pickup, Instant bookedAt, int utilization) {
+		ZonedDateTime local = pickup.atZone(zone);
+		long lead = bookedAt == null || !bookedAt.isBefore(pickup) ? 0 : ChronoUnit.DAYS.between(bookedAt, pickup);
+		int bp = 10_000 + bySeasonDay[dayIndex(local.getMonthValue(), local.getDayOfMonth())]
+				+ byWeekday[local.getDayOfWeek().ordinal()] + byLeadDays[(int) Math.min(lead, MAX_LEAD_DAYS)]
+				+ byUtilization[Math.max(0, Math.min(100, utilization))];
+		if (bp <= 0)
+			return 0;
+		return Math.floorDiv(Math.multiplyExact(baseMinor, bp) + 5_000, 10_000);
+	}
+
+	public ZoneId getZone() {
+		return zone;
+	}
+
+	public List<PricingRule> getRules() {
+		return rules;
+	}
+
+	// Kalendertag als Index 0..365 im Schaltjahr (29. Februar eingeschlossen)
+	static int dayIndex(MonthDay day) {
+		return dayIndex(day.getMonthValue(), day.getDayOfMonth());
+	}
+
+	private static int dayIndex(int month, int day) {
+		return LEAP_OFFSETS[month - 1] + day - 1;
+	}
+}
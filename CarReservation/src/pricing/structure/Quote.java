@@ -0,0 +1,32 @@
+package pricing.structure;
+
+// Ergebnis einer Preisauskunft: Betrag in Cent oder der Grund, warum es keinen Preis gibt
+public final class Quote {
+	private final QuoteRequest request;
+	private final long amountMinor;
+	private final String error;
+
+	private Quote(QuoteRequest request, long amountMinor, String error) {
+		this.request = request;
+		this.amountMinor = amountMinor;
+		this.error = error;
+	}
+
+	public static Quote of(QuoteRequest request, long amountMinor) {
+		return new Quote(request, amountMinor, null);
+	}
+
+	public static Quote rejected(QuoteRequest request, String error) {
+		return new Quote(request, 0, error);
+	}
+
+	public QuoteRequest getRequest() { return request; }
+	public long getAmountMinor() { return amountMinor; }
+	public String getError() { return error; }
+	public boolean isAvailable() { return error == null; }
+
+	@Override
+	public String toString() {
+		return request + (isAvailable() ? ": " + Money.format(amountMinor) : ": no quote - " + error);
+	}
+}
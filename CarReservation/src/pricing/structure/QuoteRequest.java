@@ -0,0 +1,47 @@
+package pricing.structure;
+
+import java.time.Instant;
+import java.util.EnumSet;
+import java.util.Set;
+
+import resource.structure.Extra;
+
+// Eingabezeile für QuoteService.quote: Preis einer Resource mit gewünschten Extras für einen Zeitraum
+public final class QuoteRequest {
+	private final String resourceName;
+	private final Set<Extra> extras;
+	private final Instant pickupTime;
+	private final Instant returnTime;
+
+	public QuoteRequest(String resourceName, Set<Extra> extras, Instant pickupTime, Instant returnTime) {
+		this.resourceName = resourceName;
+		this.extras = extras == null || extras.isEmpty() ? EnumSet.noneOf(Extra.class) : EnumSet.copyOf(extras);
+		this.pickupTime = pickupTime;
+		this.returnTime = returnTime;
+	}
+
+	public String getResourceName() {
+		return resourceName;
+	}
+
+	public Set<Extra> getExtras() {
+		return EnumSet.copyOf(extras);
+	}
+
+	public int getExtrasMask() {
+		return Extra.mask(extras);
+	}
+
+	public Instant getPickupTime() {
+		return pickupTime;
+	}
+
+	public Instant getReturnTime() {
+		return returnTime;
+	}
+
+	@Override
+	public String toString() {
+		return resourceName + (extras.isEmpty() ? "" : " " + extras) + " " + pickupTime + " - " + returnTime;
+	}
+}
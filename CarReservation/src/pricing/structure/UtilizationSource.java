@@ -0,0 +1,11 @@
+package pricing.structure;
+
+import java.time.Instant;
+
+import resource.structure.Resource;
+
+// Auslastung in Prozent (0..100), die für den Preis einer Abholung gilt (z.B. der Fahrzeugklasse)
+public interface UtilizationSource {
+
+	int utilizationPercent(Resource resource, Instant pickupTime);
+}
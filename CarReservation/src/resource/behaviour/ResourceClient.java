@@ -1,11 +1,14 @@
 package resource.behaviour;
 
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
 import java.util.Scanner;
 
 import resource.structure.Car;
-import resource.structure.ChildSeat;
+import resource.structure.Extra;
 import resource.structure.Resource;
-import resource.structure.SetTopBox;
+import resource.structure.ResourceClass;
 
 public class ResourceClient {
 	
@@ -99,7 +102,8 @@ public class ResourceClient {
 			System.out.println("3. Show Cars");
 			System.out.println("4. Undo");
 			System.out.println("5. Redo");
-			System.out.println("6. Back to Main Menu");
+			System.out.println("6. Search Cars");
+			System.out.println("7. Back to Main Menu");
 			System.out.print("Your choice: ");
 			
 			int choice = scanner.nextInt();
@@ -129,6 +133,9 @@ public class ResourceClient {
 						System.out.println("Nothing to redo.");
 					break;
 				case 6:
+					searchResources();
+					break;
+				case 7:
 						System.out.println("Exiting...");
 					return;
 				default:
@@ -147,21 +154,44 @@ public class ResourceClient {
 		System.out.print("Enter base price: ");
 		double price = Double.parseDouble(scanner.nextLine().trim());
 		
-		Resource r = new Car(name, price);
-		
+		EnumSet<Extra> extras = EnumSet.noneOf(Extra.class);
 		System.out.print("Add Child Seat (y/n)? ");
 		if (scanner.nextLine().trim().toLowerCase().startsWith("y")) {
-			r = new ChildSeat(r);
+			extras.add(Extra.CHILD_SEAT);
 		}
 		
 		System.out.print("Add Set Top Box (y/n)? ");
 		if (scanner.nextLine().trim().toLowerCase().startsWith("y")) {
-			r = new SetTopBox(r);
+			extras.add(Extra.SET_TOP_BOX);
 		}
 		
+		Resource r = new Car(name, price, null, extras);
 		history.execute(new CreateCommand(resourceService, r));
 	}
 	
+	private void searchResources() {
+		System.out.print("Car class (" + Arrays.toString(ResourceClass.values()) + ", empty for any): ");
+		String cls = scanner.nextLine().trim();
+		ResourceClass resourceClass = cls.isEmpty() ? null : ResourceClass.valueOf(cls.toUpperCase());
+		
+		System.out.print("Maximum price: ");
+		double maxPrice = Double.parseDouble(scanner.nextLine().trim());
+		
+		EnumSet<Extra> extras = EnumSet.noneOf(Extra.class);
+		System.out.print("With Child Seat (y/n)? ");
+		if (scanner.nextLine().trim().toLowerCase().startsWith("y"))
+			extras.add(Extra.CHILD_SEAT);
+		System.out.print("With Set Top Box (y/n)? ");
+		if (scanner.nextLine().trim().toLowerCase().startsWith("y"))
+			extras.add(Extra.SET_TOP_BOX);
+		
+		List<Resource> found = resourceService.findResources(resourceClass, extras, maxPrice, 20);
+		if (found.isEmpty())
+			System.out.println("No matching cars.");
+		for (Resource r : found)
+			System.out.println("- " + r + " | name=" + r.getName() + " | price=" + r.getPrice());
+	}
+	
 	private void deleteResource() {
 		System.out.print("Enter name of the resource to delete: ");
 		String name = scanner.nextLine().trim();
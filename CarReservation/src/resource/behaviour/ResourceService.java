@@ -1,63 +1,332 @@
 package resource.behaviour;
 
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.Predicate;
+
+import resource.structure.Car;
+import resource.structure.Extra;
+import resource.structure.GeoGrid;
+import resource.structure.GeoPoint;
 import resource.structure.Resource;
+import resource.structure.ResourceClass;
+import resource.structure.ResourceObserver;
 
+// Katalog der Resourcen mit Indizes auf Name, Fahrzeugklasse und Extras.
+// Resourcen mit gleicher Klasse und gleichen Extras liegen in einem Fach, nach Preis sortiert. Eine Suche
+// ("die 20 günstigsten unter 80 mit Set Top Box") liest nur die passenden Fächer ab ihrem günstigsten
+// Eintrag und mischt sie: O(f log n + limit log f) bei f Fächern (höchstens Klassen x Kombinationen der
+// Extras), unabhängig davon, wie viele Resourcen zu teuer sind oder nicht passen.
+// Standorte stehen in einem Gitter (Zellen von GRID_DEGREES Grad); die Suche nach den nächsten Autos liest
+// nur die Zellen um den Suchpunkt, und ein Umzug (Rückgabe an einem anderen Ort) ändert nur zwei Zellen.
 public class ResourceService {
-	// Speicher, max. 10 Ressourcen
-	private final Resource [] store = new Resource[10];
-	private int size = 0;
-	
+	// Eintrag im Speicher; seq legt die Einfügereihenfolge fest, price wird beim Anlegen einmal berechnet
+	private static final class Entry {
+		final long seq;
+		final Resource resource;
+		final double price;
+		final Bucket bucket;
+
+		Entry(long seq, Resource resource, double price, Bucket bucket) {
+			this.seq = seq;
+			this.resource = resource;
+			this.price = price;
+			this.bucket = bucket;
+		}
+	}
+
+	// Resourcen einer Klasse (null = nicht klassifiziert) mit genau diesen Extras, nach Preis sortiert
+	private static final class Bucket {
+		final ResourceClass resourceClass;
+		final int extras;
+		final ConcurrentSkipListSet<Entry> byPrice = new ConcurrentSkipListSet<>(BY_PRICE);
+
+		Bucket(ResourceClass resourceClass, int extras) {
+			this.resourceClass = resourceClass;
+			this.extras = extras;
+		}
+	}
+
+	// nächster Eintrag eines Fachs beim Mischen
+	private static final class Head {
+		Entry entry;
+		final Iterator<Entry> rest;
+
+		Head(Entry entry, Iterator<Entry> rest) {
+			this.entry = entry;
+			this.rest = rest;
+		}
+	}
+
+	private static final Comparator<Entry> BY_PRICE = Comparator.comparingDouble((Entry e) -> e.price)
+			.thenComparingLong(e -> e.seq);
+
+	// Speicher: kleingeschriebener Name -> Eintrag, Lesen ohne Lock
+	private final ConcurrentHashMap<String, Entry> byName = new ConcurrentHashMap<>();
+	// Einfügereihenfolge für displayResources und getAllResources
+	private final ConcurrentSkipListMap<Long, Resource> order = new ConcurrentSkipListMap<>();
+	// Fächer nach Klasse und Extras (Schlüssel: Ordinalzahl der Klasse + 1 in den oberen 32 Bits, Extras unten)
+	private final ConcurrentHashMap<Long, Bucket> buckets = new ConcurrentHashMap<>();
+	// Anzahl Resourcen je Klasse (Index: Ordinalzahl + 1, 0 = nicht klassifiziert), Lesen ohne Lock
+	private final AtomicIntegerArray classCounts = new AtomicIntegerArray(ResourceClass.values().length + 1);
+	// Schreiber werden über den Monitor des Services serialisiert
+	private long seq = 0;
+	private final List<ResourceObserver> observers = new CopyOnWriteArrayList<>();
+	// Zellgröße des Standortgitters, etwa 5 km in Nord-Süd-Richtung
+	private static final double GRID_DEGREES = 0.05;
+	// Resourcen mit bekanntem Standort
+	private final GeoGrid<Entry> locations = new GeoGrid<>(GRID_DEGREES);
+
+	public void addObserver(ResourceObserver o) {
+		if (o == null)
+			throw new IllegalArgumentException("Observer must not be null");
+		observers.add(o);
+	}
+
 	public void addResource(Resource r) {
+		addResource(r, null);
+	}
+
+	// location: Standort der Resource, null = unbekannt (wird dann bei der Umkreissuche nicht gefunden)
+	public void addResource(Resource r, GeoPoint location) {
 		if (r == null || r.getName() == null || r.getName().trim().isEmpty())
 			throw new IllegalArgumentException("Resource name required");
-		if (findIndexByName(r.getName()) >= 0) {
+		if (Double.isNaN(r.getPrice()))
+			throw new IllegalArgumentException("Resource price must be a number: " + r.getName());
+		if (!insert(r, location)) {
 			System.out.println("Resource already exists: " + r.getName());
 			return;
 		}
-		if (size >= store.length)
-			throw new IllegalStateException("Resource store is full");
-		store[size++] = r;
+		for (ResourceObserver o : observers)
+			o.resourceAdded(r);
 		System.out.println("Resource added: " + r + " (price: " + r.getPrice() + ")");
 	}
-	
+
+	// Massenanlage (z.B. Import) ohne Ausgabe je Resource. Bit i ist gesetzt, wenn resources.get(i)
+	// abgewiesen wurde, weil der Name schon vergeben ist.
+	public BitSet addResources(List<Resource> resources) {
+		for (Resource r : resources) {
+			if (r == null || r.getName() == null || r.getName().trim().isEmpty())
+				throw new IllegalArgumentException("Resource name required");
+			if (Double.isNaN(r.getPrice()))
+				throw new IllegalArgumentException("Resource price must be a number: " + r.getName());
+		}
+		BitSet duplicates = new BitSet();
+		synchronized (this) {
+			for (int i = 0; i < resources.size(); i++)
+				if (!insert(resources.get(i), null))
+					duplicates.set(i);
+		}
+		if (!observers.isEmpty())
+			for (int i = 0; i < resources.size(); i++)
+				if (!duplicates.get(i))
+					for (ResourceObserver o : observers)
+						o.resourceAdded(resources.get(i));
+		return duplicates;
+	}
+
+	private synchronized boolean insert(Resource r, GeoPoint location) {
+		String key = key(r.getName());
+		if (byName.containsKey(key))
+			return false;
+		ResourceClass cls = r.getResourceClass();
+		int extras = r.getExtrasMask();
+		long bucketKey = (long) (cls == null ? 0 : cls.ordinal() + 1) << 32 | extras;
+		Bucket bucket = buckets.computeIfAbsent(bucketKey, k -> new Bucket(cls, extras));
+		Entry e = new Entry(++seq, r, r.getPrice(), bucket);
+		order.put(e.seq, r);
+		bucket.byPrice.add(e);
+		byName.put(key, e);
+		classCounts.incrementAndGet(cls == null ? 0 : cls.ordinal() + 1);
+		if (location != null)
+			locations.put(e, location);
+		return true;
+	}
+
 	public void displayResources() {
-		if (size == 0) {
+		if (order.isEmpty()) {
 			System.out.println("No resources available.");
 			return;
 		}
-		for (int i = 0; i < size; i++)
-			System.out.println("- " + store[i] + " | name=" + store[i].getName() + " | price=" + store[i].getPrice());
+		for (Resource r : order.values())
+			System.out.println("- " + r + " | name=" + r.getName() + " | price=" + r.getPrice());
 	}
-	
+
 	public void removeResource(String name) {
-		int idx = findIndexByName(name);
-		if (idx < 0) {
-			System.out.println("Resource not found: " + name);
-			return;
+		Entry e;
+		synchronized (this) {
+			e = name == null ? null : byName.remove(key(name));
+			if (e == null) {
+				System.out.println("Resource not found: " + name);
+				return;
+			}
+			// Löschen der Resource
+			order.remove(e.seq);
+			e.bucket.byPrice.remove(e);
+			locations.remove(e);
+			classCounts.decrementAndGet(e.bucket.resourceClass == null ? 0 : e.bucket.resourceClass.ordinal() + 1);
 		}
-		// Löschen der Resource
-		for (int i = idx; i < size - 1; i++)
-			store[i] = store[i + 1];
-		size--;
-		store[size] = null;
+		for (ResourceObserver o : observers)
+			o.resourceRemoved(e.resource);
 		System.out.println("Resource deleted: " + name);
 	}
-	
+
+	// Grundpreis ändern: die Resource wird durch ein Auto mit gleicher Klasse und gleichen Extras ersetzt
+	// und behält ihren Platz in der Reihenfolge. Bestehende Buchungen behalten ihren Preis.
+	// Resourcen mit eigenen Extras (ResourceDecorator mit Preis und Bezeichnung) werden abgelehnt, da das
+	// Auto deren Zuschlag und Bezeichnung nicht abbilden kann.
+	public Resource changePrice(String name, double basePrice) {
+		if (Double.isNaN(basePrice) || basePrice < 0)
+			throw new IllegalArgumentException("Invalid price: " + basePrice);
+		Entry old;
+		Resource updated;
+		synchronized (this) {
+			old = name == null ? null : byName.get(key(name));
+			if (old == null)
+				throw new IllegalArgumentException("Resource not found: " + name);
+			if (old.resource.hasCustomExtras())
+				throw new IllegalStateException("Price of " + name + " cannot be changed: it has custom extras");
+			updated = new Car(old.resource.getName(), basePrice, old.resource.getResourceClass(),
+					old.resource.getExtras());
+			Entry e = new Entry(old.seq, updated, updated.getPrice(), old.bucket);
+			old.bucket.byPrice.remove(old);
+			old.bucket.byPrice.add(e);
+			order.put(e.seq, updated);
+			byName.put(key(name), e);
+			GeoPoint location = locations.locationOf(old);
+			if (location != null) {
+				locations.put(e, location);
+				locations.remove(old);
+			}
+		}
+		for (ResourceObserver o : observers)
+			o.resourceChanged(old.resource, updated);
+		System.out.println("Price changed: " + updated + " (price: " + updated.getPrice() + ")");
+		return updated;
+	}
+
+	// neuer Standort, z.B. nach der Rückgabe an einer anderen Station
+	public void moveResource(String name, GeoPoint location) {
+		if (location == null)
+			throw new IllegalArgumentException("Location required");
+		synchronized (this) {
+			Entry e = name == null ? null : byName.get(key(name));
+			if (e == null)
+				throw new IllegalArgumentException("Resource not found: " + name);
+			locations.put(e, location);
+		}
+	}
+
+	// Standort der Resource oder null, wenn unbekannt
+	public GeoPoint getLocation(String name) {
+		Entry e = name == null ? null : byName.get(key(name));
+		if (e == null)
+			throw new IllegalArgumentException("Resource not found: " + name);
+		return locations.locationOf(e);
+	}
+
 	// Benötigt für BookingService
 	public Resource getSelectedResource(String name) {
-		int idx = findIndexByName(name);
-		if (idx < 0) throw new IllegalArgumentException("Resource not found: " + name);
-		return store[idx];
-	}
-	
-	private int findIndexByName(String name) {
-		if (name == null)
-			return -1;
-		for (int i = 0; i < size; i++) {
-			if (store[i].getName().equalsIgnoreCase(name))
-				return i;
-		}
-		return -1;
+		Entry e = name == null ? null : byName.get(key(name));
+		if (e == null) throw new IllegalArgumentException("Resource not found: " + name);
+		return e.resource;
+	}
+
+	// Benötigt für BookingService.createBookings: alle Namen in einem Durchlauf auflösen,
+	// Schlüssel ist der kleingeschriebene Name, nicht gefundene Namen fehlen in der Map
+	public Map<String, Resource> getSelectedResources(Collection<String> names) {
+		Map<String, Resource> found = new HashMap<>();
+		for (String n : names) {
+			if (n == null)
+				continue;
+			String key = key(n);
+			Entry e = byName.get(key);
+			if (e != null)
+				found.putIfAbsent(key, e.resource);
+		}
+		return found;
+	}
+
+	// Die günstigsten Resourcen (höchstens limit) mit Preis <= maxPrice, die alle angegebenen Extras haben
+	// (weitere Extras sind erlaubt); resourceClass null = jede Klasse. Gleich teure in Einfügereihenfolge.
+	public List<Resource> findResources(ResourceClass resourceClass, Set<Extra> extras, double maxPrice, int limit) {
+		if (limit < 0)
+			throw new IllegalArgumentException("Invalid limit: " + limit);
+		List<Resource> out = new ArrayList<>(Math.min(limit, 64));
+		int required = Extra.mask(extras);
+		if (limit == 0 || Double.isNaN(maxPrice))
+			return out;
+		// je passendem Fach ein Iterator ab dem günstigsten Eintrag; gemischt über die jeweils nächsten Einträge
+		Entry bound = new Entry(Long.MAX_VALUE, null, maxPrice, null);
+		PriorityQueue<Head> heads = new PriorityQueue<>((a, b) -> BY_PRICE.compare(a.entry, b.entry));
+		for (Bucket b : buckets.values()) {
+			if ((resourceClass != null && b.resourceClass != resourceClass) || (b.extras & required) != required)
+				continue;
+			Iterator<Entry> it = b.byPrice.headSet(bound, true).iterator();
+			if (it.hasNext())
+				heads.add(new Head(it.next(), it));
+		}
+		while (out.size() < limit && !heads.isEmpty()) {
+			Head h = heads.poll();
+			out.add(h.entry.resource);
+			if (h.rest.hasNext()) {
+				h.entry = h.rest.next();
+				heads.add(h);
+			}
+		}
+		return out;
+	}
+
+	// alle Resourcen einer Klasse, die günstigsten zuerst
+	public List<Resource> getResourcesByClass(ResourceClass resourceClass) {
+		if (resourceClass == null)
+			throw new IllegalArgumentException("Resource class must not be null");
+		return findResources(resourceClass, null, Double.POSITIVE_INFINITY, Integer.MAX_VALUE);
+	}
+
+	// die k nächsten Resourcen um 'at' mit allen angegebenen Extras, die den Filter erfüllen (null = alle),
+	// die nächste zuerst; Resourcen ohne Standort werden nicht gefunden
+	public List<Resource> findNearest(GeoPoint at, int k, Set<Extra> extras, Predicate<Resource> filter) {
+		int required = Extra.mask(extras);
+		List<Resource> out = new ArrayList<>(Math.min(Math.max(k, 0), 64));
+		for (Entry e : locations.nearest(at, k, e -> (e.bucket.extras & required) == required
+				&& (filter == null || filter.test(e.resource))))
+			out.add(e.resource);
+		return out;
+	}
+
+	// Benötigt für AvailabilityService
+	public List<Resource> getAllResources() {
+		return new ArrayList<>(order.values());
+	}
+
+	public int getResourceCount() {
+		return byName.size();
+	}
+
+	// Anzahl Resourcen einer Klasse in O(1), z.B. für die Auslastung
+	public int getResourceCount(ResourceClass resourceClass) {
+		if (resourceClass == null)
+			throw new IllegalArgumentException("Resource class must not be null");
+		return classCounts.get(resourceClass.ordinal() + 1);
+	}
+
+	private static String key(String name) {
+		return name.toLowerCase(Locale.ROOT);
 	}
 
 }
@@ -1,8 +1,31 @@
 package resource.structure;
 
+import java.util.Set;
+
 public class Car extends Resource {
 	
+	private final ResourceClass resourceClass;
+	
 	public Car(String name, double basePrice) {
-		super(name, basePrice);
+		this(name, basePrice, null);
+	}
+	
+	public Car(String name, double basePrice, ResourceClass resourceClass) {
+		this(name, basePrice, resourceClass, 0);
+	}
+	
+	// kompakte Form: Auto mit Extras ohne Dekorator-Kette, Preis und Anzeige aus den Tabellen von Extra
+	public Car(String name, double basePrice, ResourceClass resourceClass, Set<Extra> extras) {
+		this(name, basePrice, resourceClass, Extra.mask(extras));
+	}
+	
+	private Car(String name, double basePrice, ResourceClass resourceClass, int extras) {
+		super(name, basePrice + Extra.priceOf(extras), basePrice, extras, name + Extra.labelsOf(extras));
+		this.resourceClass = resourceClass;
+	}
+	
+	@Override
+	public ResourceClass getResourceClass() {
+		return resourceClass;
 	}
 }
@@ -4,7 +4,7 @@ public class ChildSeat extends ResourceDecorator {
 	
 	public ChildSeat(Resource inner)
 	{
-		super(inner, 15.0, "Child Seat");
+		super(inner, Extra.CHILD_SEAT);
 	}
 
 }
@@ -0,0 +1,93 @@
+package resource.structure;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+// Extras eines Autos. Eine Kombination ist eine Bitmaske (Bit = Ordinalzahl); Preis und Beschriftung
+// jeder Kombination liegen vorberechnet in Tabellen, sodass Preis und Anzeige ohne Rekursion auskommen.
+public enum Extra {
+	CHILD_SEAT(ChildSeat.class), SET_TOP_BOX(SetTopBox.class);
+
+	private static final Extra[] VALUES = values();
+	// Aufpreis in Cent und Beschriftung je Extra, nach Ordinalzahl
+	private static final long[] PRICES_MINOR = { 1500, 3000 };
+	private static final String[] LABELS = { "Child Seat", "Set Top Box" };
+	// Aufpreis und angehängte Beschriftung je Bitmaske
+	private static final long[] MASK_PRICES_MINOR = new long[1 << VALUES.length];
+	private static final String[] MASK_LABELS = new String[1 << VALUES.length];
+
+	static {
+		for (int mask = 0; mask < MASK_PRICES_MINOR.length; mask++) {
+			StringBuilder label = new StringBuilder();
+			for (Extra e : VALUES)
+				if ((mask & e.bit()) != 0) {
+					MASK_PRICES_MINOR[mask] += PRICES_MINOR[e.ordinal()];
+					label.append(" + ").append(LABELS[e.ordinal()]);
+				}
+			MASK_LABELS[mask] = label.toString();
+		}
+	}
+
+	// Dekorator, der dieses Extra als Sicht anbietet
+	private final Class<? extends ResourceDecorator> view;
+
+	Extra(Class<? extends ResourceDecorator> view) {
+		this.view = view;
+	}
+
+	public int bit() {
+		return 1 << ordinal();
+	}
+
+	public double getPrice() {
+		return PRICES_MINOR[ordinal()] / 100.0;
+	}
+
+	// Aufpreis in Cent
+	public long getPriceMinor() {
+		return PRICES_MINOR[ordinal()];
+	}
+
+	public String getLabel() {
+		return LABELS[ordinal()];
+	}
+
+	// Extra zu einer Dekorator-Klasse, null bei eigenen Dekoratoren
+	public static Extra of(Class<? extends ResourceDecorator> view) {
+		for (Extra e : VALUES)
+			if (e.view == view)
+				return e;
+		return null;
+	}
+
+	public static int mask(Set<Extra> extras) {
+		int mask = 0;
+		if (extras != null)
+			for (Extra e : extras)
+				mask |= e.bit();
+		return mask;
+	}
+
+	public static EnumSet<Extra> set(int mask) {
+		EnumSet<Extra> set = EnumSet.noneOf(Extra.class);
+		for (Extra e : VALUES)
+			if ((mask & e.bit()) != 0)
+				set.add(e);
+		return set;
+	}
+
+	// Summe der Aufpreise einer Kombination
+	static double priceOf(int mask) {
+		return MASK_PRICES_MINOR[mask] / 100.0;
+	}
+
+	// Summe der Aufpreise einer Kombination in Cent
+	public static long priceMinorOf(int mask) {
+		return MASK_PRICES_MINOR[mask];
+	}
+
+	// Beschriftung einer Kombination, z.B. " + Child Seat + Set Top Box"
+	static String labelsOf(int mask) {
+		return MASK_LABELS[mask];
+	}
+}
@@ -0,0 +1,165 @@
+package resource.structure;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+// Räumlicher Index als gleichmäßiges Gitter über Breiten- und Längengrade. Jede Zelle hält die Einträge,
+// die in ihr stehen; Umzüge ändern nur die alte und die neue Zelle.
+// Die k nächsten Einträge werden ringweise um die Zelle des Suchpunkts gesucht. Die Suche endet, sobald
+// kein Eintrag eines weiteren Rings näher liegen kann als der k-te Treffer, und liest damit nur die Zellen
+// in der Umgebung, egal wie groß der Bestand ist.
+// Lesen ohne Lock; während eines Umzugs kann ein Eintrag kurz fehlen. Über die Datumsgrenze (±180°)
+// wird nicht gesucht.
+public final class GeoGrid<T> {
+
+	// Eintrag mit Standort; je Umzug ein neues Objekt
+	private static final class Located<T> {
+		final T item;
+		final GeoPoint point;
+
+		Located(T item, GeoPoint point) {
+			this.item = item;
+			this.point = point;
+		}
+	}
+
+	private static final class Hit<T> {
+		final T item;
+		final double km;
+
+		Hit(T item, double km) {
+			this.item = item;
+			this.km = km;
+		}
+	}
+
+	private final double cellDegrees;
+	// Zellschlüssel (Breitenindex oben, Längenindex unten) -> Einträge
+	private final ConcurrentHashMap<Long, Set<Located<T>>> cells = new ConcurrentHashMap<>();
+	private final ConcurrentHashMap<T, Located<T>> located = new ConcurrentHashMap<>();
+	// belegte Zellindizes (wächst nur), begrenzt die Zahl der Ringe
+	private volatile int minRow = Integer.MAX_VALUE, maxRow = Integer.MIN_VALUE;
+	private volatile int minCol = Integer.MAX_VALUE, maxCol = Integer.MIN_VALUE;
+
+	public GeoGrid(double cellDegrees) {
+		if (!(cellDegrees > 0 && cellDegrees <= 10))
+			throw new IllegalArgumentException("Invalid cell size: " + cellDegrees);
+		this.cellDegrees = cellDegrees;
+	}
+
+	// setzt oder ändert den Standort
+	public synchronized void put(T item, GeoPoint point) {
+		if (item == null || point == null)
+			throw new IllegalArgumentException("Item and location required");
+		Located<T> next = new Located<>(item, point);
+		int row = row(point.getLatitude());
+		int col = col(point.getLongitude());
+		cells.computeIfAbsent(key(row, col), k -> ConcurrentHashMap.newKeySet()).add(next);
+		Located<T> old = located.put(item, next);
+		if (old != null)
+			removeFromCell(old);
+		if (row < minRow) minRow = row;
+		if (row > maxRow) maxRow = row;
+		if (col < minCol) minCol = col;
+		if (col > maxCol) maxCol = col;
+	}
+
+	public synchronized void remove(T item) {
+		Located<T> old = located.remove(item);
+		if (old != null)
+			removeFromCell(old);
+	}
+
+	public GeoPoint locationOf(T item) {
+		Located<T> l = located.get(item);
+		return l == null ? null : l.point;
+	}
+
+	public int size() {
+		return located.size();
+	}
+
+	// höchstens k Einträge, die den Filter erfüllen, nach Entfernung aufsteigend
+	public List<T> nearest(GeoPoint at, int k, Predicate<T> filter) {
+		if (at == null)
+			throw new IllegalArgumentException("Location required");
+		if (k < 0)
+			throw new IllegalArgumentException("Invalid limit: " + k);
+		if (k == 0 || located.isEmpty())
+			return new ArrayList<>();
+		// größter Treffer oben, damit er verdrängt werden kann
+		PriorityQueue<Hit<T>> best = new PriorityQueue<>(k + 1, (a, b) -> Double.compare(b.km, a.km));
+		int row = row(at.getLatitude());
+		int col = col(at.getLongitude());
+		int rings = Math.max(Math.max(row - minRow, maxRow - row), Math.max(col - minCol, maxCol - col));
+		for (int r = 0; r <= rings; r++) {
+			if (best.size() == k && lowerBoundKm(at, r) > best.peek().km)
+				break;
+			for (int dr = -r; dr <= r; dr++) {
+				// auf dem Rand des Rings alle Spalten, sonst nur die beiden äußeren
+				int step = dr == -r || dr == r ? 1 : 2 * r;
+				for (int dc = -r; dc <= r; dc += Math.max(1, step))
+					visit(cells.get(key(row + dr, col + dc)), at, k, filter, best);
+			}
+		}
+		List<T> out = new ArrayList<>(best.size());
+		while (!best.isEmpty())
+			out.add(best.poll().item);
+		Collections.reverse(out);
+		return out;
+	}
+
+	private void visit(Set<Located<T>> cell, GeoPoint at, int k, Predicate<T> filter, PriorityQueue<Hit<T>> best) {
+		if (cell == null)
+			return;
+		for (Located<T> l : cell) {
+			double km = at.distanceKm(l.point);
+			if (best.size() == k && km >= best.peek().km)
+				continue;
+			if (filter != null && !filter.test(l.item))
+				continue;
+			best.add(new Hit<>(l.item, km));
+			if (best.size() > k)
+				best.poll();
+		}
+	}
+
+	// Mindestentfernung zu jedem Punkt in Ring r: er liegt mindestens r - 1 ganze Zellen entfernt, in der Breite
+	// oder in der Länge. Nach Haversine ist a >= cos²(maxLat) * sin²(Δλ/2) mit der größten Breite maxLat,
+	// die der Ring erreicht; das gilt auch für den Abstand in der Breite.
+	private double lowerBoundKm(GeoPoint at, int r) {
+		if (r <= 1)
+			return 0;
+		double degrees = Math.min(180, (r - 1) * cellDegrees);
+		double maxLat = Math.min(90, Math.abs(at.getLatitude()) + (r + 1) * cellDegrees);
+		double s = Math.cos(Math.toRadians(maxLat)) * Math.sin(Math.toRadians(degrees) / 2);
+		return 2 * GeoPoint.EARTH_RADIUS_KM * Math.asin(Math.min(1, s));
+	}
+
+	private void removeFromCell(Located<T> l) {
+		long key = key(row(l.point.getLatitude()), col(l.point.getLongitude()));
+		Set<Located<T>> cell = cells.get(key);
+		if (cell != null) {
+			cell.remove(l);
+			if (cell.isEmpty())
+				cells.remove(key, cell);
+		}
+	}
+
+	private int row(double latitude) {
+		return (int) Math.floor(latitude / cellDegrees);
+	}
+
+	private int col(double longitude) {
+		return (int) Math.floor(longitude / cellDegrees);
+	}
+
+	private static long key(int row, int col) {
+		return (long) row << 32 | (col & 0xFFFFFFFFL);
+	}
+}
@@ -0,0 +1,50 @@
+package resource.structure;
+
+// Standort in Grad (WGS84); Entfernungen als Großkreis (Haversine) in Kilometern
+public final class GeoPoint {
+	static final double EARTH_RADIUS_KM = 6371.0088;
+
+	private final double latitude;
+	private final double longitude;
+
+	public GeoPoint(double latitude, double longitude) {
+		if (!(latitude >= -90 && latitude <= 90) || !(longitude >= -180 && longitude <= 180))
+			throw new IllegalArgumentException("Invalid coordinates: " + latitude + ", " + longitude);
+		this.latitude = latitude;
+		this.longitude = longitude;
+	}
+
+	public double getLatitude() {
+		return latitude;
+	}
+
+	public double getLongitude() {
+		return longitude;
+	}
+
+	public double distanceKm(GeoPoint other) {
+		double dLat = Math.toRadians(other.latitude - latitude);
+		double dLon = Math.toRadians(other.longitude - longitude);
+		double a = Math.sin(dLat / 2) * Math.sin(dLat / 2) + Math.cos(Math.toRadians(latitude))
+				* Math.cos(Math.toRadians(other.latitude)) * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+		return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (!(o instanceof GeoPoint))
+			return false;
+		GeoPoint p = (GeoPoint) o;
+		return latitude == p.latitude && longitude == p.longitude;
+	}
+
+	@Override
+	public int hashCode() {
+		return Double.hashCode(latitude) * 31 + Double.hashCode(longitude);
+	}
+
+	@Override
+	public String toString() {
+		return latitude + ", " + longitude;
+	}
+}
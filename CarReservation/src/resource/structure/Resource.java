@@ -1,29 +1,77 @@
 package resource.structure;
 
+import java.util.EnumSet;
+
 public class Resource {
 	
 	private final String name;
 	private final double price;
+	// Preis ohne die Extras der Bitmaske
+	private final double basePrice;
+	// Extras als Bitmaske (siehe Extra)
+	private final int extras;
+	// Anzeige, einmal beim Anlegen berechnet
+	private final String display;
 	
 	public Resource(String name) {
 		this(name, 0.0);
 	}
 	public Resource(String name, double price) {
+		this(name, price, price, 0, name);
+	}
+	
+	protected Resource(String name, double price, double basePrice, int extras, String display) {
 		this.name = name;
 		this.price = price;
+		this.basePrice = basePrice;
+		this.extras = extras;
+		this.display = display;
 	}
 	
 	public String getName() {
 		return name;
 	}
 	
+	// Gesamtpreis inklusive Extras
 	public double getPrice() {
 		return price;
 	}
 	
+	public double getBasePrice() {
+		return basePrice;
+	}
+	
+	// Fahrzeugklasse, null wenn nicht klassifiziert
+	public ResourceClass getResourceClass() {
+		return null;
+	}
+	
+	// true, wenn die Resource mit dem Extra dekoriert ist (z.B. has(ChildSeat.class))
+	public boolean has(Class<? extends ResourceDecorator> extra) {
+		Extra e = Extra.of(extra);
+		return e != null && (extras & e.bit()) != 0;
+	}
+	
+	public boolean hasExtra(Extra extra) {
+		return (extras & extra.bit()) != 0;
+	}
+	
+	public int getExtrasMask() {
+		return extras;
+	}
+	
+	public EnumSet<Extra> getExtras() {
+		return Extra.set(extras);
+	}
+	
+	// true, wenn ein eigenes Extra außerhalb von Extra dabei ist (steht nicht in der Bitmaske)
+	public boolean hasCustomExtras() {
+		return false;
+	}
+	
 	@Override
 	public String toString() {
-		return name;
+		return display;
 	}
 
 }
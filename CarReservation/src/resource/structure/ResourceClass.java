@@ -0,0 +1,6 @@
+package resource.structure;
+
+// Fahrzeugklasse für Buchungen auf "irgendein Auto der Klasse"
+public enum ResourceClass {
+	COMPACT, MIDSIZE, FULLSIZE, SUV, VAN, LUXURY
+}
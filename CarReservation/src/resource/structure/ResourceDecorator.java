@@ -1,30 +1,50 @@
 package resource.structure;
 
+// Sicht auf eine Resource mit einem weiteren Extra. Name, Preis, Extras und Anzeige werden beim Anlegen
+// einmal aus der inneren Resource übernommen, Aufrufe laufen danach nicht mehr durch die Kette.
 public class ResourceDecorator extends Resource {
 	
 	protected final Resource inner;
 	protected final double extra;
 	protected final String label;
+	private final ResourceClass resourceClass;
+	private final boolean custom;
 	
+	// eigenes Extra außerhalb von Extra (zählt nicht in die Bitmaske)
 	public ResourceDecorator(Resource inner, double extra, String label) {
-		super(inner.getName(), 0.0);
+		this(inner, extra, label, 0);
+	}
+	
+	protected ResourceDecorator(Resource inner, Extra extra) {
+		this(inner, extra.getPrice(), extra.getLabel(), extra.bit());
+	}
+	
+	private ResourceDecorator(Resource inner, double extra, String label, int bit) {
+		super(inner.getName(), inner.getPrice() + extra,
+				bit != 0 && (inner.getExtrasMask() & bit) == 0 ? inner.getBasePrice() : inner.getBasePrice() + extra,
+				inner.getExtrasMask() | bit, inner + " + " + label);
 		this.inner = inner;
 		this.extra = extra;
 		this.label = label;
+		this.resourceClass = inner.getResourceClass();
+		this.custom = bit == 0 || inner.hasCustomExtras();
 	}
 	
 	@Override
-	public String getName() {
-		return inner.getName();
+	public ResourceClass getResourceClass() {
+		return resourceClass;
 	}
 	
 	@Override
-	public double getPrice() {
-		return inner.getPrice() + extra;
+	public boolean hasCustomExtras() {
+		return custom;
 	}
 	
 	@Override
-	public String toString() {
-		return inner.toString() + " + " + label;
+	public boolean has(Class<? extends ResourceDecorator> extra) {
+		if (super.has(extra))
+			return true;
+		// eigene Dekoratoren stehen nicht in der Bitmaske
+		return Extra.of(extra) == null && (extra.isInstance(this) || inner.has(extra));
 	}
 }
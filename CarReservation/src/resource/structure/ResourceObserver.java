@@ -0,0 +1,16 @@
+package resource.structure;
+
+// Beobachter für Änderungen am Resource-Katalog (z.B. Preisauskünfte mit Cache).
+// Wird nach der Änderung aufgerufen, aus dem Thread, der sie ausgeführt hat.
+public interface ResourceObserver {
+
+	default void resourceAdded(Resource resource) {
+	}
+
+	default void resourceRemoved(Resource resource) {
+	}
+
+	// Preisänderung: die Resource wurde durch updated ersetzt
+	default void resourceChanged(Resource old, Resource updated) {
+	}
+}
@@ -3,7 +3,7 @@ package resource.structure;
 public class SetTopBox extends ResourceDecorator {
 	
 	public SetTopBox(Resource inner) {
-		super(inner, 30.0, "Set Top Box");
+		super(inner, Extra.SET_TOP_BOX);
 	}
 
 }
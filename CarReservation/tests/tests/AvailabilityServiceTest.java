@@ -0,0 +1,184 @@
+package tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import availability.behaviour.AvailabilityService;
+import availability.structure.OccupancyBitmap;
+import availability.structure.SlotCounter;
+import booking.behaviour.BookingService;
+import booking.structure.RecurrenceRule;
+import person.behaviour.PersonService;
+import resource.behaviour.ResourceService;
+import resource.structure.Car;
+import resource.structure.ChildSeat;
+import resource.structure.Extra;
+import resource.structure.GeoPoint;
+import resource.structure.Resource;
+import resource.structure.SetTopBox;
+
+class AvailabilityServiceTest {
+
+	private static final Instant ORIGIN = Instant.parse("2026-03-01T00:00:00Z");
+
+	private ResourceService resourceService;
+	private BookingService bookingService;
+	private AvailabilityService availabilityService;
+
+	@BeforeEach
+	public void setUp() {
+		PersonService personService = new PersonService();
+		resourceService = new ResourceService();
+		bookingService = new BookingService(personService, resourceService);
+		personService.createPerson("natural", "person1");
+		resourceService.addResource(new ChildSeat(new Car("Golf", 50)));
+		resourceService.addResource(new Car("Polo", 40));
+		resourceService.addResource(new SetTopBox(new ChildSeat(new Car("Passat", 70))));
+		availabilityService = new AvailabilityService(bookingService, resourceService, ORIGIN, Duration.ofHours(1));
+	}
+
+	private static Instant day(int d) {
+		return ORIGIN.plus(Duration.ofDays(d - 1));
+	}
+
+	private static List<String> names(List<Resource> resources) {
+		return resources.stream().map(Resource::getName).collect(Collectors.toList());
+	}
+
+	@Test
+	// Testen, ob die Suche nach freien Autos mit Kindersitz gebuchte Autos ausschließt
+	public void isChildSeatSearchExcludingBookedCars() {
+		bookingService.createBooking("DE", "A1", "person1", "Golf", day(5), day(6));
+
+		List<Resource> free = availabilityService.findAvailable(day(3), day(10), r -> r.has(ChildSeat.class));
+		assertEquals(Arrays.asList("Passat"), names(free));
+		assertEquals(Arrays.asList("Golf", "Passat"),
+				names(availabilityService.findAvailable(day(6), day(10), r -> r.has(ChildSeat.class))));
+		assertEquals(Arrays.asList("Polo", "Passat"), names(availabilityService.findAvailable(day(3), day(10), null)));
+	}
+
+	@Test
+	// Testen, ob ein Slot erst frei wird, wenn die letzte Buchung darin gelöscht ist
+	public void isPartiallyCoveredSlotCounted() {
+		Instant ten = day(1).plus(Duration.ofHours(10));
+		bookingService.createBooking("DE", "P1", "person1", "Polo", ten, ten.plus(Duration.ofMinutes(30)));
+		bookingService.createBooking("DE", "P2", "person1", "Polo", ten.plus(Duration.ofMinutes(30)), ten.plus(Duration.ofHours(2)));
+
+		bookingService.deleteBooking("P2");
+		assertFalse(availabilityService.isAvailable("polo", ten, ten.plus(Duration.ofHours(1))));
+		assertTrue(availabilityService.isAvailable("Polo", ten.plus(Duration.ofHours(1)), ten.plus(Duration.ofHours(2))));
+		bookingService.deleteBooking("P1");
+		assertTrue(availabilityService.isAvailable("Polo", ten, ten.plus(Duration.ofHours(2))));
+	}
+
+	@Test
+	// Testen, ob gemeinsame und beliebige freie Slots mehrerer Autos über Wortgrenzen hinweg stimmen
+	public void areFreeSlotsCombined() {
+		// Stunden 60-70 und 100-130 ab ORIGIN
+		bookingService.createBooking("DE", "G1", "person1", "Golf", ORIGIN.plus(Duration.ofHours(60)),
+				ORIGIN.plus(Duration.ofHours(70)));
+		bookingService.createBooking("DE", "P1", "person1", "Polo", ORIGIN.plus(Duration.ofHours(65)),
+				ORIGIN.plus(Duration.ofHours(130)));
+
+		Instant from = ORIGIN.plus(Duration.ofHours(50));
+		Instant to = ORIGIN.plus(Duration.ofHours(140));
+		BitSet all = availabilityService.freeForAll(Arrays.asList("Golf", "Polo"), from, to);
+		BitSet any = availabilityService.freeForAny(Arrays.asList("Golf", "Polo"), from, to);
+		for (int i = 0; i < 90; i++) {
+			int hour = 50 + i;
+			boolean golfFree = hour < 60 || hour >= 70;
+			boolean poloFree = hour < 65 || hour >= 130;
+			assertEquals(golfFree && poloFree, all.get(i), "all @" + hour);
+			assertEquals(golfFree || poloFree, any.get(i), "any @" + hour);
+		}
+		assertEquals(90, availabilityService.freeForAny(Arrays.asList("Golf", "Passat"), from, to).cardinality());
+	}
+
+	@Test
+	// Testen, ob eine Buchung weit in der Zukunft nur ihre eigenen Seiten belegt statt alle Slots davor
+	public void isFarFutureBookingStoredSparsely() {
+		Instant far = Instant.parse("9999-06-01T10:00:00Z");
+		bookingService.createBooking("DE", "1", "person1", "Golf", far, far.plus(Duration.ofHours(2)));
+		assertFalse(availabilityService.isAvailable("Golf", far, far.plus(Duration.ofHours(1))));
+		assertTrue(availabilityService.isAvailable("Golf", day(1), far));
+		assertEquals(33, availabilityService.utilizationPercent(resourceService.getSelectedResource("Golf"), far));
+
+		OccupancyBitmap bitmap = new OccupancyBitmap();
+		SlotCounter counter = new SlotCounter();
+		int slot = Integer.MAX_VALUE - 200;
+		bitmap.occupy(slot, slot + 100, counter::increment);
+		bitmap.occupy(10, 20, counter::increment);
+		assertEquals(2, bitmap.pageCount());
+		assertEquals(110, bitmap.cardinality());
+		assertFalse(bitmap.isFree(0, slot + 1));
+		assertTrue(bitmap.isFree(20, slot));
+		assertEquals(1, counter.get(slot + 99));
+		bitmap.release(slot, slot + 100, counter::decrement);
+		bitmap.release(10, 20, counter::decrement);
+		assertEquals(0, bitmap.pageCount());
+		assertEquals(0, counter.pageCount());
+	}
+
+	@Test
+	// Testen, ob vorhandene Buchungen beim Anlegen des Service übernommen werden
+	public void areExistingBookingsLoaded() {
+		bookingService.createBooking("DE", "X1", "person1", "Passat", day(2), day(4));
+		AvailabilityService late = new AvailabilityService(bookingService, resourceService, ORIGIN, Duration.ofDays(1));
+		assertFalse(late.isAvailable("Passat", day(3), day(5)));
+		assertTrue(late.isAvailable("Passat", day(4), day(5)));
+	}
+
+	@Test
+	// Testen, ob Termine einer Dauerbuchung in Suche und Slot-Bitmaps als belegt gelten
+	public void areRecurringOccurrencesOccupied() {
+		// jeden Tag 8-10 Uhr, ein Jahr lang
+		bookingService.createRecurringBooking("DE", "R1", "person1", "Polo", RecurrenceRule.everyDays(1,
+				day(1).plus(Duration.ofHours(8)).atZone(ZoneOffset.UTC), Duration.ofHours(2), LocalDate.of(2027, 3, 1)));
+		Instant eight = day(200).plus(Duration.ofHours(8));
+		assertFalse(availabilityService.isAvailable("Polo", eight.plus(Duration.ofMinutes(90)), eight.plus(Duration.ofHours(3))));
+		assertTrue(availabilityService.isAvailable("Polo", eight.plus(Duration.ofHours(2)), eight.plus(Duration.ofHours(20))));
+		assertEquals(Arrays.asList("Golf", "Passat"), names(availabilityService.findAvailable(eight, eight.plusSeconds(60), null)));
+
+		BitSet free = availabilityService.freeForAny(Arrays.asList("Polo"), day(200), day(201));
+		assertEquals(22, free.cardinality());
+		assertFalse(free.get(8));
+		assertFalse(free.get(9));
+		assertTrue(free.get(10));
+		assertEquals(22, availabilityService.freeForAll(Arrays.asList("Polo", "Golf"), day(200), day(201)).cardinality());
+
+		bookingService.deleteRecurringBooking("R1");
+		assertTrue(availabilityService.isAvailable("Polo", eight, eight.plus(Duration.ofHours(2))));
+	}
+
+	@Test
+	// Testen, ob die nächsten freien Autos mit Kindersitz gefunden werden und eine Rückgabe den Standort ändert
+	public void isNearestAvailableCarFound() {
+		GeoPoint station = new GeoPoint(48.137, 11.575);
+		resourceService.moveResource("Golf", new GeoPoint(48.14, 11.58));
+		resourceService.moveResource("Polo", new GeoPoint(48.137, 11.576));
+		resourceService.moveResource("Passat", new GeoPoint(48.35, 11.78));
+		bookingService.createBooking("DE", "A1", "person1", "Golf", day(5), day(6));
+
+		assertEquals(Arrays.asList("Passat"), names(availabilityService.findNearestAvailable(station, 2, day(3), day(10),
+				EnumSet.of(Extra.CHILD_SEAT))));
+		assertEquals(Arrays.asList("Golf", "Passat"), names(availabilityService.findNearestAvailable(station, 2, day(6),
+				day(10), EnumSet.of(Extra.CHILD_SEAT))));
+		resourceService.moveResource("Passat", new GeoPoint(48.137, 11.575));
+		assertEquals(Arrays.asList("Passat", "Polo"), names(availabilityService.findNearestAvailable(station, 2, day(3),
+				day(10), null)));
+	}
+}
@@ -1,17 +1,71 @@
 package tests;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import booking.behaviour.BookingIdGenerator;
+import booking.behaviour.BookingLog;
 import booking.behaviour.BookingService;
+import booking.behaviour.FleetAssignmentService;
+import booking.behaviour.HoldService;
+import booking.behaviour.WaitlistService;
 import booking.structure.Booking;
+import booking.structure.BookingBatchResult;
+import booking.structure.BookingRequest;
+import booking.structure.EnglishBooking;
+import booking.structure.Lang;
+import booking.structure.RecurrenceRule;
+import booking.structure.TimingWheel;
 import person.behaviour.PersonService;
+import person.structure.LegalPerson;
+import person.structure.Person;
+import person.structure.PersonReferences;
+import pricing.behaviour.PricingService;
+import pricing.structure.PricingRule;
 import resource.behaviour.ResourceService;
+import resource.structure.Car;
+import resource.structure.ChildSeat;
 import resource.structure.Resource;
+import resource.structure.ResourceClass;
+import statistics.behaviour.StatisticsService;
 
 public class BookingServiceTest {
 	
@@ -108,4 +162,963 @@ public class BookingServiceTest {
 		}
 	}
 
+	@Test
+	// Testen, ob mehr als 10 Buchungen gespeichert werden können und das Löschen die übrigen nicht verschiebt
+	public void isStoreUnboundedAndDeleteKeepsOthers() {
+		for (int i = 0; i < 1000; i++)
+			bookingService.createBooking("DE", "B" + i, "person1", "Resource1");
+		assertEquals(1000, bookingService.getBookingCount());
+
+		bookingService.deleteBooking("B500");
+		assertEquals(999, bookingService.getBookingCount());
+		assertEquals("B499", bookingService.getBookingById("B499").getBookingId());
+		assertEquals("B501", bookingService.getBookingById("B501").getBookingId());
+		assertThrows(IllegalArgumentException.class, () -> bookingService.deleteBooking("B500"));
+	}
+
+	@Test
+	// Testen, ob überlappende Buchungen derselben Resource abgelehnt werden
+	public void isOverlappingBookingRejected() {
+		Instant t0 = Instant.parse("2026-03-01T10:00:00Z");
+		bookingService.createBooking("DE", "7", "person1", "Resource1", t0, t0.plusSeconds(3 * 3600));
+
+		IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> bookingService
+				.createBooking("EN", "8", "person2", "resource1", t0.plusSeconds(3600), t0.plusSeconds(5 * 3600)));
+		assertTrue(e.getMessage().contains("already booked"));
+		assertEquals(null, bookingService.getBookingById("8"));
+		assertFalse(bookingService.isResourceAvailable("Resource1", t0, t0.plusSeconds(60)));
+	}
+
+	@Test
+	// Testen, ob direkt anschließende Buchungen und Buchungen anderer Resourcen erlaubt sind
+	public void isAdjacentOrOtherResourceBookingAccepted() {
+		Instant t0 = Instant.parse("2026-03-01T10:00:00Z");
+		bookingService.createBooking("DE", "9", "person1", "Resource1", t0, t0.plusSeconds(3600));
+		bookingService.createBooking("DE", "10", "person2", "Resource1", t0.plusSeconds(3600), t0.plusSeconds(7200));
+		bookingService.createBooking("DE", "11", "person2", "Resource2", t0, t0.plusSeconds(7200));
+		assertEquals(3, bookingService.getBookingCount());
+	}
+
+	@Test
+	// Testen, ob nach dem Löschen einer Buchung der Zeitraum wieder frei ist
+	public void isPeriodFreedAfterDelete() {
+		Instant t0 = Instant.parse("2026-03-01T10:00:00Z");
+		bookingService.createBooking("DE", "12", "person1", "Resource1", t0, t0.plusSeconds(3600));
+		bookingService.deleteBooking("12");
+
+		assertTrue(bookingService.isResourceAvailable("Resource1", t0, t0.plusSeconds(3600)));
+		bookingService.createBooking("EN", "13", "person2", "Resource1", t0, t0.plusSeconds(3600));
+		assertNotNull(bookingService.getBookingById("13"));
+	}
+
+	@Test
+	// Testen, ob ein Batch gültige Zeilen anlegt und fehlerhafte Zeilen im Bericht meldet
+	public void isBatchReportingPerItem() {
+		bookingService.createBooking("DE", "14", "person1", "Resource1");
+		Instant t0 = Instant.parse("2026-03-01T10:00:00Z");
+		List<BookingRequest> batch = Arrays.asList(
+				new BookingRequest("DE", "15", "PERSON1", "resource1"),
+				new BookingRequest("EN", "14", "person2", "Resource2"), // existiert bereits
+				new BookingRequest("EN", "16", "unknown", "Resource2"),
+				new BookingRequest("EN", "17", "person2", "unknown"),
+				new BookingRequest("DE", "15", "person2", "Resource2"), // doppelt im Batch
+				new BookingRequest("DE", "18", "person2", "Resource2", t0, t0.plusSeconds(3600)),
+				new BookingRequest("DE", "19", "person1", "Resource2", t0, t0.plusSeconds(60)), // Überschneidung
+				new BookingRequest("DE", "", "person1", "Resource2"));
+
+		BookingBatchResult result = bookingService.createBookings(batch);
+
+		assertEquals(2, result.getAcceptedCount());
+		assertEquals(6, result.getRejectedCount());
+		assertEquals(8, result.getItems().size());
+		assertTrue(result.getItems().get(0).isAccepted());
+		assertTrue(result.getItems().get(1).getError().contains("already exists"));
+		assertTrue(result.getItems().get(2).getError().contains("Person not found"));
+		assertTrue(result.getItems().get(3).getError().contains("Resource not found"));
+		assertTrue(result.getItems().get(4).getError().contains("twice"));
+		assertTrue(result.getItems().get(5).isAccepted());
+		assertTrue(result.getItems().get(6).getError().contains("already booked"));
+		assertFalse(result.getItems().get(7).isAccepted());
+		assertEquals(3, bookingService.getBookingCount());
+	}
+
+	@Test
+	// Testen, ob bei 16 parallelen Schreibern keine Buchung verloren geht und keine ID doppelt angelegt wird
+	public void isConcurrentCreateFreeOfLostUpdatesAndDuplicates() throws Exception {
+		final int threads = 16;
+		final int perThread = 2000;
+		final int sharedIds = 500;
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		CountDownLatch start = new CountDownLatch(1);
+		AtomicInteger duplicatesRejected = new AtomicInteger();
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (int t = 0; t < threads; t++) {
+				final int tid = t;
+				futures.add(pool.submit(() -> {
+					start.await();
+					for (int i = 0; i < perThread; i++)
+						bookingService.createBooking("DE", "T" + tid + "-" + i, "person1", "Resource1");
+					// alle Threads kämpfen um dieselben IDs
+					for (int i = 0; i < sharedIds; i++) {
+						try {
+							bookingService.createBooking("EN", "S" + i, "person2", "Resource2");
+						} catch (IllegalArgumentException e) {
+							duplicatesRejected.incrementAndGet();
+						}
+					}
+					return null;
+				}));
+			}
+			start.countDown();
+			for (Future<?> f : futures)
+				f.get(60, TimeUnit.SECONDS);
+		} finally {
+			pool.shutdownNow();
+		}
+
+		assertEquals(threads * perThread + sharedIds, bookingService.getBookingCount());
+		assertEquals((threads - 1) * sharedIds, duplicatesRejected.get());
+		List<Booking> snapshot = bookingService.getBookings();
+		Set<String> ids = new HashSet<>();
+		for (Booking b : snapshot)
+			assertTrue(ids.add(b.getBookingId()), "Duplicate in snapshot: " + b.getBookingId());
+		assertEquals(threads * perThread + sharedIds, snapshot.size());
+	}
+
+	@Test
+	// Testen, ob getBookings auch während Löschen und Anlegen nur Bestände liefert, die es wirklich gab
+	public void isSnapshotConsistentWhileWriting() throws Exception {
+		final int window = 100;
+		final int rounds = 5000;
+		for (int i = 0; i < window; i++)
+			bookingService.createBooking("DE", "W" + i, "person1", "Resource1");
+		ExecutorService pool = Executors.newFixedThreadPool(3);
+		AtomicInteger snapshots = new AtomicInteger();
+		try {
+			// der Schreiber löscht die älteste Buchung und legt danach eine neue an
+			Future<?> writer = pool.submit(() -> {
+				for (int i = 0; i < rounds; i++) {
+					bookingService.deleteBooking("W" + i);
+					bookingService.createBooking("DE", "W" + (i + window), "person1", "Resource1");
+				}
+				return null;
+			});
+			List<Future<?>> readers = new ArrayList<>();
+			for (int r = 0; r < 2; r++)
+				readers.add(pool.submit(() -> {
+					while (!writer.isDone()) {
+						List<Booking> seen = bookingService.getBookings();
+						// gültig sind nur W[i, i + window) oder W[i + 1, i + window), lückenlos
+						int first = Integer.parseInt(seen.get(0).getBookingId().substring(1));
+						int last = Integer.parseInt(seen.get(seen.size() - 1).getBookingId().substring(1));
+						assertTrue(seen.size() == window || seen.size() == window - 1, "size " + seen.size());
+						assertEquals(seen.size(), last - first + 1);
+						snapshots.incrementAndGet();
+					}
+					return null;
+				}));
+			writer.get(60, TimeUnit.SECONDS);
+			for (Future<?> f : readers)
+				f.get(60, TimeUnit.SECONDS);
+		} finally {
+			pool.shutdownNow();
+		}
+		assertTrue(snapshots.get() > 0);
+		assertEquals(window, bookingService.getBookings().size());
+	}
+
+	@Test
+	// Testen, ob von parallelen Buchungen desselben Zeitraums genau eine angenommen wird
+	public void isConcurrentOverlapRejectedAtomically() throws Exception {
+		final int threads = 16;
+		Instant t0 = Instant.parse("2026-03-01T10:00:00Z");
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		CountDownLatch start = new CountDownLatch(1);
+		AtomicInteger accepted = new AtomicInteger();
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (int t = 0; t < threads; t++) {
+				final int tid = t;
+				futures.add(pool.submit(() -> {
+					start.await();
+					try {
+						bookingService.createBooking("DE", "P" + tid, "person1", "Resource1", t0, t0.plusSeconds(3600));
+						accepted.incrementAndGet();
+					} catch (IllegalArgumentException e) {
+						// Überschneidung erwartet
+					}
+					return null;
+				}));
+			}
+			start.countDown();
+			for (Future<?> f : futures)
+				f.get(60, TimeUnit.SECONDS);
+		} finally {
+			pool.shutdownNow();
+		}
+		assertEquals(1, accepted.get());
+		assertEquals(1, bookingService.getBookingCount());
+	}
+
+	@Test
+	// Testen, ob Buchungen nach einem Neustart aus dem Log wiederhergestellt werden
+	public void isBookingLogReplayedOnRestart() throws IOException {
+		Path dir = Files.createTempDirectory("bookings");
+		try {
+			Instant t0 = Instant.parse("2026-03-01T10:00:00Z");
+			BookingService first = new BookingService(personService, resourceService, BookingLog.open(dir, 1));
+			first.createBooking("DE", "20", "person1", "Resource1", t0, t0.plusSeconds(3600));
+			first.createBooking("EN", "21", "person2", "Resource2");
+			first.createBooking("DE", "22", "person2", "Resource2");
+			first.deleteBooking("22");
+			first.close();
+
+			BookingService second = new BookingService(personService, resourceService, BookingLog.open(dir, 1));
+			assertEquals(2, second.getBookingCount());
+			assertEquals(null, second.getBookingById("22"));
+			Booking b = second.getBookingById("20");
+			assertEquals(t0, b.getPickupTime());
+			assertEquals("person1", b.getPerson().getName());
+			assertTrue(second.getBookingById("21") instanceof EnglishBooking);
+			assertFalse(second.isResourceAvailable("Resource1", t0, t0.plusSeconds(60)));
+			// neue Änderungen werden hinter den alten Sätzen angehängt
+			second.deleteBooking("20");
+			second.close();
+
+			BookingService third = new BookingService(new PersonService(), new ResourceService(), BookingLog.open(dir, 0));
+			assertEquals(1, third.getBookingCount());
+			assertEquals("person2", third.getBookingById("21").getPerson().getName());
+			assertEquals(200.0, third.getBookingById("21").getPrice());
+			third.close();
+		} finally {
+			deleteDirectory(dir);
+		}
+	}
+
+	@Test
+	// Testen, ob beim Wiederherstellen unbekannte Personen und Resourcen in den Services angelegt werden,
+	// die Resource mit ihrem Preis und nicht mit dem Buchungsbetrag
+	public void areUnknownNamesRegisteredOnRestore() throws IOException {
+		Path dir = Files.createTempDirectory("bookings");
+		try {
+			BookingService first = new BookingService(personService, resourceService, BookingLog.open(dir, 1));
+			PricingService pricing = new PricingService(ZoneOffset.UTC);
+			pricing.setRules(Arrays.asList(PricingRule.leadTime(0, Integer.MAX_VALUE, 50)));
+			first.setPricing(pricing);
+			Instant t0 = Instant.now().plus(Duration.ofDays(10));
+			first.createBooking("DE", "30", "person2", "Resource2", t0, t0.plusSeconds(3600));
+			assertEquals(300.0, first.getBookingById("30").getPrice());
+			first.close();
+
+			PersonService persons = new PersonService();
+			ResourceService resources = new ResourceService();
+			BookingService second = new BookingService(persons, resources, BookingLog.open(dir, 1));
+			Booking b = second.getBookingById("30");
+			assertEquals(300.0, b.getPrice());
+			assertEquals(200.0, resources.getSelectedResource("Resource2").getPrice());
+			assertTrue(b.getResource() == resources.getSelectedResource("Resource2"));
+			assertTrue(b.getPerson().isSamePerson(persons.findPersonByName("person2")));
+			assertEquals(1, second.countReferences(persons.findPersonByName("person2")));
+			second.createBooking("DE", "31", "person2", "Resource2");
+			assertEquals(200.0, second.getBookingById("31").getPrice());
+			second.close();
+		} finally {
+			deleteDirectory(dir);
+		}
+	}
+
+	@Test
+	// Testen, ob ein abgeschnittener Satz am Log-Ende verworfen wird und danach weiter geschrieben werden kann
+	public void isTornLogTailDiscarded() throws IOException {
+		Path dir = Files.createTempDirectory("bookings");
+		try {
+			BookingService first = new BookingService(personService, resourceService, BookingLog.open(dir, 1));
+			first.createBooking("DE", "23", "person1", "Resource1");
+			first.createBooking("DE", "24", "person1", "Resource1");
+			first.close();
+			try (FileChannel ch = FileChannel.open(dir.resolve("bookings-0000000000.wal"), StandardOpenOption.WRITE)) {
+				ch.truncate(ch.size() - 5);
+			}
+
+			BookingService second = new BookingService(personService, resourceService, BookingLog.open(dir, 1));
+			assertEquals(1, second.getBookingCount());
+			assertNotNull(second.getBookingById("23"));
+			second.createBooking("EN", "25", "person2", "Resource2");
+			second.close();
+
+			BookingService third = new BookingService(personService, resourceService, BookingLog.open(dir, 1));
+			assertEquals(2, third.getBookingCount());
+			assertNotNull(third.getBookingById("25"));
+			third.close();
+		} finally {
+			deleteDirectory(dir);
+		}
+	}
+
+	@Test
+	// Testen, ob ein Snapshot die alten Segmente ersetzt und beim Start nur der Rest abgespielt wird
+	public void isSnapshotCompactingLogAndRestoring() throws IOException {
+		Path dir = Files.createTempDirectory("bookings");
+		try {
+			Instant t0 = Instant.parse("2026-03-01T10:00:00Z");
+			BookingService first = new BookingService(personService, resourceService, BookingLog.open(dir, 0));
+			for (int i = 0; i < 100; i++)
+				first.createBooking("DE", "S" + i, "person1", "Resource1", t0.plusSeconds(i * 3600L),
+						t0.plusSeconds(i * 3600L + 1800));
+			for (int i = 0; i < 50; i++)
+				first.deleteBooking("S" + i);
+			first.snapshot();
+			// Rest nach dem Snapshot
+			first.createBooking("EN", "S100", "person2", "Resource2");
+			first.deleteBooking("S99");
+			first.close();
+
+			try (Stream<Path> files = Files.list(dir)) {
+				List<String> names = files.map(p -> p.getFileName().toString()).sorted().collect(Collectors.toList());
+				assertEquals(Arrays.asList("bookings-0000000001.snap", "bookings-0000000001.wal"), names);
+			}
+
+			BookingService second = new BookingService(personService, resourceService, BookingLog.open(dir, 0));
+			assertEquals(50, second.getBookingCount());
+			assertEquals(null, second.getBookingById("S10"));
+			assertEquals(null, second.getBookingById("S99"));
+			assertNotNull(second.getBookingById("S98"));
+			assertNotNull(second.getBookingById("S100"));
+			assertFalse(second.isResourceAvailable("Resource1", t0.plusSeconds(60 * 3600L), t0.plusSeconds(60 * 3600L + 60)));
+			assertEquals("S50", second.getBookings().get(0).getBookingId());
+			second.snapshot();
+			second.close();
+
+			BookingService third = new BookingService(personService, resourceService, BookingLog.open(dir, 0));
+			assertEquals(50, third.getBookingCount());
+			third.close();
+		} finally {
+			deleteDirectory(dir);
+		}
+	}
+
+	@Test
+	// Testen, ob die Abfragen nach Person, Resource und Sprache nach Anlegen und Löschen stimmen
+	public void areSecondaryIndexesMaintained() {
+		bookingService.createBooking("DE", "I1", "person1", "Resource1");
+		bookingService.createBooking("EN", "I2", "person2", "Resource1");
+		bookingService.createBooking("EN", "I3", "person1", "Resource2");
+
+		assertEquals(Arrays.asList("I1", "I3"), ids(bookingService.getBookingsByPerson("PERSON1")));
+		assertEquals(Arrays.asList("I1", "I2"), ids(bookingService.getBookingsByResource("resource1")));
+		assertEquals(Arrays.asList("I2", "I3"), ids(bookingService.getBookingsByLanguage(Lang.EN)));
+		assertEquals(Arrays.asList("I1"), ids(bookingService.getBookingsByLanguage(Lang.DE)));
+
+		bookingService.deleteBooking("I1");
+		assertEquals(Arrays.asList("I3"), ids(bookingService.getBookingsByPerson("person1")));
+		assertEquals(Arrays.asList("I2"), ids(bookingService.getBookingsByResource("Resource1")));
+		assertTrue(bookingService.getBookingsByLanguage(Lang.DE).isEmpty());
+		assertTrue(bookingService.getBookingsByPerson("unknown").isEmpty());
+	}
+
+	@Test
+	// Testen, ob abgewiesene Buchungen (Überschneidung) nicht in den Indizes landen
+	public void areRejectedBookingsNotIndexed() {
+		Instant t0 = Instant.parse("2026-03-01T10:00:00Z");
+		bookingService.createBooking("DE", "J1", "person1", "Resource1", t0, t0.plusSeconds(3600));
+		assertThrows(IllegalArgumentException.class,
+				() -> bookingService.createBooking("EN", "J2", "person2", "Resource1", t0, t0.plusSeconds(60)));
+		assertEquals(Arrays.asList("J1"), ids(bookingService.getBookingsByResource("Resource1")));
+		assertTrue(bookingService.getBookingsByPerson("person2").isEmpty());
+	}
+
+	@Test
+	// Testen, ob der Export seitenweise in Einfügereihenfolge schreibt und dem bisherigen Format entspricht
+	public void isExportPagedByCursor() throws IOException {
+		bookingService.createBooking("DE", "E1", "person1", "Resource1");
+		bookingService.createBooking("EN", "E2", "person2", "Resource2");
+		bookingService.createBooking("DE", "E3", "person2", "Resource1");
+		bookingService.deleteBooking("E2");
+
+		StringBuilder first = new StringBuilder();
+		long cursor = bookingService.exportBookings(first, 0, 1);
+		Booking e1 = bookingService.getBookingById("E1");
+		assertEquals("Booking ID: E1\nHeader: " + e1.header() + "\nBody: " + e1.body() + "\nFooter: " + e1.footer()
+				+ "\n\n", first.toString());
+
+		StringBuilder rest = new StringBuilder();
+		long next = bookingService.exportBookings(rest, cursor, 10);
+		assertTrue(rest.toString().startsWith("Booking ID: E3\n"));
+		assertFalse(rest.toString().contains("E2"));
+		// keine weitere Seite
+		StringBuilder empty = new StringBuilder();
+		assertEquals(next, bookingService.exportBookings(empty, next, 10));
+		assertEquals("", empty.toString());
+	}
+
+	@Test
+	// Testen, ob der Channel-Export (UTF-8, größer als der Puffer) dieselben Zeichen liefert wie der Appendable-Export
+	public void isChannelExportEqualToAppendableExport() throws IOException {
+		for (int i = 0; i < 500; i++)
+			bookingService.createBooking(i % 2 == 0 ? "DE" : "EN", "C" + i, "person1", "Resource1");
+
+		StringBuilder expected = new StringBuilder();
+		bookingService.exportBookings(expected, 0, Integer.MAX_VALUE);
+		assertTrue(expected.toString().contains("Buchungsbestätigung: C0"));
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (WritableByteChannel channel = Channels.newChannel(bytes)) {
+			bookingService.exportBookings(channel, 0, Integer.MAX_VALUE);
+		}
+		assertEquals(expected.toString(), new String(bytes.toByteArray(), StandardCharsets.UTF_8));
+
+		// seitenweise in neue Channels: die wiederverwendeten Puffer tragen nichts in die nächste Seite
+		ByteArrayOutputStream paged = new ByteArrayOutputStream();
+		long cursor = 0;
+		for (int page = 0; page < 5; page++)
+			try (WritableByteChannel channel = Channels.newChannel(paged)) {
+				cursor = bookingService.exportBookings(channel, cursor, 100);
+			}
+		assertEquals(expected.toString(), new String(paged.toByteArray(), StandardCharsets.UTF_8));
+	}
+
+	@Test
+	// Testen, ob renderTo denselben Text wie render liefert
+	public void isRenderToEqualToRender() throws IOException {
+		bookingService.createBooking("DE", "R1", "person1", "Resource1");
+		bookingService.createBooking("EN", "R2", "person2", "Resource2");
+		for (Booking b : bookingService.getBookings()) {
+			StringBuilder sb = new StringBuilder();
+			b.renderTo(sb);
+			assertEquals(b.render(), sb.toString());
+		}
+	}
+
+	@Test
+	// Testen, ob generierte IDs über mehrere Threads eindeutig sind und je Thread streng steigen
+	public void areGeneratedIdsUniqueAndMonotonic() throws Exception {
+		BookingIdGenerator generator = new BookingIdGenerator(7);
+		int threads = 8, perThread = 20_000;
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		List<Future<List<String>>> futures = new ArrayList<>();
+		for (int t = 0; t < threads; t++) {
+			futures.add(pool.submit(() -> {
+				List<String> ids = new ArrayList<>(perThread);
+				for (int i = 0; i < perThread; i++)
+					ids.add(generator.nextId());
+				return ids;
+			}));
+		}
+		Set<String> all = new HashSet<>();
+		for (Future<List<String>> f : futures) {
+			List<String> ids = f.get();
+			for (int i = 1; i < ids.size(); i++)
+				assertTrue(ids.get(i - 1).compareTo(ids.get(i)) < 0);
+			all.addAll(ids);
+		}
+		pool.shutdown();
+		assertEquals(threads * perThread, all.size());
+	}
+
+	@Test
+	// Testen, ob bei stehender oder zurückspringender Uhr und Überlauf der Folgenummer trotzdem steigende IDs entstehen
+	public void areGeneratedIdsMonotonicWithoutClockProgress() {
+		long[] now = { BookingIdGenerator.EPOCH + 1000 };
+		BookingIdGenerator generator = new BookingIdGenerator(3, () -> now[0]);
+		long prev = generator.nextLong();
+		for (int i = 0; i < 10_000; i++) {
+			if (i == 5000)
+				now[0] -= 500;
+			long id = generator.nextLong();
+			assertTrue(id > prev);
+			prev = id;
+		}
+		assertEquals(3, (int) ((prev >>> BookingIdGenerator.SEQUENCE_BITS) & BookingIdGenerator.MAX_NODE));
+		assertEquals(prev, BookingIdGenerator.parse(BookingIdGenerator.format(prev)));
+		assertEquals(-1, BookingIdGenerator.parse("B1"));
+	}
+
+	@Test
+	// Testen, ob nach einem Neustart direkt nach vielen IDs in einer Millisekunde (und mit zurückgesprungener Uhr)
+	// keine bereits vergebene ID erneut vergeben wird
+	public void areGeneratedIdsUniqueAfterRestart() throws IOException {
+		Path dir = Files.createTempDirectory("bookings");
+		try {
+			long[] now = { BookingIdGenerator.EPOCH + 1_000_000 };
+			BookingService first = new BookingService(personService, resourceService, BookingLog.open(dir, 1),
+					new BookingIdGenerator(2, () -> now[0]));
+			String last = null;
+			for (int i = 0; i < 5000; i++)
+				last = first.createBooking("DE", "person1", "Resource1");
+			String series = first.createRecurringBooking("DE", "person2", "Resource2",
+					RecurrenceRule.weekly(ZonedDateTime.now(ZoneId.of("Europe/Berlin")).plusDays(1), Duration.ofHours(1),
+							LocalDate.now().plusWeeks(3)));
+			first.deleteBooking(last);
+			first.close();
+
+			now[0] -= 10;
+			BookingService second = new BookingService(personService, resourceService, BookingLog.open(dir, 1),
+					new BookingIdGenerator(2, () -> now[0]));
+			String next = second.createBooking("DE", "person1", "Resource1");
+			assertTrue(next.compareTo(series) > 0);
+			assertTrue(next.compareTo(last) > 0);
+			assertEquals(5000, second.getBookingCount());
+			second.close();
+		} finally {
+			deleteDirectory(dir);
+		}
+	}
+
+	@Test
+	// Testen, ob Buchungen ohne ID angelegt und über ihre Erstellungszeit gefunden werden
+	public void isBookingCreatedWithGeneratedId() {
+		Instant before = Instant.now().minusMillis(1);
+		String id1 = bookingService.createBooking("DE", "person1", "Resource1");
+		bookingService.createBooking("EN", "X1", "person2", "Resource2");
+		String id2 = bookingService.createBooking("EN", "person2", "Resource2");
+		Instant after = Instant.now().plusMillis(1);
+
+		assertTrue(id1.compareTo(id2) < 0);
+		assertNotNull(bookingService.getBookingById(id1));
+		Instant created = BookingIdGenerator.timestampOf(BookingIdGenerator.parse(id1));
+		assertFalse(created.isBefore(before.truncatedTo(ChronoUnit.MILLIS)));
+		assertEquals(Arrays.asList(id1, id2), ids(bookingService.getBookingsCreatedBetween(before, after)));
+
+		bookingService.deleteBooking(id1);
+		assertEquals(Arrays.asList(id2), ids(bookingService.getBookingsCreatedBetween(before, after)));
+		assertTrue(bookingService.getBookingsCreatedBetween(after, after.plusSeconds(60)).isEmpty());
+	}
+
+	@Test
+	// Testen, ob Buchungen und Dauerbuchungen jenseits des Buchungshorizonts abgewiesen werden
+	public void areBookingsBeyondHorizonRejected() {
+		bookingService.setHorizon(Duration.ofDays(730));
+		Instant soon = Instant.now().plus(Duration.ofDays(30));
+		bookingService.createBooking("DE", "1", "person1", "Resource1", soon, soon.plus(Duration.ofHours(2)));
+		Instant far = Instant.parse("9999-06-01T10:00:00Z");
+		assertThrows(IllegalArgumentException.class,
+				() -> bookingService.createBooking("DE", "2", "person1", "Resource1", far, far.plus(Duration.ofHours(2))));
+		ZonedDateTime first = soon.atZone(ZoneId.of("Europe/Berlin"));
+		assertThrows(IllegalArgumentException.class, () -> bookingService.createRecurringBooking("DE", "3", "person1",
+				"Resource2", RecurrenceRule.weekly(first, Duration.ofHours(1), LocalDate.now().plusYears(5))));
+		assertEquals(1, bookingService.getBookingCount());
+		bookingService.setHorizon(null);
+		bookingService.createBooking("DE", "2", "person1", "Resource1", far, far.plus(Duration.ofHours(2)));
+	}
+
+	@Test
+	// Testen, ob importierte IDs im Format generierter IDs nicht nach Erstellungszeit indiziert werden,
+	// auch nicht nach Snapshot und Neustart
+	public void areImportedIdsNotIndexedByCreation() throws IOException {
+		Path dir = Files.createTempDirectory("bookings");
+		try {
+			Instant before = Instant.now();
+			BookingService first = new BookingService(personService, resourceService, BookingLog.open(dir, 1));
+			String generated = first.createBooking("DE", "person1", "Resource1");
+			// sieht aus wie eine jetzt generierte ID bzw. wie eine aus dem Jahr 2031
+			String lookalike = BookingIdGenerator.format(BookingIdGenerator.lowestIdAt(before) + 42);
+			first.createBooking("DE", lookalike, "person2", "Resource2");
+			first.createBooking("EN", "1000000000000000000", "person2", "Resource2");
+			Instant after = Instant.now().plusMillis(1);
+			assertEquals(Arrays.asList(generated), ids(first.getBookingsCreatedBetween(before, after)));
+			assertTrue(first.getBookingsCreatedBetween(after, Instant.parse("2093-01-01T00:00:00Z")).isEmpty());
+			first.snapshot();
+			first.createBooking("DE", BookingIdGenerator.format(BookingIdGenerator.lowestIdAt(before) + 43), "person1",
+					"Resource2");
+			first.close();
+
+			BookingService second = new BookingService(personService, resourceService, BookingLog.open(dir, 1));
+			assertEquals(4, second.getBookingCount());
+			assertEquals(Arrays.asList(generated), ids(second.getBookingsCreatedBetween(before, after)));
+			assertTrue(second.getBookingsCreatedBetween(after, Instant.parse("2093-01-01T00:00:00Z")).isEmpty());
+			second.close();
+		} finally {
+			deleteDirectory(dir);
+		}
+	}
+
+	@Test
+	// Testen, ob unbestätigte Reservierungen nach der TTL gesammelt gelöscht werden und ihren Zeitraum freigeben
+	public void areExpiredHoldsReleased() {
+		long[] now = { 1_000_000 };
+		HoldService holds = new HoldService(bookingService, Duration.ofMinutes(10), Duration.ofSeconds(1), () -> now[0]);
+		Instant t0 = Instant.parse("2026-03-01T10:00:00Z");
+		String h1 = holds.hold("DE", "person1", "Resource1", t0, t0.plusSeconds(3600));
+		String h2 = holds.hold("EN", "person2", "Resource2", t0, t0.plusSeconds(3600));
+		now[0] += Duration.ofMinutes(5).toMillis();
+		String h3 = holds.hold("DE", "person2", "Resource1", t0.plusSeconds(7200), t0.plusSeconds(9000));
+		assertTrue(holds.confirm(h2));
+		assertFalse(holds.confirm(h2));
+		assertEquals(2, holds.getHeldCount());
+
+		now[0] += Duration.ofMinutes(5).toMillis() - 1000;
+		assertEquals(0, holds.expireHolds());
+		now[0] += 1000;
+		assertEquals(1, holds.expireHolds());
+		assertNull(bookingService.getBookingById(h1));
+		assertTrue(bookingService.isResourceAvailable("Resource1", t0, t0.plusSeconds(3600)));
+		assertNotNull(bookingService.getBookingById(h2));
+		assertTrue(holds.isHeld(h3));
+
+		// manuell gelöschte Reservierung läuft nicht mehr ab
+		bookingService.deleteBooking(h3);
+		assertEquals(0, holds.getHeldCount());
+		now[0] += Duration.ofHours(1).toMillis();
+		assertEquals(0, holds.expireHolds());
+	}
+
+	@Test
+	// Testen, ob das Timing Wheel viele Fristen über mehrere Umläufe korrekt und vollständig abarbeitet
+	public void isTimingWheelExpiringInOrderOfRounds() {
+		TimingWheel<Integer> wheel = new TimingWheel<>(10, 64, 0);
+		List<TimingWheel.Timeout<Integer>> timeouts = new ArrayList<>();
+		for (int i = 0; i < 200_000; i++)
+			timeouts.add(wheel.schedule(i, (i % 5000) * 10L));
+		// jede zweite Frist abbrechen
+		for (int i = 0; i < timeouts.size(); i += 2)
+			assertTrue(timeouts.get(i).cancel());
+		assertEquals(100_000, wheel.size());
+
+		Set<Integer> seen = new HashSet<>();
+		for (long now = 0; now <= 50_500; now += 370) {
+			for (TimingWheel.Timeout<Integer> t : wheel.expire(now)) {
+				int i = t.getItem();
+				assertTrue(i % 2 == 1);
+				assertTrue(Math.max(10, (i % 5000) * 10L) <= now);
+				assertTrue(seen.add(i));
+			}
+		}
+		assertEquals(100_000, seen.size());
+		assertEquals(0, wheel.size());
+		assertFalse(timeouts.get(1).cancel());
+	}
+
+	@Test
+	// Testen, ob beim Löschen die wartende Anfrage mit der höchsten Priorität nachrückt und die übrigen weiter warten
+	public void isWaitlistPromotedOnDelete() {
+		WaitlistService waitlist = new WaitlistService(bookingService, Runnable::run);
+		Instant t0 = Instant.parse("2026-03-01T10:00:00Z");
+		bookingService.createBooking("DE", "W1", "person1", "Resource1", t0, t0.plusSeconds(3600));
+		bookingService.createBooking("DE", "W2", "person1", "Resource1", t0.plusSeconds(3600), t0.plusSeconds(7200));
+
+		WaitlistService.Request early = waitlist.bookOrWait("DE", "person2", "Resource1", t0, t0.plusSeconds(1800), 0);
+		WaitlistService.Request vip = waitlist.bookOrWait("EN", "person2", "Resource1", t0.plusSeconds(1800),
+				t0.plusSeconds(5400), 1);
+		WaitlistService.Request late = waitlist.bookOrWait("DE", "person1", "Resource1", t0, t0.plusSeconds(900), 0);
+		assertEquals(3, waitlist.getWaitingCount());
+		assertTrue(early.isWaiting());
+
+		// W1 frei: vip braucht auch W2s Zeitraum und wandert dorthin, early rückt nach, late überschneidet early
+		bookingService.deleteBooking("W1");
+		assertNotNull(early.getBookingId());
+		assertNotNull(bookingService.getBookingById(early.getBookingId()));
+		assertTrue(vip.isWaiting());
+		assertTrue(late.isWaiting());
+		assertEquals(2, waitlist.getWaitingCount());
+
+		// W2 frei: vip schließt direkt an early an
+		bookingService.deleteBooking("W2");
+		assertNotNull(vip.getBookingId());
+		assertEquals(t0.plusSeconds(1800), bookingService.getBookingById(vip.getBookingId()).getPickupTime());
+		assertTrue(late.isWaiting());
+		bookingService.deleteBooking(early.getBookingId());
+		assertNotNull(late.getBookingId());
+		assertEquals(0, waitlist.getWaitingCount());
+	}
+
+	@Test
+	// Testen, ob zurückgezogene Anfragen nicht nachrücken und freie Zeiträume sofort gebucht werden
+	public void isCancelledWaitlistRequestSkipped() {
+		WaitlistService waitlist = new WaitlistService(bookingService, Runnable::run);
+		Instant t0 = Instant.parse("2026-03-01T10:00:00Z");
+		WaitlistService.Request direct = waitlist.bookOrWait("DE", "person1", "Resource2", t0, t0.plusSeconds(60), 0);
+		assertNotNull(direct.getBookingId());
+
+		WaitlistService.Request r = waitlist.bookOrWait("DE", "person2", "Resource2", t0, t0.plusSeconds(60), 0);
+		assertTrue(waitlist.cancel(r));
+		assertEquals(0, waitlist.getWaitingCount());
+		bookingService.deleteBooking(direct.getBookingId());
+		assertNull(r.getBookingId());
+		assertTrue(bookingService.isResourceAvailable("Resource2", t0, t0.plusSeconds(60)));
+	}
+
+	@Test
+	// Testen, ob die Flottenzuteilung möglichst viele Anfragen annimmt und aneinander anschließende auf ein Auto legt
+	public void isFleetAssignmentMaximalAndCompact() {
+		resourceService.addResource(new Car("Polo1", 40, ResourceClass.COMPACT));
+		resourceService.addResource(new ChildSeat(new Car("Polo2", 40, ResourceClass.COMPACT)));
+		resourceService.addResource(new Car("Tiguan", 80, ResourceClass.SUV));
+		FleetAssignmentService fleet = new FleetAssignmentService(bookingService, resourceService);
+		Instant t0 = Instant.parse("2026-03-01T00:00:00Z");
+		// Polo1 ist in Stunde 20-22 schon belegt
+		bookingService.createBooking("DE", "F0", "person1", "Polo1", t0.plusSeconds(20 * 3600), t0.plusSeconds(22 * 3600));
+
+		List<BookingRequest> requests = new ArrayList<>();
+		// lange Anfrage, die zwei kurze verdrängen würde, wenn man nach Abholzeit vorginge
+		requests.add(new BookingRequest("DE", null, "person1", null, t0, t0.plusSeconds(10 * 3600)));
+		requests.add(new BookingRequest("DE", null, "person2", null, t0.plusSeconds(3600), t0.plusSeconds(2 * 3600)));
+		requests.add(new BookingRequest("DE", null, "person2", null, t0.plusSeconds(2 * 3600), t0.plusSeconds(3 * 3600)));
+		requests.add(new BookingRequest("EN", null, "person1", null, t0.plusSeconds(3 * 3600), t0.plusSeconds(4 * 3600)));
+		requests.add(new BookingRequest("DE", null, "person1", null, t0.plusSeconds(3600), t0.plusSeconds(5 * 3600)));
+		requests.add(new BookingRequest("DE", null, "person2", null, t0.plusSeconds(19 * 3600), t0.plusSeconds(23 * 3600)));
+		requests.add(new BookingRequest("DE", null, "person2", null, null, null));
+
+		BookingBatchResult result = fleet.assign(ResourceClass.COMPACT, requests);
+		assertEquals(7, result.getItems().size());
+		// drei kurze hintereinander auf einem Auto, die 19-23-Anfrage nur auf Polo2 (Polo1 belegt)
+		assertTrue(result.getItems().get(1).isAccepted());
+		assertTrue(result.getItems().get(2).isAccepted());
+		assertTrue(result.getItems().get(3).isAccepted());
+		String shortCar = result.getItems().get(1).getBooking().getResource().getName();
+		assertEquals(shortCar, result.getItems().get(2).getBooking().getResource().getName());
+		assertEquals(shortCar, result.getItems().get(3).getBooking().getResource().getName());
+		assertEquals("Polo2", result.getItems().get(5).getBooking().getResource().getName());
+		assertFalse(result.getItems().get(6).isAccepted());
+		// zwei Autos: von 0-10, 1-2, 2-3, 3-4 und 1-5 passen höchstens vier, dazu 19-23
+		assertEquals(5, result.getAcceptedCount());
+		assertTrue(bookingService.getBookingsByResource("Tiguan").isEmpty());
+	}
+
+	@Test
+	// Testen, ob tausende Anfragen um bestehende Buchungen herum überschneidungsfrei und lückenlos verteilt werden
+	public void isFleetAssignmentScaling() {
+		for (int c = 0; c < 8; c++)
+			resourceService.addResource(new Car("Compact" + c, 40, ResourceClass.COMPACT));
+		FleetAssignmentService fleet = new FleetAssignmentService(bookingService, resourceService);
+		Instant t0 = Instant.parse("2026-03-01T00:00:00Z");
+		Random random = new Random(7);
+		// jedes zweite Auto ist an einigen Tagen schon gebucht
+		for (int c = 0; c < 8; c += 2)
+			for (int d = c; d < 30; d += 7)
+				bookingService.createBooking("DE", "Compact" + c + "-" + d, "person1", "Compact" + c,
+						t0.plus(Duration.ofDays(d)), t0.plus(Duration.ofDays(d)).plusSeconds(5 * 3600));
+		int existing = bookingService.getBookingCount();
+		List<BookingRequest> requests = new ArrayList<>();
+		for (int i = 0; i < 5000; i++) {
+			long start = random.nextInt(30 * 24) * 3600L;
+			requests.add(new BookingRequest("DE", null, i % 2 == 0 ? "person1" : "person2", null, t0.plusSeconds(start),
+					t0.plusSeconds(start + (1 + random.nextInt(6)) * 3600L)));
+		}
+		BookingBatchResult result = fleet.assign(ResourceClass.COMPACT, requests);
+		assertEquals(5000, result.getItems().size());
+		assertEquals(existing + result.getAcceptedCount(), bookingService.getBookingCount());
+		assertTrue(result.getAcceptedCount() > 1000);
+		// abgelehnt wird nur, wenn wirklich jedes Auto der Klasse im Zeitraum belegt ist
+		for (BookingBatchResult.Item item : result.getRejected())
+			for (int c = 0; c < 8; c++)
+				assertNotNull(bookingService.findConflict("Compact" + c, item.getRequest().getPickupTime(),
+						item.getRequest().getReturnTime()), "Compact" + c + " was free for " + item.getRequest());
+	}
+
+	@Test
+	// Testen, ob eine beim Buchen abgewiesene Zeile ihr Auto für die übrigen Anfragen freigibt
+	public void isRejectedAssignmentReleasingItsCar() {
+		resourceService.addResource(new Car("Polo1", 40, ResourceClass.COMPACT));
+		FleetAssignmentService fleet = new FleetAssignmentService(bookingService, resourceService);
+		Instant t0 = Instant.parse("2026-03-01T00:00:00Z");
+		List<BookingRequest> requests = new ArrayList<>();
+		requests.add(new BookingRequest("DE", null, "nobody", null, t0, t0.plusSeconds(2 * 3600)));
+		requests.add(new BookingRequest("DE", null, "person1", null, t0.plusSeconds(3600), t0.plusSeconds(3 * 3600)));
+
+		BookingBatchResult result = fleet.assign(ResourceClass.COMPACT, requests);
+		assertFalse(result.getItems().get(0).isAccepted());
+		assertTrue(result.getItems().get(0).getError().contains("Person not found"));
+		assertTrue(result.getItems().get(1).isAccepted());
+		assertEquals("Polo1", result.getItems().get(1).getBooking().getResource().getName());
+	}
+
+	@Test
+	// Testen, ob eine jahrelange Dauerbuchung Konflikte an ihren Terminen erkennt, ohne die Termine zu speichern
+	public void isRecurringBookingCheckedLazily() {
+		ZoneId berlin = ZoneId.of("Europe/Berlin");
+		ZonedDateTime first = ZonedDateTime.of(2026, 1, 5, 8, 0, 0, 0, berlin);
+		bookingService.createRecurringBooking("DE", "R1", "person1", "Resource1",
+				RecurrenceRule.weekly(first, Duration.ofHours(2), LocalDate.of(2046, 1, 1)));
+		assertEquals(0, bookingService.getBookingCount());
+		assertEquals(1044, bookingService.getRecurringBooking("R1").getRule().count());
+
+		// Montag in zehn Jahren, 9 Uhr: Termin; Dienstag: frei
+		Instant monday = first.plusWeeks(520).plusHours(1).toInstant();
+		Booking conflict = bookingService.findConflict("Resource1", monday, monday.plusSeconds(600));
+		assertNotNull(conflict);
+		assertEquals(bookingService.getRecurringBooking("R1"), bookingService.getSeriesOf(conflict.getBookingId()));
+		assertThrows(IllegalArgumentException.class,
+				() -> bookingService.createBooking("DE", "S1", "person2", "Resource1", monday, monday.plusSeconds(600)));
+		Instant tuesday = monday.plus(1, ChronoUnit.DAYS);
+		bookingService.createBooking("DE", "S2", "person2", "Resource1", tuesday, tuesday.plusSeconds(600));
+		// Sommerzeit: die Ortszeit bleibt 8 Uhr
+		Instant summer = ZonedDateTime.of(2026, 7, 6, 8, 30, 0, 0, berlin).toInstant();
+		assertFalse(bookingService.isResourceAvailable("Resource1", summer, summer.plusSeconds(60)));
+		assertTrue(bookingService.isResourceAvailable("Resource1", summer.minusSeconds(3600), summer.minusSeconds(1800)));
+
+		// eine zweite Regel, die einen Termin trifft, und eine ID, die es schon gibt, werden abgewiesen
+		assertThrows(IllegalArgumentException.class, () -> bookingService.createRecurringBooking("DE", "R2", "person2",
+				"Resource1", RecurrenceRule.everyDays(3, first.plusHours(1), Duration.ofHours(1), LocalDate.of(2026, 3, 1))));
+		assertThrows(IllegalArgumentException.class, () -> bookingService.createRecurringBooking("DE", "R3", "person2",
+				"Resource1", RecurrenceRule.weekly(tuesday.atZone(berlin), Duration.ofHours(1), LocalDate.of(2037, 1, 1))));
+		assertThrows(IllegalArgumentException.class,
+				() -> bookingService.createBooking("DE", "R1", "person2", "Resource2"));
+
+		bookingService.deleteRecurringBooking("R1");
+		assertTrue(bookingService.isResourceAvailable("Resource1", monday, monday.plusSeconds(600)));
+	}
+
+	@Test
+	// Testen, ob Abfragen über einen Zeitraum nur dessen Termine erzeugen und die Statistik sie mitzählt
+	public void areRecurringOccurrencesListedForWindow() {
+		ZonedDateTime first = ZonedDateTime.of(2026, 1, 1, 10, 0, 0, 0, ZoneId.of("UTC"));
+		bookingService.createRecurringBooking("EN", "R1", "person1", "Resource1",
+				RecurrenceRule.everyDays(2, first, Duration.ofHours(3), LocalDate.of(2030, 12, 31)));
+		Instant t0 = Instant.parse("2026-01-10T00:00:00Z");
+		bookingService.createBooking("DE", "S1", "person2", "Resource2", t0.plusSeconds(3600), t0.plusSeconds(7200));
+
+		List<Booking> window = bookingService.getBookingsBetween(t0, t0.plus(7, ChronoUnit.DAYS));
+		// Termine am 11., 13. und 15. Januar, dazu die Einzelbuchung
+		assertEquals(Arrays.asList("S1", "R1#5", "R1#6", "R1#7"), ids(window));
+		assertEquals(Instant.parse("2026-01-11T10:00:00Z"), window.get(1).getPickupTime());
+		StatisticsService.Result stats = new StatisticsService().compute(window);
+		assertEquals(3, stats.getEnglishCount());
+		assertEquals(1, stats.getGermanCount());
+		assertEquals(300.0, stats.getEnglishTotal());
+	}
+
+	@Test
+	// Testen, ob Dauerbuchungen einen Neustart und einen Snapshot überstehen und das Löschen protokolliert wird
+	public void isRecurringBookingLogged() throws IOException {
+		Path dir = Files.createTempDirectory("bookings");
+		try {
+			ZonedDateTime first = ZonedDateTime.of(2026, 3, 2, 18, 0, 0, 0, ZoneId.of("Europe/Berlin"));
+			BookingService one = new BookingService(personService, resourceService, BookingLog.open(dir, 1));
+			one.createRecurringBooking("EN", "R1", "person1", "Resource1",
+					RecurrenceRule.weekly(first, Duration.ofHours(1), LocalDate.of(2027, 3, 1)));
+			one.createRecurringBooking("DE", "R2", "person2", "Resource2",
+					RecurrenceRule.weekly(first, Duration.ofHours(1), LocalDate.of(2027, 3, 1)));
+			one.deleteRecurringBooking("R2");
+			one.close();
+
+			BookingService two = new BookingService(personService, resourceService, BookingLog.open(dir, 1));
+			assertNull(two.getRecurringBooking("R2"));
+			assertEquals(first.toLocalDateTime(), two.getRecurringBooking("R1").getRule().getFirstPickup());
+			assertEquals(Lang.EN, two.getRecurringBooking("R1").getLang());
+			two.snapshot();
+			two.close();
+
+			BookingService three = new BookingService(personService, resourceService, BookingLog.open(dir, 1));
+			Instant later = first.plusWeeks(30).toInstant();
+			assertFalse(three.isResourceAvailable("Resource1", later, later.plusSeconds(60)));
+			assertTrue(three.isResourceAvailable("Resource2", later, later.plusSeconds(60)));
+			three.close();
+		} finally {
+			deleteDirectory(dir);
+		}
+	}
+
+	@Test
+	// Testen, ob eine Person mit Buchungen nur mit Kaskade gelöscht wird und dabei nur ihre Buchungen verschwinden
+	public void isPersonDeletionRefusedOrCascaded() {
+		personService.addReferences(bookingService);
+		Instant t0 = Instant.parse("2026-03-01T10:00:00Z");
+		bookingService.createBooking("DE", "1", "person1", "Resource1", t0, t0.plusSeconds(3600));
+		bookingService.createBooking("EN", "2", "person1", "Resource2");
+		bookingService.createBooking("DE", "3", "person2", "Resource2");
+		bookingService.createRecurringBooking("DE", "R1", "Person1", "Resource2", RecurrenceRule.weekly(
+				t0.atZone(ZoneId.of("UTC")), Duration.ofHours(1), LocalDate.of(2026, 6, 1)));
+		assertEquals(3, bookingService.countReferences(personService.findPersonByName("person1")));
+
+		IllegalStateException refused = assertThrows(IllegalStateException.class,
+				() -> personService.deletePerson("person1"));
+		assertTrue(refused.getMessage().contains("3 booking(s)"));
+		assertNotNull(personService.findPersonByName("person1"));
+		assertEquals(3, bookingService.getBookingCount());
+
+		personService.deletePerson("PERSON1", true);
+		assertThrows(IllegalArgumentException.class, () -> personService.findPersonByName("person1"));
+		assertEquals(Arrays.asList("3"), ids(bookingService.getBookings()));
+		assertNull(bookingService.getRecurringBooking("R1"));
+		assertTrue(bookingService.isResourceAvailable("Resource1", t0, t0.plusSeconds(3600)));
+		assertThrows(IllegalArgumentException.class,
+				() -> bookingService.createBooking("DE", "4", "person1", "Resource1"));
+	}
+
+	@Test
+	// Testen, ob eine Buchung, die zwischen dem Zählen und dem Entfernen der Person angelegt wird, abgewiesen wird
+	public void isBookingDuringPersonDeletionRejected() {
+		AtomicInteger rejected = new AtomicInteger();
+		// simuliert einen parallelen Schreiber genau während der Prüfung auf Verweise
+		personService.addReferences(new PersonReferences() {
+			@Override
+			public int countReferences(Person person) {
+				try {
+					bookingService.createBooking("DE", "late", person.getName(), "Resource1");
+				} catch (IllegalStateException e) {
+					rejected.incrementAndGet();
+				}
+				return 0;
+			}
+
+			@Override
+			public int removeReferences(Person person) {
+				return 0;
+			}
+		});
+		personService.addReferences(bookingService);
+
+		personService.deletePerson("person2");
+		assertEquals(1, rejected.get());
+		assertNull(bookingService.getBookingById("late"));
+		assertTrue(bookingService.getBookingsByPerson("person2").isEmpty());
+		assertEquals(0, bookingService.getBookingCount());
+		// eine abgelehnte Löschung nimmt den Grabstein wieder zurück
+		bookingService.createBooking("DE", "1", "person1", "Resource1");
+		assertThrows(IllegalStateException.class, () -> personService.deletePerson("person1"));
+		bookingService.createBooking("DE", "2", "person1", "Resource2");
+		assertEquals(2, bookingService.getBookingsByPerson("person1").size());
+	}
+
+	@Test
+	// Testen, ob die Kaskade nur Buchungen derselben Person löscht und der Name bis zu ihrem Ende belegt bleibt
+	public void isCascadeLimitedToDeletedPerson() {
+		AtomicInteger rejected = new AtomicInteger();
+		personService.addReferences(bookingService);
+		// läuft nach der Kaskade im BookingService, aber bevor die Person entfernt ist
+		personService.addReferences(new PersonReferences() {
+			@Override
+			public int countReferences(Person person) {
+				return 0;
+			}
+
+			@Override
+			public int removeReferences(Person person) {
+				personService.createPerson("natural", "person1");
+				try {
+					bookingService.createBooking("DE", "late", "person1", "Resource2");
+				} catch (IllegalStateException e) {
+					rejected.incrementAndGet();
+				}
+				return 0;
+			}
+		});
+		bookingService.createBooking("DE", "1", "person1", "Resource1");
+		// gleichnamig, aber eine andere Person
+		assertEquals(0, bookingService.countReferences(new LegalPerson("person1")));
+		assertEquals(0, bookingService.removeReferences(new LegalPerson("person1")));
+		assertNotNull(bookingService.getBookingById("1"));
+
+		personService.deletePerson("person1", true);
+		assertEquals(1, rejected.get());
+		assertEquals(0, bookingService.getBookingCount());
+		assertThrows(IllegalArgumentException.class, () -> personService.findPersonByName("person1"));
+		personService.createPerson("natural", "person1");
+		bookingService.createBooking("DE", "2", "person1", "Resource1");
+		assertEquals(1, bookingService.getBookingsByPerson("person1").size());
+	}
+
+	private static List<String> ids(List<Booking> bookings) {
+		return bookings.stream().map(Booking::getBookingId).collect(Collectors.toList());
+	}
+
+	private static void deleteDirectory(Path dir) throws IOException {
+		try (Stream<Path> files = Files.list(dir)) {
+			for (Path p : (Iterable<Path>) files::iterator)
+				Files.deleteIfExists(p);
+		}
+		Files.deleteIfExists(dir);
+	}
+
 }
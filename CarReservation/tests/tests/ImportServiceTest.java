@@ -0,0 +1,117 @@
+package tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import importing.behaviour.ImportService;
+import importing.structure.ImportResult;
+import person.behaviour.PersonService;
+import person.structure.LegalPerson;
+import resource.behaviour.ResourceService;
+import resource.structure.ChildSeat;
+import resource.structure.Resource;
+import resource.structure.ResourceClass;
+import resource.structure.SetTopBox;
+
+class ImportServiceTest {
+
+	private PersonService personService;
+	private ResourceService resourceService;
+	private Path file;
+
+	@BeforeEach
+	public void setUp() throws IOException {
+		personService = new PersonService();
+		resourceService = new ResourceService();
+		file = Files.createTempFile("import", ".csv");
+	}
+
+	@AfterEach
+	public void tearDown() throws IOException {
+		Files.deleteIfExists(file);
+	}
+
+	@Test
+	// Testen, ob Personen importiert und fehlerhafte Zeilen mit Zeilennummer gemeldet werden
+	public void arePersonsImportedAndRejectedRowsReported() throws IOException {
+		Files.writeString(file, "type,name\r\n"
+				+ "natural,Anna\r\n"
+				+ "legal,\"Müller, Schmidt & Co\"\r\n"
+				+ "\r\n"
+				+ "robot,R2D2\n"
+				+ "natural,\"Bob\n"
+				+ "natural,ANNA\n"
+				+ "legal,\"Say \"\"Hi\"\" GmbH\"", StandardCharsets.UTF_8);
+
+		ImportResult result = new ImportService(personService, resourceService, 1).importPersons(file);
+
+		assertEquals(3, result.getAcceptedCount());
+		assertEquals(List.of(5L, 6L, 7L), result.getRejected().stream().map(ImportResult.Rejected::getLine)
+				.collect(Collectors.toList()));
+		assertTrue(result.getRejected().get(0).getError().contains("Unknown person type"));
+		assertTrue(result.getRejected().get(2).getError().contains("Duplicate"));
+		assertTrue(personService.findPersonByName("müller, schmidt & co") instanceof LegalPerson);
+		assertEquals("Say \"Hi\" GmbH", personService.findPersonByName("say \"hi\" gmbh").getName());
+	}
+
+	@Test
+	// Testen, ob Resourcen mit Klasse und Extras als Dekorationen angelegt werden
+	public void areResourcesImportedWithExtras() throws IOException {
+		Files.writeString(file, "name,price,class,extras\n"
+				+ "Golf,50,compact,\n"
+				+ "Passat,70,MIDSIZE,ChildSeat+Set Top Box\n"
+				+ "Polo,cheap\n"
+				+ "Tiguan,90,TANK\n"
+				+ "Zoe,40,,sunroof\n", StandardCharsets.UTF_8);
+
+		ImportResult result = new ImportService(personService, resourceService, 1).importResources(file);
+
+		assertEquals(2, result.getAcceptedCount());
+		assertEquals(3, result.getRejectedCount());
+		Resource passat = resourceService.getSelectedResource("passat");
+		assertEquals(115.0, passat.getPrice());
+		assertTrue(passat.has(ChildSeat.class) && passat.has(SetTopBox.class));
+		assertEquals(ResourceClass.MIDSIZE, passat.getResourceClass());
+		assertEquals(ResourceClass.COMPACT, resourceService.getSelectedResource("Golf").getResourceClass());
+	}
+
+	@Test
+	// Testen, ob der parallele Import über mehrere Bereiche dasselbe Ergebnis liefert wie der sequentielle
+	public void isParallelImportEqualToSequential() throws IOException {
+		try (BufferedWriter w = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+			w.write("type,name\n");
+			for (int i = 0; i < 200_000; i++) {
+				if (i % 10_000 == 0)
+					w.write("nobody,x" + i + "\n");
+				w.write((i % 3 == 0 ? "legal" : "natural") + ",Kunde" + (i % 150_000) + "\n");
+			}
+		}
+
+		ImportResult parallel = new ImportService(personService, resourceService, 4).importPersons(file);
+		PersonService sequentialPersons = new PersonService();
+		ImportResult sequential = new ImportService(sequentialPersons, resourceService, 1).importPersons(file);
+
+		assertEquals(150_000, parallel.getAcceptedCount());
+		assertEquals(150_000, personService.getPersonCount());
+		assertEquals(50_020, parallel.getRejectedCount());
+		assertEquals(lines(sequential), lines(parallel));
+		assertEquals(personService.getAllPersons().skip(149_999).findFirst().get().getName(),
+				sequentialPersons.getAllPersons().skip(149_999).findFirst().get().getName());
+	}
+
+	private static List<Long> lines(ImportResult result) {
+		return result.getRejected().stream().map(ImportResult.Rejected::getLine).collect(Collectors.toList());
+	}
+}
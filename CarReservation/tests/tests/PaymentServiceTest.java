@@ -1,6 +1,7 @@
 package tests;
 
 import booking.behaviour.BookingService;
+import booking.behaviour.HoldService;
 import payment.behaviour.PaymentService;
 import payment.structure.Account;
 import payment.structure.PaymentType;
@@ -8,6 +9,8 @@ import person.behaviour.PersonService;
 import resource.behaviour.ResourceService;
 import resource.structure.Resource;
 
+import java.time.Duration;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -83,4 +86,25 @@ class PaymentServiceTest {
 
 		assertThrows(NullPointerException.class, () -> paymentService.payBookingById("2", PaymentType.PAYPAL));
 	}
+
+	@Test
+	void payBookingById_tentativeBooking_confirmsHold_expiredHoldFails() {
+		long[] now = { 0 };
+		var holdService = new HoldService(bookingService, Duration.ofMinutes(15), Duration.ofSeconds(1), () -> now[0]);
+		var payments = new PaymentService(bookingService, holdService);
+		addPersonWithAccount("Ari", 5000.0);
+		resourceService.addResource(new Resource("BMW", 500.0));
+
+		holdService.hold("DE", "H1", "Ari", "Audi", null, null);
+		holdService.hold("DE", "H2", "Ari", "BMW", null, null);
+		assertTrue(payments.payBookingById("H1", PaymentType.PAYPAL));
+		assertFalse(holdService.isHeld("H1"));
+
+		// nach Ablauf ist die unbezahlte Reservierung weg, die bezahlte bleibt
+		now[0] += Duration.ofMinutes(16).toMillis();
+		assertEquals(1, holdService.expireHolds());
+		assertNotNull(bookingService.getBookingById("H1"));
+		assertNull(bookingService.getBookingById("H2"));
+		assertFalse(payments.payBookingById("H2", PaymentType.PAYPAL));
+	}
 }
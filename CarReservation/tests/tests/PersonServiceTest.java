@@ -1,17 +1,27 @@
 package tests;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import payment.structure.Account;
 import person.behaviour.PersonService;
 import person.structure.LegalPerson;
 import person.structure.NaturalPerson;
 import person.structure.Person;
+import person.structure.PersonStore;
 
 class PersonServiceTest {
 	
@@ -79,4 +89,208 @@ class PersonServiceTest {
 		assertEquals("person4", p.getName());
 		assertTrue(p instanceof NaturalPerson, "Original person4 should remain a NaturalPerson");
 	}
+	
+	@Test
+	// Testen, ob der Speicher unbegrenzt ist und Löschen die Reihenfolge der übrigen Personen erhält
+	public void isStoreUnboundedAndOrdered() {
+		for (int i = 0; i < 1000; i++)
+			personService.createPerson(i % 2 == 0 ? "natural" : "legal", "Kunde" + i);
+		personService.deletePerson("KUNDE1");
+		
+		assertEquals(999, personService.getPersonCount());
+		List<Person> all = personService.getAllPersons().limit(2).collect(Collectors.toList());
+		assertEquals("Kunde0", all.get(0).getName());
+		assertEquals("Kunde2", all.get(1).getName());
+		assertTrue(personService.findPersonByName("kunde999") instanceof LegalPerson);
+	}
+	
+	@Test
+	// Testen, ob die Präfixsuche case-insensitive, sortiert und begrenzt ist
+	public void isPrefixSearchSortedAndLimited() {
+		for (String name : Arrays.asList("Müller", "Meier", "mueller", "Maier", "Mayer", "Schmidt"))
+			personService.createPerson("natural", name);
+		
+		assertEquals(Arrays.asList("Maier", "Mayer", "Meier"), names(personService.findPersonsByPrefix("m", 3)));
+		assertEquals(Arrays.asList("mueller"), names(personService.findPersonsByPrefix("MU", 10)));
+		assertEquals(Arrays.asList("Müller"), names(personService.findPersonsByPrefix("MÜ", 10)));
+		assertTrue(personService.findPersonsByPrefix("x", 10).isEmpty());
+		personService.deletePerson("meier");
+		assertEquals(Arrays.asList("Maier", "Mayer", "mueller", "Müller"), names(personService.findPersonsByPrefix("M", 10)));
+	}
+	
+	@Test
+	// Testen, ob die Präfixsuche auch in einem großen Verzeichnis die ersten Treffer alphabetisch liefert
+	public void isPrefixSearchCorrectOnLargeDirectory() {
+		List<Person> batch = new ArrayList<>();
+		for (int i = 0; i < 200_000; i++)
+			batch.add(new NaturalPerson("p" + i));
+		personService.addPersons(batch);
+		
+		List<String> sorted = batch.stream().map(Person::getName).sorted().collect(Collectors.toList());
+		for (int i = 0; i < 100; i += 7) {
+			String prefix = "P1" + i;
+			List<String> expected = sorted.stream().filter(n -> n.startsWith(prefix.toLowerCase())).limit(10)
+					.collect(Collectors.toList());
+			assertEquals(expected, names(personService.findPersonsByPrefix(prefix, 10)));
+		}
+		assertTrue(personService.findPersonsByPrefix("q", 10).isEmpty());
+	}
+	
+	@Test
+	// Testen, ob eine Person mit Konto nur mit Kaskade gelöscht wird
+	public void isPersonWithAccountDeletedOnlyWithCascade() {
+		personService.createPerson("natural", "person5");
+		Person p = personService.findPersonByName("person5");
+		p.setAccount(new Account("ACC-5", p, 10.0));
+		
+		assertThrows(IllegalStateException.class, () -> personService.deletePerson("person5"));
+		assertEquals(1, personService.getPersonCount());
+		personService.deletePerson("person5", true);
+		assertEquals(0, personService.getPersonCount());
+		assertEquals(null, p.getAccount());
+	}
+	
+	@Test
+	// Testen, ob Schreibvarianten eines Namens als mögliche Dubletten gefunden werden
+	public void areSimilarNamesFound() {
+		personService.createPerson("legal", "Müller GmbH");
+		personService.createPerson("legal", "Mueller GmbH");
+		personService.createPerson("legal", "Müller Bau GmbH");
+		personService.createPerson("natural", "Schmidt");
+		
+		assertEquals(Arrays.asList("Müller GmbH", "Mueller GmbH"),
+				names(personService.findSimilarPersons("MUELLER gmbh.", 0.9, 10)));
+		assertEquals("Müller Bau GmbH", personService.findSimilarPersons("Mueller Bau GmbH", 0.9, 10).get(0).getName());
+		assertEquals(3, personService.findSimilarPersons("Muller GmbH", 0.5, 10).size());
+		assertTrue(personService.findSimilarPersons("Schmitt", 0.9, 10).isEmpty());
+		personService.deletePerson("Mueller GmbH");
+		assertEquals(Arrays.asList("Müller GmbH"), names(personService.findSimilarPersons("Mueller GmbH", 0.9, 10)));
+	}
+	
+	@Test
+	// Testen, ob die Gruppierung der Dubletten im ganzen Verzeichnis die Varianten zusammenfasst
+	public void areDuplicatesClustered() {
+		Random random = new Random(3);
+		List<Person> batch = new ArrayList<>();
+		for (int i = 0; i < 100_000; i++)
+			batch.add(new NaturalPerson(word(random) + " " + word(random)));
+		batch.add(new LegalPerson("Müller-Lüdenscheidt AG"));
+		batch.add(new LegalPerson("Mueller Luedenscheidt AG"));
+		batch.add(new LegalPerson("Müller Lüdenscheid AG"));
+		batch.add(new NaturalPerson(batch.get(42).getName().toUpperCase() + "!"));
+		personService.addPersons(batch);
+		
+		long begin = System.nanoTime();
+		List<List<Person>> clusters = personService.findDuplicateClusters(0.85);
+		long millis = (System.nanoTime() - begin) / 1_000_000;
+		assertTrue(millis < 20_000, "took " + millis + " ms");
+		List<List<String>> named = clusters.stream().map(PersonServiceTest::names).map(l -> l.stream().sorted()
+				.collect(Collectors.toList())).collect(Collectors.toList());
+		assertTrue(named.contains(Arrays.asList("Mueller Luedenscheidt AG", "Müller Lüdenscheid AG",
+				"Müller-Lüdenscheidt AG")), named.toString());
+		String variant = batch.get(42).getName();
+		assertTrue(named.stream().anyMatch(c -> c.contains(variant) && c.contains(variant.toUpperCase() + "!")));
+	}
+	
+	@Test
+	// Testen, ob Tippfehler, die den Klang des Namens ändern, genauso gruppiert werden, wie die Ähnlichkeitssuche
+	// sie findet
+	public void areTyposClusteredLikeSimilarSearch() {
+		personService.addPersons(Arrays.asList(new NaturalPerson("Alexandra Rosenberger-Lindqvist"),
+				new NaturalPerson("Alexandra Rosenberber-Lindqvist"), new NaturalPerson("Bernhard Lindqvist")));
+		List<Person> similar = personService.findSimilarPersons("Alexandra Rosenberger-Lindqvist", 0.85, 10);
+		assertEquals(Arrays.asList("Alexandra Rosenberger-Lindqvist", "Alexandra Rosenberber-Lindqvist"), names(similar));
+
+		List<List<Person>> clusters = personService.findDuplicateClusters(0.85);
+		assertEquals(1, clusters.size());
+		assertEquals(Arrays.asList("Alexandra Rosenberber-Lindqvist", "Alexandra Rosenberger-Lindqvist"),
+				names(clusters.get(0)).stream().sorted().collect(Collectors.toList()));
+	}
+	
+	@Test
+	// Testen, ob verdrängte Personen aus der Datei nachgeladen werden und Personen mit Konto im Speicher bleiben
+	public void areColdPersonsLoadedOnDemand() {
+		PersonService small = new PersonService(100);
+		small.createPerson("natural", "Kunde0");
+		Person withAccount = small.findPersonByName("Kunde0");
+		withAccount.setAccount(new Account("ACC-0", withAccount, 10.0));
+		for (int i = 1; i < 1000; i++)
+			small.createPerson(i % 2 == 0 ? "natural" : "legal", "Kunde" + i);
+		
+		PersonStore.Statistics before = small.getStoreStatistics();
+		assertTrue(before.getHotCount() <= 100, before.toString());
+		assertEquals(1, before.getPinnedCount());
+		assertTrue(before.getEvictions() >= 899 && before.getFileBytes() > 0, before.toString());
+		assertTrue(small.findPersonByName("KUNDE1") instanceof LegalPerson);
+		assertEquals("Kunde2", small.findPersonByName("kunde2").getName());
+		assertSame(withAccount, small.findPersonByName("kunde0"));
+		PersonStore.Statistics after = small.getStoreStatistics();
+		assertEquals(2, after.getMisses() - before.getMisses());
+		
+		// Durchlauf in Einfügereihenfolge, ohne die heißen Personen zu verdrängen
+		List<Person> all = small.getAllPersons().collect(Collectors.toList());
+		assertEquals(1000, all.size());
+		assertEquals("Kunde999", all.get(999).getName());
+		assertEquals(after.getEvictions(), small.getStoreStatistics().getEvictions());
+		small.deletePerson("Kunde1");
+		assertEquals("Kunde2", small.getAllPersons().skip(1).findFirst().get().getName());
+	}
+	
+	@Test
+	// Testen, ob eine kalte Person aus getAllPersons, die ein Konto bekommt, gepinnt wird und es nicht verliert
+	public void isColdPersonPinnedWhenGettingAccount() {
+		PersonService small = new PersonService(10);
+		for (int i = 0; i < 100; i++)
+			small.createPerson("natural", "Kunde" + i);
+		int pinned = small.getStoreStatistics().getPinnedCount();
+		Person cold = small.getAllPersons().filter(p -> p.getName().equals("Kunde1")).findFirst().get();
+		cold.setAccount(new Account("ACC-1", cold, 10.0));
+		assertEquals(pinned + 1, small.getStoreStatistics().getPinnedCount());
+		cold = null;
+		for (int i = 0; i < 3; i++)
+			System.gc();
+		assertNotNull(small.findPersonByName("Kunde1").getAccount());
+		assertEquals("ACC-1", small.findPersonByName("kunde1").getAccount().getAccountNumber());
+	}
+	
+	@Test
+	// Testen, ob ein vor dem Verdrängen ausgegebenes Objekt sein Konto an das nachgeladene weitergibt
+	public void isAccountOfStaleObjectTransferred() {
+		PersonService small = new PersonService(10);
+		small.createPerson("natural", "Kunde0");
+		Person stale = small.findPersonByName("Kunde0");
+		for (int i = 1; i < 100; i++)
+			small.createPerson("natural", "Kunde" + i);
+		Person current = small.findPersonByName("Kunde0");
+		assertTrue(current != stale && current.isSamePerson(stale) && stale.isSamePerson(current));
+		assertFalse(current.isSamePerson(small.findPersonByName("Kunde1")));
+		
+		stale.setAccount(new Account("ACC-0", stale, 10.0));
+		assertEquals("ACC-0", small.findPersonByName("kunde0").getAccount().getAccountNumber());
+		stale.setAccount(null);
+		assertEquals(null, small.findPersonByName("kunde0").getAccount());
+		
+		// Grabstein gilt für alle Objekte der Person
+		small.deletePerson("Kunde0");
+		assertTrue(stale.isDeleted() && current.isDeleted());
+		small.createPerson("natural", "Kunde0");
+		assertFalse(small.findPersonByName("Kunde0").isSamePerson(current));
+		small.close();
+	}
+	
+	// zufälliges Wort aus Silben, ähnlich einem Namen
+	private static String word(Random random) {
+		String[] syllables = { "ma", "ri", "an", "ke", "lo", "sch", "mi", "dt", "ber", "ger", "hof", "mann", "el", "is",
+				"tor", "wal", "ste", "fan", "kr", "au", "se", "ni", "go", "ra", "tha", "lie", "bu", "do", "zu", "vo" };
+		StringBuilder sb = new StringBuilder();
+		int n = 2 + random.nextInt(3);
+		for (int i = 0; i < n; i++)
+			sb.append(syllables[random.nextInt(syllables.length)]);
+		sb.setCharAt(0, Character.toUpperCase(sb.charAt(0)));
+		return sb.toString();
+	}
+	
+	private static List<String> names(List<Person> persons) {
+		return persons.stream().map(Person::getName).collect(Collectors.toList());
+	}
 }
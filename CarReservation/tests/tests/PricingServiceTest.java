@@ -0,0 +1,174 @@
+package tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Clock;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.MonthDay;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import availability.behaviour.AvailabilityService;
+import booking.behaviour.BookingService;
+import booking.structure.RecurrenceRule;
+import person.behaviour.PersonService;
+import pricing.behaviour.PricingService;
+import pricing.behaviour.QuoteService;
+import pricing.structure.PricingRule;
+import pricing.structure.QuoteRequest;
+import resource.behaviour.ResourceService;
+import resource.structure.Car;
+import resource.structure.ResourceClass;
+
+class PricingServiceTest {
+
+	// Montag
+	private static final Instant NOW = Instant.parse("2026-06-01T00:00:00Z");
+
+	private ResourceService resourceService;
+	private BookingService bookingService;
+	private PricingService pricingService;
+	private AvailabilityService availability;
+
+	@BeforeEach
+	public void setUp() {
+		PersonService personService = new PersonService();
+		resourceService = new ResourceService();
+		bookingService = new BookingService(personService, resourceService);
+		personService.createPerson("natural", "person1");
+		resourceService.addResource(new Car("Golf", 100, ResourceClass.COMPACT));
+		resourceService.addResource(new Car("Polo", 80, ResourceClass.COMPACT));
+		availability = new AvailabilityService(bookingService, resourceService, NOW,
+				Duration.ofHours(1));
+		pricingService = new PricingService(ZoneOffset.UTC, availability, Clock.fixed(NOW, ZoneOffset.UTC));
+		bookingService.setPricing(pricingService);
+	}
+
+	@Test
+	// Testen, ob Saison, Wochentag, Vorlaufzeit und Auslastung als Zuschläge addiert werden
+	public void areRulesAppliedToBookingsAndQuotes() {
+		pricingService.setRules(Arrays.asList(
+				PricingRule.season(MonthDay.of(12, 20), MonthDay.of(1, 6), 20),
+				PricingRule.weekday(DayOfWeek.SATURDAY, 10),
+				PricingRule.leadTime(0, 2, 15),
+				PricingRule.leadTime(60, Integer.MAX_VALUE, -10),
+				PricingRule.utilization(50, 100, 25)));
+
+		assertEquals(11500, price("Golf", "2026-06-03T10:00:00Z")); // kurzfristig
+		assertEquals(11000, price("Golf", "2026-12-31T10:00:00Z")); // Saison, Frühbucher
+		assertEquals(12000, price("Golf", "2027-01-02T10:00:00Z")); // Saison, Samstag, Frühbucher
+		assertEquals(9000, price("Golf", "2027-01-07T10:00:00Z")); // nur Frühbucher
+
+		bookingService.createBooking("DE", "B1", "person1", "Polo", at("2026-06-10T08:00:00Z"), at("2026-06-10T12:00:00Z"));
+		assertEquals(80.0, bookingService.getBookingById("B1").getPrice());
+		// die Hälfte der Kompaktklasse ist um 10 Uhr belegt
+		bookingService.createBooking("DE", "B2", "person1", "Golf", at("2026-06-10T10:00:00Z"), at("2026-06-10T11:00:00Z"));
+		assertEquals(125.0, bookingService.getBookingById("B2").getPrice());
+		// Buchungen ohne Zeitraum kosten den Grundpreis
+		bookingService.createBooking("DE", "B3", "person1", "Golf");
+		assertEquals(100.0, bookingService.getBookingById("B3").getPrice());
+
+		QuoteService quotes = new QuoteService(resourceService, pricingService);
+		assertEquals(12000, quotes.quote(new QuoteRequest("Golf", null, at("2027-01-02T10:00:00Z"),
+				at("2027-01-03T10:00:00Z"))).getAmountMinor());
+	}
+
+	@Test
+	// Testen, ob ein Regelsatz ausgetauscht werden kann, während gebucht wird, und jede Buchung einen der Sätze nutzt
+	public void isRuleSetSwappedWhileBooking() throws InterruptedException {
+		List<PricingRule> none = new ArrayList<>();
+		List<PricingRule> midweek = Arrays.asList(PricingRule.weekday(DayOfWeek.WEDNESDAY, 50));
+		ConcurrentLinkedQueue<Double> prices = new ConcurrentLinkedQueue<>();
+		List<Thread> threads = new ArrayList<>();
+		for (int t = 0; t < 4; t++) {
+			String car = "Car" + t;
+			resourceService.addResource(new Car(car, 100));
+			Thread thread = new Thread(() -> {
+				for (int i = 0; i < 500; i++) {
+					// jede Woche ein Mittwoch
+					Instant pickup = at("2026-06-03T10:00:00Z").plus(Duration.ofDays(7L * i));
+					String id = bookingService.createBooking("DE", "person1", car, pickup, pickup.plus(Duration.ofHours(2)));
+					prices.add(bookingService.getBookingById(id).getPrice());
+				}
+			});
+			threads.add(thread);
+			thread.start();
+		}
+		for (int i = 0; i < 200; i++)
+			pricingService.setRules(i % 2 == 0 ? midweek : none);
+		for (Thread thread : threads)
+			thread.join();
+
+		assertEquals(2000, prices.size());
+		assertTrue(prices.stream().allMatch(p -> p == 100.0 || p == 150.0), prices.toString());
+		pricingService.setRules(midweek);
+		assertEquals(15000, price("Car0", "2036-06-04T10:00:00Z"));
+	}
+
+	@Test
+	// Testen, ob eine Vorlaufregel ab mehr als MAX_LEAD_DAYS Tagen für den letzten Eintrag gilt
+	public void isLongLeadTimeApplied() {
+		pricingService.setRules(Arrays.asList(PricingRule.leadTime(800, Integer.MAX_VALUE, -20)));
+
+		assertEquals(8000, price("Golf", "2029-01-03T10:00:00Z"));
+		assertEquals(10000, price("Golf", "2027-01-07T10:00:00Z"));
+	}
+
+	@Test
+	// Testen, ob die Auslastung je Klasse und Slot mitgezählt wird, auch für mehrere Buchungen im selben Slot
+	public void isUtilizationCountedPerClassAndSlot() {
+		resourceService.addResource(new Car("Tiguan", 120, ResourceClass.SUV));
+		bookingService.createBooking("DE", "B1", "person1", "Polo", at("2026-06-10T10:00:00Z"), at("2026-06-10T10:30:00Z"));
+		bookingService.createBooking("DE", "B2", "person1", "Polo", at("2026-06-10T10:30:00Z"), at("2026-06-10T12:00:00Z"));
+		bookingService.createBooking("DE", "B3", "person1", "Tiguan", at("2026-06-10T10:00:00Z"), at("2026-06-10T11:00:00Z"));
+		Instant ten = at("2026-06-10T10:15:00Z");
+
+		assertEquals(50, availability.utilizationPercent(resourceService.getSelectedResource("Golf"), ten));
+		assertEquals(100, availability.utilizationPercent(resourceService.getSelectedResource("Tiguan"), ten));
+		// der Slot bleibt durch B2 belegt
+		bookingService.deleteBooking("B1");
+		assertEquals(50, availability.utilizationPercent(resourceService.getSelectedResource("Golf"), ten));
+		bookingService.deleteBooking("B2");
+		assertEquals(0, availability.utilizationPercent(resourceService.getSelectedResource("Golf"), ten));
+		assertEquals(0, availability.utilizationPercent(resourceService.getSelectedResource("Golf"), at("2026-06-10T11:15:00Z")));
+	}
+
+	@Test
+	// Testen, ob Termine von Dauerbuchungen in der Auslastung mitgezählt werden, ein Auto je Slot aber nur einmal
+	public void areRecurringBookingsCountedInUtilization() {
+		bookingService.createRecurringBooking("DE", "S1", "person1", "Golf", RecurrenceRule.weekly(
+				ZonedDateTime.parse("2026-06-10T10:00:00Z"), Duration.ofMinutes(30), LocalDate.parse("2026-07-01")));
+		// derselbe Stunden-Slot wie der Termin
+		bookingService.createBooking("DE", "B1", "person1", "Golf", at("2026-06-10T10:30:00Z"), at("2026-06-10T11:00:00Z"));
+		Instant ten = at("2026-06-10T10:15:00Z");
+		Instant nextWeek = at("2026-06-17T10:15:00Z");
+
+		assertEquals(50, availability.utilizationPercent(resourceService.getSelectedResource("Polo"), ten));
+		assertEquals(50, availability.utilizationPercent(resourceService.getSelectedResource("Polo"), nextWeek));
+		assertEquals(0, availability.utilizationPercent(resourceService.getSelectedResource("Polo"), at("2026-07-08T10:15:00Z")));
+		bookingService.deleteRecurringBooking("S1");
+		assertEquals(50, availability.utilizationPercent(resourceService.getSelectedResource("Polo"), ten));
+		assertEquals(0, availability.utilizationPercent(resourceService.getSelectedResource("Polo"), nextWeek));
+		bookingService.deleteBooking("B1");
+		assertEquals(0, availability.utilizationPercent(resourceService.getSelectedResource("Polo"), ten));
+	}
+
+	private long price(String resource, String pickup) {
+		return pricingService.priceMinor(resourceService.getSelectedResource(resource), at(pickup));
+	}
+
+	private static Instant at(String t) {
+		return Instant.parse(t);
+	}
+}
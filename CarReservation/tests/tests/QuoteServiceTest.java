@@ -0,0 +1,99 @@
+package tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import pricing.behaviour.QuoteService;
+import pricing.structure.Money;
+import pricing.structure.Quote;
+import pricing.structure.QuoteRequest;
+import resource.behaviour.ResourceService;
+import resource.structure.Car;
+import resource.structure.ChildSeat;
+import resource.structure.Extra;
+import resource.structure.ResourceClass;
+
+class QuoteServiceTest {
+
+	private static final Instant FROM = Instant.parse("2026-07-01T10:00:00Z");
+	private static final Instant TO = Instant.parse("2026-07-03T10:00:00Z");
+
+	private ResourceService resourceService;
+	private QuoteService quoteService;
+
+	@BeforeEach
+	public void setUp() {
+		resourceService = new ResourceService();
+		quoteService = new QuoteService(resourceService);
+		resourceService.addResource(new Car("Golf", 19.99, ResourceClass.COMPACT));
+		resourceService.addResource(new ChildSeat(new Car("Passat", 0.1, ResourceClass.MIDSIZE)));
+	}
+
+	@Test
+	// Testen, ob Preise in Cent genau sind und eingebaute Extras nicht doppelt zählen
+	public void areQuotesExactInMinorUnits() {
+		List<Quote> quotes = quoteService.quote(List.of(
+				request("Golf", EnumSet.noneOf(Extra.class)),
+				request("golf", EnumSet.of(Extra.CHILD_SEAT, Extra.SET_TOP_BOX)),
+				request("Passat", EnumSet.of(Extra.CHILD_SEAT)),
+				request("Passat", EnumSet.of(Extra.SET_TOP_BOX)),
+				request("Polo", null),
+				new QuoteRequest("Golf", null, TO, FROM)));
+
+		assertEquals(1999, quotes.get(0).getAmountMinor());
+		assertEquals(1999 + 1500 + 3000, quotes.get(1).getAmountMinor());
+		assertEquals(1510, quotes.get(2).getAmountMinor());
+		assertEquals("45.10", Money.format(quotes.get(3).getAmountMinor()));
+		assertFalse(quotes.get(4).isAvailable());
+		assertFalse(quotes.get(5).isAvailable());
+	}
+
+	@Test
+	// Testen, ob der Cache nach einer Preisänderung und nach dem Löschen nicht mehr benutzt wird
+	public void isCacheInvalidatedOnPriceChange() {
+		assertEquals(1999, quoteService.quote(request("Golf", null)).getAmountMinor());
+		assertEquals(1999, quoteService.quote(request("Golf", null)).getAmountMinor());
+		assertEquals(1, quoteService.getCacheHits());
+
+		resourceService.changePrice("Golf", 24.5);
+		assertEquals(2450, quoteService.quote(request("Golf", null)).getAmountMinor());
+		assertEquals(2, quoteService.getCacheMisses());
+		resourceService.removeResource("Golf");
+		assertFalse(quoteService.quote(request("Golf", null)).isAvailable());
+		// ersetzt ohne Umweg über changePrice: der alte Eintrag gehört zu einem anderen Objekt
+		resourceService.addResource(new Car("Golf", 30, ResourceClass.COMPACT));
+		assertEquals(3000, quoteService.quote(request("Golf", null)).getAmountMinor());
+	}
+
+	@Test
+	// Testen, ob ein großer Batch parallel dieselben Preise liefert wie einzelne Anfragen
+	public void isLargeBatchQuotedInParallel() {
+		List<QuoteRequest> batch = new ArrayList<>();
+		for (int i = 0; i < 2000; i++) {
+			resourceService.addResource(new Car("Car" + i, i + 0.01, ResourceClass.SUV));
+			batch.add(request("Car" + i, i % 2 == 0 ? EnumSet.of(Extra.CHILD_SEAT) : null));
+		}
+		List<Quote> quotes = quoteService.quote(batch);
+
+		assertEquals(2000, quotes.size());
+		for (int i = 0; i < 2000; i++) {
+			assertTrue(quotes.get(i).isAvailable());
+			assertEquals(i * 100L + 1 + (i % 2 == 0 ? 1500 : 0), quotes.get(i).getAmountMinor());
+			assertEquals(quoteService.quote(batch.get(i)).getAmountMinor(), quotes.get(i).getAmountMinor());
+		}
+	}
+
+	private static QuoteRequest request(String name, Set<Extra> extras) {
+		return new QuoteRequest(name, extras, FROM, TO);
+	}
+}
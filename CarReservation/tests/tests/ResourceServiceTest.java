@@ -2,16 +2,28 @@ package tests;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.BeforeEach;
 
 import resource.behaviour.ResourceService;
 import resource.structure.Car;
 import resource.structure.ChildSeat;
+import resource.structure.Extra;
+import resource.structure.GeoPoint;
 import resource.structure.Resource;
+import resource.structure.ResourceClass;
+import resource.structure.ResourceDecorator;
 import resource.structure.SetTopBox;
 
 class ResourceServiceTest {
@@ -55,6 +67,22 @@ class ResourceServiceTest {
 		assertTrue(sel.toString().contains("Child Seat"));
 	}
 	
+	@Test
+	// Testen, ob ein kompaktes Auto mit Extras wie die Dekorator-Kette aussieht und kostet
+	public void isCompactCarEquivalentToDecorators() {
+		Resource compact = new Car("Skoda Enyaq", 300, ResourceClass.SUV, EnumSet.of(Extra.SET_TOP_BOX, Extra.CHILD_SEAT));
+		Resource decorated = new SetTopBox(new ChildSeat(new Car("Skoda Enyaq", 300, ResourceClass.SUV)));
+		
+		assertEquals(345, compact.getPrice());
+		assertEquals(decorated.getPrice(), compact.getPrice());
+		assertEquals(decorated.toString(), compact.toString());
+		assertSame(compact.toString(), compact.toString()); // Anzeige wird nicht jedes Mal neu gebaut
+		assertEquals(decorated.getExtras(), compact.getExtras());
+		assertTrue(compact.has(ChildSeat.class) && decorated.hasExtra(Extra.CHILD_SEAT));
+		assertEquals(ResourceClass.SUV, decorated.getResourceClass());
+		assertEquals(300, ((Car) compact).getBasePrice());
+	}
+	
 	@Test
 	// Testen, ob das Entfernen eines Autos funktioniert und danach die Auswahl eine Exception wirft
 	public void isResourceRemovedAndLookupFails() {
@@ -85,5 +113,91 @@ class ResourceServiceTest {
 		Resource sel = resourceService.getSelectedResource("nissan leaf"); // Name in Kleinbuchstaben
 		assertEquals(300, sel.getPrice());
 	}
+	
+	@Test
+	// Testen, ob eine Preisänderung Autos mit eigenem Extra ablehnt, statt dessen Zuschlag zu verlieren
+	public void isPriceChangeRejectedForCustomExtras() {
+		resourceService.addResource(new ResourceDecorator(new ChildSeat(new Car("Zoe", 60, ResourceClass.COMPACT)), 5, "Snow Chains"));
+		resourceService.addResource(new SetTopBox(new Car("Clio", 50, ResourceClass.COMPACT)));
+		
+		assertThrows(IllegalStateException.class, () -> resourceService.changePrice("Zoe", 70));
+		assertEquals(80, resourceService.getSelectedResource("Zoe").getPrice());
+		assertTrue(resourceService.getSelectedResource("Zoe").toString().contains("Snow Chains"));
+		assertEquals(100, resourceService.changePrice("Clio", 70).getPrice());
+	}
+	
+	@Test
+	// Testen, ob die günstigsten Autos mit Extra über den Preisindex gefunden werden, auch bei 100k Autos
+	public void isCheapestWithExtraFoundByPriceIndex() {
+		Random random = new Random(7);
+		List<Resource> fleet = new ArrayList<>();
+		for (int i = 0; i < 100_000; i++) {
+			Resource r = new Car("Car" + i, 20 + random.nextInt(400),
+					ResourceClass.values()[random.nextInt(ResourceClass.values().length)]);
+			if (random.nextInt(3) == 0)
+				r = new ChildSeat(r);
+			if (random.nextInt(4) == 0)
+				r = new SetTopBox(r);
+			fleet.add(r);
+		}
+		resourceService.addResources(fleet);
+		
+		List<String> expected = fleet.stream().filter(r -> r.has(SetTopBox.class) && r.getPrice() <= 80)
+				.sorted(Comparator.comparingDouble(Resource::getPrice)).limit(20).map(Resource::getName)
+				.collect(Collectors.toList());
+		List<Resource> found = resourceService.findResources(null, EnumSet.of(Extra.SET_TOP_BOX), 80, 20);
+		assertEquals(expected, found.stream().map(Resource::getName).collect(Collectors.toList()));
+		
+		List<Resource> suv = resourceService.findResources(ResourceClass.SUV,
+				EnumSet.of(Extra.SET_TOP_BOX, Extra.CHILD_SEAT), 100, 20);
+		assertTrue(suv.stream().allMatch(r -> r.getResourceClass() == ResourceClass.SUV && r.has(ChildSeat.class)
+				&& r.has(SetTopBox.class) && r.getPrice() <= 100));
+		resourceService.removeResource(found.get(0).getName());
+		assertEquals(expected.subList(1, 20), resourceService.findResources(null, EnumSet.of(Extra.SET_TOP_BOX), 80, 19)
+				.stream().map(Resource::getName).collect(Collectors.toList()));
+	}
+	
+	@Test
+	// Testen, ob die nächsten Autos mit Extra über das Standortgitter gefunden werden, auch bei 100k Autos
+	public void isNearestCarFoundByGridIndex() {
+		Random random = new Random(11);
+		List<Resource> fleet = new ArrayList<>();
+		for (int i = 0; i < 100_000; i++)
+			fleet.add(new Car("Car" + i, 50, ResourceClass.COMPACT,
+					random.nextInt(4) == 0 ? EnumSet.of(Extra.SET_TOP_BOX) : EnumSet.noneOf(Extra.class)));
+		resourceService.addResources(fleet);
+		// Deutschland etwa
+		GeoPoint[] locations = new GeoPoint[fleet.size()];
+		List<Integer> candidates = new ArrayList<>();
+		for (int i = 0; i < fleet.size(); i++) {
+			Resource r = fleet.get(i);
+			locations[i] = new GeoPoint(47 + random.nextDouble() * 8, 6 + random.nextDouble() * 9);
+			resourceService.moveResource(r.getName(), locations[i]);
+			if (r.has(SetTopBox.class) && !r.getName().endsWith("7"))
+				candidates.add(i);
+		}
+		
+		// Vergleich mit allen Kandidaten, Entfernungen einmal je Abfrage berechnet
+		double[] distance = new double[fleet.size()];
+		for (int q = 0; q < 20; q++) {
+			GeoPoint at = new GeoPoint(47 + random.nextDouble() * 8, 6 + random.nextDouble() * 9);
+			for (int i : candidates)
+				distance[i] = at.distanceKm(locations[i]);
+			List<String> expected = candidates.stream().sorted(Comparator.comparingDouble(i -> distance[i])).limit(5)
+					.map(i -> fleet.get(i).getName()).collect(Collectors.toList());
+			List<Resource> found = resourceService.findNearest(at, 5, EnumSet.of(Extra.SET_TOP_BOX),
+					r -> !r.getName().endsWith("7"));
+			assertEquals(expected, found.stream().map(Resource::getName).collect(Collectors.toList()));
+		}
+		
+		// Rückgabe an einem anderen Ort: nur die beiden Zellen ändern sich
+		GeoPoint station = new GeoPoint(52.52, 13.405);
+		resourceService.moveResource("Car1", station);
+		assertEquals("Car1", resourceService.findNearest(station, 1, null, null).get(0).getName());
+		resourceService.changePrice("Car1", 60);
+		assertEquals(station, resourceService.getLocation("Car1"));
+		resourceService.removeResource("Car1");
+		assertTrue(resourceService.findNearest(station, 3, null, null).stream().noneMatch(r -> r.getName().equals("Car1")));
+	}
 
 }